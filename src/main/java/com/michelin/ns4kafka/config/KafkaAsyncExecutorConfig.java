@@ -10,6 +10,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.apache.kafka.clients.admin.Admin;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Properties;
 
@@ -29,6 +30,25 @@ public class KafkaAsyncExecutorConfig {
     private RegistryConfig schemaRegistry;
     private Admin adminClient = null;
 
+    /**
+     * Number of topics described per describeTopics/describeConfigs request, and number of these requests in flight
+     */
+    private int topicDescribeChunkSize = 500;
+    private int topicDescribeConcurrency = 2;
+
+    /**
+     * Describe the broker ACLs of each managed principal instead of the ACLs of all principals
+     */
+    private boolean describeAclsByPrincipal = false;
+
+    /**
+     * Number of connectors deployed at the same time on a Connect cluster, and retries of a deployment
+     * rejected with a 409 (rebalancing) or 5xx error, spaced by an exponential backoff
+     */
+    private int connectorDeployConcurrency = 4;
+    private int connectorDeployMaxRetries = 3;
+    private Duration connectorDeployRetryBackoff = Duration.ofSeconds(2);
+
     public KafkaAsyncExecutorConfig(@Parameter String name) {
         this.name = name;
     }
@@ -45,6 +65,13 @@ public class KafkaAsyncExecutorConfig {
         String url;
         String basicAuthUsername;
         String basicAuthPassword;
+
+        /**
+         * Pool of the requests proxied to the Connect cluster, the unset values falling back to the ns4kafka.proxy ones
+         */
+        Integer maxConnections;
+        Integer maxPendingAcquires;
+        Duration acquireTimeout;
     }
 
     @Getter
@@ -54,6 +81,13 @@ public class KafkaAsyncExecutorConfig {
         String url;
         String basicAuthUsername;
         String basicAuthPassword;
+
+        /**
+         * Pool of the requests proxied to the Schema Registry, the unset values falling back to the ns4kafka.proxy ones
+         */
+        Integer maxConnections;
+        Integer maxPendingAcquires;
+        Duration acquireTimeout;
     }
 
     public enum KafkaProvider {
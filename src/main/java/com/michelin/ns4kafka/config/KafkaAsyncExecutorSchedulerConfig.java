@@ -0,0 +1,28 @@
+package com.michelin.ns4kafka.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("ns4kafka.scheduler")
+public class KafkaAsyncExecutorSchedulerConfig {
+    /**
+     * Number of clusters synchronized at the same time
+     */
+    private int parallelism = 4;
+
+    /**
+     * Maximum duration of a single executor run, after which it is interrupted so the cluster moves on
+     */
+    private Duration executorTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Interval between two full synchronizations of a cluster
+     * In between, the executors only synchronize the resources changed in Ns4Kafka
+     */
+    private Duration driftDetectionInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,22 @@
+package com.michelin.ns4kafka.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("ns4kafka.store.kafka.snapshot")
+public class KafkaStoreSnapshotConfig {
+    private boolean enabled = false;
+    private String directory = "snapshots";
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * Snapshots older than this are ignored, so that no tombstone compacted away
+     * since the snapshot was taken (see delete.retention.ms) is missed on restart
+     */
+    private Duration maxAge = Duration.ofHours(12);
+}
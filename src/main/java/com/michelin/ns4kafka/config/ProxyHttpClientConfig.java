@@ -0,0 +1,57 @@
+package com.michelin.ns4kafka.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("ns4kafka.proxy")
+public class ProxyHttpClientConfig {
+    /**
+     * Maximum number of pooled connections to a single Connect or Schema Registry backend
+     */
+    private int maxConnections = 20;
+
+    /**
+     * Maximum number of requests waiting for a pooled connection to a single backend
+     */
+    private int maxPendingAcquires = 100;
+
+    /**
+     * Maximum duration a request waits for a pooled connection
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Maximum duration to establish a connection to a backend
+     */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum duration to wait for the response of a backend
+     */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Duration an idle pooled connection is kept alive
+     */
+    private Duration keepAliveTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Number of event loop threads of a single backend client
+     */
+    private int eventLoopThreads = 1;
+
+    /**
+     * Pool settings of a single backend overriding the defaults above, a null value falling back to its default
+     * @param maxConnections The maximum number of pooled connections
+     * @param maxPendingAcquires The maximum number of requests waiting for a pooled connection
+     * @param acquireTimeout The maximum duration a request waits for a pooled connection
+     */
+    public record PoolOverrides(Integer maxConnections, Integer maxPendingAcquires, Duration acquireTimeout) {
+        public static final PoolOverrides NONE = new PoolOverrides(null, null, null);
+    }
+}
@@ -0,0 +1,316 @@
+package com.michelin.ns4kafka.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.michelin.ns4kafka.controllers.acl.AccessControlListController;
+import com.michelin.ns4kafka.controllers.generic.NamespacedResourceController;
+import com.michelin.ns4kafka.controllers.generic.ResourceController;
+import com.michelin.ns4kafka.controllers.topic.TopicController;
+import com.michelin.ns4kafka.models.AccessControlEntry;
+import com.michelin.ns4kafka.models.ApplyResult;
+import com.michelin.ns4kafka.models.Namespace;
+import com.michelin.ns4kafka.models.Topic;
+import com.michelin.ns4kafka.models.connector.Connector;
+import com.michelin.ns4kafka.security.ResourceBasedSecurityRule;
+import com.michelin.ns4kafka.services.AccessControlEntryService;
+import com.michelin.ns4kafka.services.ConnectorService;
+import com.michelin.ns4kafka.services.ResourceQuotaService;
+import com.michelin.ns4kafka.services.TopicService;
+import com.michelin.ns4kafka.utils.enums.ApplyStatus;
+import com.michelin.ns4kafka.utils.exceptions.ResourceValidationException;
+import io.micronaut.http.HttpMethod;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.annotation.*;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.validation.validator.Validator;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.inject.Inject;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+@Tag(name = "Bulk Apply")
+@Controller(value = "/api/namespaces/{namespace}/" + ResourceBasedSecurityRule.BULK_RESOURCE_TYPE)
+@ExecuteOn(TaskExecutors.IO)
+public class BulkApplyController extends NamespacedResourceController {
+    private static final Map<String, String> RESOURCE_TYPES_BY_KIND = Map.of(
+            "Topic", "topics",
+            "AccessControlEntry", "acls",
+            "Connector", "connectors");
+
+    @Inject
+    TopicController topicController;
+
+    @Inject
+    AccessControlListController accessControlListController;
+
+    @Inject
+    ConnectorController connectorController;
+
+    @Inject
+    TopicService topicService;
+
+    @Inject
+    AccessControlEntryService accessControlEntryService;
+
+    @Inject
+    ConnectorService connectorService;
+
+    @Inject
+    ResourceQuotaService resourceQuotaService;
+
+    @Inject
+    ResourceBasedSecurityRule resourceBasedSecurityRule;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
+    /**
+     * Apply a list of topics, ACLs and connectors
+     * Each resource is validated, then the batch as a whole against a snapshot of the namespace taken beforehand.
+     * The batch is rejected if the namespace changed since the snapshot, otherwise the changed resources are written
+     * in one batch per kind
+     * @param authentication The authentication entity
+     * @param namespace The namespace
+     * @param resources The resources
+     * @param dryrun Is dry run mode or not ?
+     * @return The apply result of each resource
+     */
+    @Post("/apply{?dryrun}")
+    public List<ApplyResult> apply(Authentication authentication, String namespace, @Body List<Map<String, Object>> resources,
+                                   @QueryValue(defaultValue = "false") boolean dryrun) throws ExecutionException, InterruptedException, TimeoutException {
+        Namespace ns = getNamespace(namespace);
+        NamespaceSnapshot snapshot = takeSnapshot(ns);
+
+        List<String> validationErrors = new ArrayList<>();
+        List<ApplyResult> results = new ArrayList<>();
+        Set<String> appliedResources = new HashSet<>();
+        for (Map<String, Object> resource : resources) {
+            try {
+                ApplyResult result = validate(authentication, namespace, resource);
+                if (!appliedResources.add(result.getKind() + "/" + result.getName())) {
+                    validationErrors.add(String.format("%s %s: Resource is declared more than once.", result.getKind(), result.getName()));
+                }
+                results.add(result);
+            } catch (ResourceValidationException e) {
+                e.getValidationErrors().forEach(error -> validationErrors.add(String.format("%s %s: %s", e.getKind(), e.getName(), error)));
+            }
+        }
+
+        if (validationErrors.isEmpty()) {
+            validationErrors.addAll(validateBatch(ns, snapshot, results));
+        }
+
+        if (!validationErrors.isEmpty()) {
+            throw new ResourceValidationException(validationErrors, "List", namespace);
+        }
+
+        if (dryrun) {
+            return results;
+        }
+
+        if (!takeSnapshot(ns).specs().equals(snapshot.specs())) {
+            throw new ResourceValidationException(List.of("Resources of namespace " + namespace
+                    + " changed while the batch was validated. Please retry."), "List", namespace);
+        }
+
+        List<Topic> topics = new ArrayList<>();
+        List<AccessControlEntry> accessControlEntries = new ArrayList<>();
+        List<Connector> connectors = new ArrayList<>();
+        for (ApplyResult result : results) {
+            if (result.getStatus() == ApplyStatus.unchanged) {
+                continue;
+            }
+
+            if (result.getResource() instanceof Topic topic) {
+                sendEventLog(topic.getKind(), topic.getMetadata(), result.getStatus(),
+                        topicService.findByName(ns, topic.getMetadata().getName()).<Object>map(Topic::getSpec).orElse(null),
+                        topic.getSpec());
+                topics.add(topic);
+            } else if (result.getResource() instanceof AccessControlEntry accessControlEntry) {
+                sendEventLog(accessControlEntry.getKind(), accessControlEntry.getMetadata(), result.getStatus(),
+                        accessControlEntryService.findByName(namespace, accessControlEntry.getMetadata().getName()).<Object>map(AccessControlEntry::getSpec).orElse(null),
+                        accessControlEntry.getSpec());
+                accessControlEntries.add(accessControlEntry);
+            } else if (result.getResource() instanceof Connector connector) {
+                sendEventLog(connector.getKind(), connector.getMetadata(), result.getStatus(),
+                        connectorService.findByName(ns, connector.getMetadata().getName()).<Object>map(Connector::getSpec).orElse(null),
+                        connector.getSpec());
+                connectors.add(connector);
+            }
+        }
+
+        if (!topics.isEmpty()) {
+            topicService.createAll(topics);
+        }
+
+        if (!accessControlEntries.isEmpty()) {
+            accessControlEntryService.createAll(accessControlEntries);
+        }
+
+        if (!connectors.isEmpty()) {
+            connectorService.createOrUpdateAll(connectors);
+        }
+
+        return results;
+    }
+
+    /**
+     * Validate the resources of a batch together: names colliding with each other or with the namespace topics,
+     * and quota consumed by the whole batch
+     * @param namespace The namespace
+     * @param snapshot The snapshot of the namespace taken before the validation
+     * @param results The apply results of the resources
+     * @return A list of errors
+     */
+    private List<String> validateBatch(Namespace namespace, NamespaceSnapshot snapshot, List<ApplyResult> results) {
+        List<Topic> appliedTopics = results
+                .stream()
+                .filter(result -> result.getStatus() != ApplyStatus.unchanged)
+                .map(ApplyResult::getResource)
+                .filter(Topic.class::isInstance)
+                .map(Topic.class::cast)
+                .toList();
+        long createdConnectors = results
+                .stream()
+                .filter(result -> result.getStatus() == ApplyStatus.created && result.getResource() instanceof Connector)
+                .count();
+
+        List<String> errors = new ArrayList<>();
+        for (Topic topic : appliedTopics) {
+            String name = topic.getMetadata().getName();
+            List<String> collidingTopics = Stream.concat(appliedTopics.stream(), snapshot.topics().stream())
+                    .map(other -> other.getMetadata().getName())
+                    .filter(other -> !other.equals(name) && TopicService.hasCollision(other, name))
+                    .distinct()
+                    .toList();
+            if (!collidingTopics.isEmpty()) {
+                errors.add(String.format("Topic %s: Topic collides with topics %s.", name, String.join(", ", collidingTopics)));
+            }
+        }
+
+        errors.addAll(resourceQuotaService.validateBulkQuota(namespace, snapshot.topics(), snapshot.connectors().size(),
+                appliedTopics, createdConnectors));
+        return errors;
+    }
+
+    /**
+     * Take a snapshot of the topics, ACLs and connectors of a namespace
+     * @param namespace The namespace
+     * @return The snapshot
+     */
+    private NamespaceSnapshot takeSnapshot(Namespace namespace) {
+        return new NamespaceSnapshot(topicService.findAllForNamespace(namespace),
+                accessControlEntryService.findAllForNamespace(namespace),
+                connectorService.findAllForNamespace(namespace));
+    }
+
+    /**
+     * Validate a resource by applying it in dry run mode
+     * @param authentication The authentication entity
+     * @param namespace The namespace
+     * @param resource The resource
+     * @return The apply result of the resource
+     */
+    private ApplyResult validate(Authentication authentication, String namespace, Map<String, Object> resource)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        String kind = String.valueOf(resource.get("kind"));
+        Object metadata = resource.get("metadata");
+        String name = metadata instanceof Map<?, ?> metadataMap ? String.valueOf(metadataMap.get("name")) : null;
+
+        if (!RESOURCE_TYPES_BY_KIND.containsKey(kind)) {
+            throw new ResourceValidationException(List.of("Invalid value " + kind + " for kind: Value must be one of ["
+                    + String.join(", ", RESOURCE_TYPES_BY_KIND.keySet().stream().sorted().toList()) + "]"), kind, name);
+        }
+
+        if (!isAuthorized(authentication, namespace, RESOURCE_TYPES_BY_KIND.get(kind))) {
+            throw new ResourceValidationException(List.of("Not allowed to apply resources of kind " + kind + " in namespace " + namespace + "."), kind, name);
+        }
+
+        HttpResponse<?> response;
+        if (kind.equals("Topic")) {
+            response = topicController.apply(namespace, convert(resource, Topic.class, kind, name), true);
+        } else if (kind.equals("AccessControlEntry")) {
+            response = accessControlListController.apply(authentication, namespace, convert(resource, AccessControlEntry.class, kind, name), true);
+        } else {
+            response = connectorController.apply(namespace, convert(resource, Connector.class, kind, name), true).blockingGet();
+        }
+
+        return ApplyResult.builder()
+                .kind(kind)
+                .name(name)
+                .status(ApplyStatus.valueOf(response.header(ResourceController.STATUS_HEADER)))
+                .resource(response.body())
+                .build();
+    }
+
+    /**
+     * Convert a resource to its model and check its constraints
+     * @param resource The resource
+     * @param type The model type
+     * @param kind The resource kind
+     * @param name The resource name
+     * @param <T> The model type
+     * @return The model
+     */
+    private <T> T convert(Map<String, Object> resource, Class<T> type, String kind, String name) {
+        T model;
+        try {
+            model = objectMapper.convertValue(resource, type);
+        } catch (IllegalArgumentException e) {
+            throw new ResourceValidationException(List.of("Invalid resource: " + e.getMessage()), kind, name);
+        }
+
+        List<String> violations = validator.validate(model)
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .toList();
+        if (!violations.isEmpty()) {
+            throw new ResourceValidationException(violations, kind, name);
+        }
+
+        return model;
+    }
+
+    /**
+     * Is the user allowed to apply the given resource type in the namespace
+     * @param authentication The authentication entity
+     * @param namespace The namespace
+     * @param resourceType The resource type
+     * @return true if it is, false otherwise
+     */
+    private boolean isAuthorized(Authentication authentication, String namespace, String resourceType) {
+        if (authentication.getRoles().contains(ResourceBasedSecurityRule.IS_ADMIN)) {
+            return true;
+        }
+
+        return !resourceBasedSecurityRule.findAuthorizedRoleBindings(ResourceBasedSecurityRule.getGroups(authentication),
+                namespace, resourceType, HttpMethod.POST.name()).isEmpty();
+    }
+
+    /**
+     * Resources of a namespace at a point in time
+     * @param topics The topics
+     * @param accessControlEntries The ACLs
+     * @param connectors The connectors
+     */
+    private record NamespaceSnapshot(List<Topic> topics, List<AccessControlEntry> accessControlEntries, List<Connector> connectors) {
+        /**
+         * Get the specs of the resources by kind and name, ignoring the statuses updated by the executors
+         * @return The specs
+         */
+        Map<String, Object> specs() {
+            Map<String, Object> specs = new HashMap<>();
+            topics.forEach(topic -> specs.put("Topic/" + topic.getMetadata().getName(), topic.getSpec()));
+            accessControlEntries.forEach(accessControlEntry -> specs.put("AccessControlEntry/" + accessControlEntry.getMetadata().getName(), accessControlEntry.getSpec()));
+            connectors.forEach(connector -> specs.put("Connector/" + connector.getMetadata().getName(), connector.getSpec()));
+            return specs;
+        }
+    }
+}
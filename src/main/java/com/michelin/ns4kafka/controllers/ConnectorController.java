@@ -39,11 +39,16 @@ public class ConnectorController extends NamespacedResourceController {
     /**
      * Get all the connectors by namespace
      * @param namespace The namespace
+     * @param status Include the connector statuses cached at the last synchronization or not
      * @return A list of connectors
      */
-    @Get
-    public List<Connector> list(String namespace) {
-        return connectorService.findAllForNamespace(getNamespace(namespace));
+    @Get("{?status}")
+    public List<Connector> list(String namespace, @QueryValue(defaultValue = "false") boolean status) {
+        Namespace ns = getNamespace(namespace);
+        if (status) {
+            return connectorService.findAllForNamespaceWithStatus(ns);
+        }
+        return connectorService.findAllForNamespace(ns);
     }
 
     /**
@@ -233,6 +238,17 @@ public class ConnectorController extends NamespacedResourceController {
                 .onErrorReturnItem(HttpResponse.ok(changeConnectorState));
     }
 
+    /**
+     * List the connectors whose configuration deployed on Connect differs from the applied one, or which are not deployed,
+     * as of the last synchronization
+     * @param namespace The namespace
+     * @return The list of drifted connectors
+     */
+    @Get("/_/drifted")
+    public List<Connector> listDrifted(String namespace) {
+        return connectorService.listDriftedConnectors(getNamespace(namespace));
+    }
+
     /**
      * Import unsynchronized connectors
      * @param namespace The namespace
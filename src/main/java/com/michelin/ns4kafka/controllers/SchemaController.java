@@ -2,6 +2,7 @@ package com.michelin.ns4kafka.controllers;
 
 import com.michelin.ns4kafka.controllers.generic.NamespacedResourceController;
 import com.michelin.ns4kafka.models.AccessControlEntry;
+import com.michelin.ns4kafka.models.ApplyResult;
 import com.michelin.ns4kafka.models.Namespace;
 import com.michelin.ns4kafka.models.schema.Schema;
 import com.michelin.ns4kafka.models.schema.SchemaCompatibilityState;
@@ -9,21 +10,32 @@ import com.michelin.ns4kafka.models.schema.SchemaList;
 import com.michelin.ns4kafka.services.SchemaService;
 import com.michelin.ns4kafka.utils.enums.ApplyStatus;
 import com.michelin.ns4kafka.utils.exceptions.ResourceValidationException;
+import io.micronaut.context.annotation.Value;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
 import io.micronaut.http.annotation.*;
 import io.micronaut.scheduling.TaskExecutors;
 import io.micronaut.scheduling.annotation.ExecuteOn;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.subjects.CompletableSubject;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.inject.Inject;
 
 import javax.validation.Valid;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Tag(name = "Schemas")
 @Controller(value = "/api/namespaces/{namespace}/schemas")
@@ -32,6 +44,9 @@ public class SchemaController extends NamespacedResourceController {
     @Inject
     SchemaService schemaService;
 
+    @Value("${ns4kafka.schema.batch-concurrency:8}")
+    int batchConcurrency = 8;
+
     /**
      * Get all the schemas by namespace
      * @param namespace The namespace
@@ -71,19 +86,167 @@ public class SchemaController extends NamespacedResourceController {
     public Single<HttpResponse<Schema>> apply(String namespace, @Valid @Body Schema schema, @QueryValue(defaultValue = "false") boolean dryrun) {
         Namespace ns = getNamespace(namespace);
 
+        List<String> subjectErrors = validateSubject(ns, schema);
+        if (!subjectErrors.isEmpty()) {
+            return Single.error(new ResourceValidationException(subjectErrors, schema.getKind(), schema.getMetadata().getName()));
+        }
+
+        return applySchema(ns, schema, dryrun)
+                .map(status -> formatHttpResponse(schema, status));
+    }
+
+    /**
+     * Publish a batch of schemas
+     * The compatibility checks and registrations of the schemas run concurrently, and a failing schema does not prevent
+     * the others from being published
+     * A schema referencing other schemas of the batch is published once they are, all the applies sharing the same
+     * concurrency window
+     * @param namespace The namespace
+     * @param schemas   The schemas to create
+     * @param dryrun    Does the creation is a dry run
+     * @return The apply result of each schema
+     */
+    @Post("/_/batch{?dryrun}")
+    public Single<List<ApplyResult>> applyBatch(String namespace, @Valid @Body List<Schema> schemas,
+                                                @QueryValue(defaultValue = "false") boolean dryrun) {
+        Namespace ns = getNamespace(namespace);
+
+        Set<String> subjects = new HashSet<>();
+        Map<Schema, List<String>> subjectErrorsBySchema = new IdentityHashMap<>();
+        Map<String, Schema> batchSchemas = new LinkedHashMap<>();
+        for (Schema schema : schemas) {
+            List<String> subjectErrors = new ArrayList<>(validateSubject(ns, schema));
+            if (!subjects.add(schema.getMetadata().getName())) {
+                subjectErrors.add("Subject is declared more than once.");
+            }
+
+            if (subjectErrors.isEmpty()) {
+                batchSchemas.put(schema.getMetadata().getName(), schema);
+            } else {
+                subjectErrorsBySchema.put(schema, subjectErrors);
+            }
+        }
+
+        // The referenced schemas are applied first, so a schema waiting for its references never holds the window
+        // while they are still waiting for a slot
+        Map<String, List<String>> awaitedReferencesBySubject = new LinkedHashMap<>();
+        batchSchemas.values().forEach(schema -> orderByReferences(schema, batchSchemas, new HashSet<>(), awaitedReferencesBySubject));
+
+        Map<String, CompletableSubject> schemaAppliesBySubject = new HashMap<>();
+        batchSchemas.keySet().forEach(subject -> schemaAppliesBySubject.put(subject, CompletableSubject.create()));
+
+        return Flowable.fromIterable(awaitedReferencesBySubject.entrySet())
+                .flatMapSingle(awaitedReferences -> applyAfterReferences(ns, batchSchemas.get(awaitedReferences.getKey()),
+                                awaitedReferences.getValue(), schemaAppliesBySubject, dryrun),
+                        false, Math.max(1, batchConcurrency))
+                .toMap(ApplyResult::getName)
+                // The results are returned in the order of the schemas, whatever the order the applies complete in
+                .map(applyResultsBySubject -> schemas
+                        .stream()
+                        .map(schema -> subjectErrorsBySchema.containsKey(schema) ?
+                                buildApplyResult(schema, null, subjectErrorsBySchema.get(schema)) :
+                                applyResultsBySubject.get(schema.getMetadata().getName()))
+                        .toList());
+    }
+
+    /**
+     * Add a schema of a batch to the apply order, after the schemas of the batch it references
+     * A reference closing a cycle is not awaited, as it comes later in the apply order
+     * @param schema                     The schema
+     * @param batchSchemas               The valid schemas of the batch by subject
+     * @param visitedSubjects            The subjects of the schemas referencing this one
+     * @param awaitedReferencesBySubject The referenced subjects to await by subject, in apply order
+     */
+    private void orderByReferences(Schema schema, Map<String, Schema> batchSchemas, Set<String> visitedSubjects,
+                                   Map<String, List<String>> awaitedReferencesBySubject) {
+        String subject = schema.getMetadata().getName();
+        if (awaitedReferencesBySubject.containsKey(subject) || !visitedSubjects.add(subject)) {
+            return;
+        }
+
+        List<String> references = getBatchReferences(schema, batchSchemas);
+        references.forEach(referencedSubject -> orderByReferences(batchSchemas.get(referencedSubject), batchSchemas,
+                visitedSubjects, awaitedReferencesBySubject));
+
+        visitedSubjects.remove(subject);
+        awaitedReferencesBySubject.put(subject, references
+                .stream()
+                .filter(awaitedReferencesBySubject::containsKey)
+                .toList());
+    }
+
+    /**
+     * Apply a schema of a batch once the schemas of the batch it references are applied
+     * The referenced schemas come first in the apply order, so they are applied or being applied already
+     * @param ns                     The namespace
+     * @param schema                 The schema
+     * @param awaitedReferences      The referenced subjects to await
+     * @param schemaAppliesBySubject The completion of the apply of each schema of the batch by subject
+     * @param dryrun                 Does the creation is a dry run
+     * @return The apply result of the schema
+     */
+    private Single<ApplyResult> applyAfterReferences(Namespace ns, Schema schema, List<String> awaitedReferences,
+                                                     Map<String, CompletableSubject> schemaAppliesBySubject, boolean dryrun) {
+        List<Completable> referencesApplies = awaitedReferences
+                .stream()
+                .<Completable>map(schemaAppliesBySubject::get)
+                .toList();
+
+        // The result of a referenced schema is not checked, the registry reports the missing references itself
+        return Completable.merge(referencesApplies)
+                .andThen(Single.defer(() -> applySchema(ns, schema, dryrun)))
+                .map(status -> buildApplyResult(schema, status, null))
+                .onErrorReturn(error -> buildApplyResult(schema, null, error instanceof ResourceValidationException validationException ?
+                        validationException.getValidationErrors() : List.of(String.valueOf(error.getMessage()))))
+                .doOnSuccess(applyResult -> schemaAppliesBySubject.get(schema.getMetadata().getName()).onComplete());
+    }
+
+    /**
+     * Get the subjects of the schemas of a batch a schema references
+     * @param schema       The schema
+     * @param batchSchemas The valid schemas of the batch by subject
+     * @return The referenced subjects
+     */
+    private List<String> getBatchReferences(Schema schema, Map<String, Schema> batchSchemas) {
+        return Optional.ofNullable(schema.getSpec().getReferences())
+                .orElse(List.of())
+                .stream()
+                .map(Schema.SchemaSpec.Reference::getSubject)
+                .filter(batchSchemas::containsKey)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Validate the subject name of a schema and the namespace ownership on it
+     * @param namespace The namespace
+     * @param schema    The schema
+     * @return A list of validation errors
+     */
+    private List<String> validateSubject(Namespace namespace, Schema schema) {
         // Validate TopicNameStrategy
         // https://github.com/confluentinc/schema-registry/blob/master/schema-serializer/src/main/java/io/confluent/kafka/serializers/subject/TopicNameStrategy.java
         if (!schema.getMetadata().getName().endsWith("-key") && !schema.getMetadata().getName().endsWith("-value")) {
-            return Single.error(new ResourceValidationException(List.of("Invalid value " + schema.getMetadata().getName() +
-                    " for name: subject must end with -key or -value"), schema.getKind(), schema.getMetadata().getName()));
+            return List.of("Invalid value " + schema.getMetadata().getName() +
+                    " for name: subject must end with -key or -value");
         }
 
         // Validate ownership
-        if (!schemaService.isNamespaceOwnerOfSubject(ns, schema.getMetadata().getName())) {
-            return Single.error(new ResourceValidationException(List.of(String.format("Namespace not owner of this schema %s.",
-                    schema.getMetadata().getName())), schema.getKind(), schema.getMetadata().getName()));
+        if (!schemaService.isNamespaceOwnerOfSubject(namespace, schema.getMetadata().getName())) {
+            return List.of(String.format("Namespace not owner of this schema %s.", schema.getMetadata().getName()));
         }
 
+        return List.of();
+    }
+
+    /**
+     * Check the compatibility of a schema, then register it unless in dry run mode
+     * @param ns     The namespace
+     * @param schema The schema
+     * @param dryrun Does the creation is a dry run
+     * @return The apply status of the schema
+     */
+    private Single<ApplyStatus> applySchema(Namespace ns, Schema schema, boolean dryrun) {
         return schemaService
                 .validateSchemaCompatibility(ns.getMetadata().getCluster(), schema)
                 .flatMap(validationErrors -> {
@@ -98,8 +261,7 @@ public class SchemaController extends NamespacedResourceController {
                             .flatMap(latestSubjectOptional -> {
                                 if (dryrun) {
                                     // Cannot compute the "unchanged" apply status before getting the ID at registration
-                                    return Single.just(formatHttpResponse(schema,
-                                            latestSubjectOptional.isPresent() ? ApplyStatus.changed : ApplyStatus.created));
+                                    return Single.just(latestSubjectOptional.isPresent() ? ApplyStatus.changed : ApplyStatus.created);
                                 }
 
                                 return schemaService
@@ -122,12 +284,29 @@ public class SchemaController extends NamespacedResourceController {
                                                 status = ApplyStatus.unchanged;
                                             }
 
-                                            return formatHttpResponse(schema, status);
+                                            return status;
                                         });
                             });
                 });
     }
 
+    /**
+     * Build the apply result of a schema
+     * @param schema The schema
+     * @param status The apply status, null if the apply failed
+     * @param errors The errors, null if the apply succeeded
+     * @return The apply result
+     */
+    private ApplyResult buildApplyResult(Schema schema, ApplyStatus status, List<String> errors) {
+        return ApplyResult.builder()
+                .kind(schema.getKind())
+                .name(schema.getMetadata().getName())
+                .status(status)
+                .resource(schema)
+                .errors(errors)
+                .build();
+    }
+
     /**
      * Delete all schemas under the given subject
      * @param namespace The current namespace
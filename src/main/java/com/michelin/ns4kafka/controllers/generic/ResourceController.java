@@ -13,7 +13,7 @@ import java.time.Instant;
 import java.util.Date;
 
 public abstract class ResourceController {
-    private static final String STATUS_HEADER = "X-Ns4kafka-Result";
+    public static final String STATUS_HEADER = "X-Ns4kafka-Result";
 
     @Inject
     public SecurityService securityService;
@@ -4,8 +4,10 @@ import com.michelin.ns4kafka.controllers.generic.NonNamespacedResourceController
 import com.michelin.ns4kafka.models.quota.ResourceQuotaResponse;
 import com.michelin.ns4kafka.security.ResourceBasedSecurityRule;
 import com.michelin.ns4kafka.services.ResourceQuotaService;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Get;
+import io.reactivex.rxjava3.core.Flowable;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.inject.Inject;
 
@@ -27,4 +29,13 @@ public class ResourceQuotaNonNamespacedController extends NonNamespacedResourceC
     public List<ResourceQuotaResponse> listAll() {
         return resourceQuotaService.getUsedResourcesByQuotaForAllNamespaces();
     }
+
+    /**
+     * Stream the quotas of all namespaces as newline-delimited JSON, each quota being sent as soon as it is computed
+     * @return A stream of quotas
+     */
+    @Get(value = "/_/stream", produces = MediaType.APPLICATION_JSON_STREAM)
+    public Flowable<ResourceQuotaResponse> streamAll() {
+        return resourceQuotaService.streamUsedResourcesByQuotaForAllNamespaces();
+    }
 }
@@ -183,13 +183,10 @@ public class TopicController extends NamespacedResourceController {
             return unsynchronizedTopics;
         }
 
-        return unsynchronizedTopics
-                .stream()
-                .map(topic -> {
-                    sendEventLog("Topic", topic.getMetadata(), ApplyStatus.created, null, topic.getSpec());
-                    return topicService.create(topic);
-                })
-                .toList();
+        unsynchronizedTopics.forEach(topic ->
+                sendEventLog("Topic", topic.getMetadata(), ApplyStatus.created, null, topic.getSpec()));
+
+        return topicService.createAll(unsynchronizedTopics);
     }
 
     /**
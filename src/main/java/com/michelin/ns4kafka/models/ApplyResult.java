@@ -0,0 +1,20 @@
+package com.michelin.ns4kafka.models;
+
+import com.michelin.ns4kafka.utils.enums.ApplyStatus;
+import io.micronaut.core.annotation.Introspected;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Builder
+@Introspected
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApplyResult {
+    private String kind;
+    private String name;
+    private ApplyStatus status;
+    private Object resource;
+    private List<String> errors;
+}
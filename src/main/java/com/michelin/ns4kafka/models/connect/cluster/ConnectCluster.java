@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.time.Duration;
 
 @Data
 @Builder
@@ -61,5 +62,20 @@ public class ConnectCluster {
          * Gets or sets the aes256 key.
          */
         String aes256Format;
+
+        /**
+         * Gets or sets the maximum number of pooled connections to the Kafka Connect Cluster.
+         */
+        Integer maxConnections;
+
+        /**
+         * Gets or sets the maximum number of requests waiting for a pooled connection.
+         */
+        Integer maxPendingAcquires;
+
+        /**
+         * Gets or sets the maximum duration a request waits for a pooled connection.
+         */
+        Duration acquireTimeout;
     }
 }
@@ -3,11 +3,18 @@ package com.michelin.ns4kafka.repositories;
 import com.michelin.ns4kafka.models.AccessControlEntry;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AccessControlEntryRepository {
     Collection<AccessControlEntry> findAll();
     Optional<AccessControlEntry> findByName(String namespace, String name);
+    List<AccessControlEntry> findAllForCluster(String cluster);
+    List<AccessControlEntry> findAllForNamespace(String namespace);
+    List<AccessControlEntry> findAllGrantedTo(String grantedTo);
+    List<AccessControlEntry> findAllOwnersOfResource(AccessControlEntry.ResourceType resourceType, String resource);
     AccessControlEntry create(AccessControlEntry accessControlEntry);
+    List<AccessControlEntry> createAll(List<AccessControlEntry> accessControlEntries);
     void delete(AccessControlEntry accessControlEntry);
+    void addListener(RepositoryListener<AccessControlEntry> listener);
 }
@@ -9,4 +9,5 @@ public interface ConnectClusterRepository {
     List<ConnectCluster> findAllForCluster(String cluster);
     ConnectCluster create(ConnectCluster connectCluster);
     void delete(ConnectCluster connectCluster);
+    void addListener(RepositoryListener<ConnectCluster> listener);
 }
@@ -19,9 +19,22 @@ public interface ConnectorRepository {
      */
     Connector create(Connector connector);
 
+    /**
+     * Create a batch of connectors
+     * @param connectors The connectors to create
+     * @return The created connectors
+     */
+    List<Connector> createAll(List<Connector> connectors);
+
     /**
      * Delete a given connector
      * @param connector The connector to delete
      */
     void delete(Connector connector);
+
+    /**
+     * Register a listener notified of each connector change
+     * @param listener The listener
+     */
+    void addListener(RepositoryListener<Connector> listener);
 }
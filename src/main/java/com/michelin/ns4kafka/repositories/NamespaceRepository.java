@@ -10,4 +10,5 @@ public interface NamespaceRepository {
     Namespace createNamespace(Namespace namespace);
     Optional<Namespace> findByName(String namespace);
     void delete(Namespace namespace);
+    void addListener(RepositoryListener<Namespace> listener);
 }
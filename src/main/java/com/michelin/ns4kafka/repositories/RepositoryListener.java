@@ -0,0 +1,16 @@
+package com.michelin.ns4kafka.repositories;
+
+/**
+ * Listener notified of each record applied to a repository, whatever its storage
+ * @param <T> The type of the repository records
+ */
+@FunctionalInterface
+public interface RepositoryListener<T> {
+    /**
+     * Handle a record applied to the repository
+     * @param key The record key
+     * @param previous The previous record value, null if none
+     * @param value The new record value, null if deleted
+     */
+    void onChange(String key, T previous, T value);
+}
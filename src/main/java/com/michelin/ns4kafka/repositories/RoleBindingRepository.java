@@ -31,4 +31,10 @@ public interface RoleBindingRepository {
      * @param roleBinding The role binding to delete
      */
     void delete(RoleBinding roleBinding);
+
+    /**
+     * Register a listener notified of each role binding change
+     * @param listener The listener
+     */
+    void addListener(RepositoryListener<RoleBinding> listener);
 }
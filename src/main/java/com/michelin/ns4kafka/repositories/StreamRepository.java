@@ -17,4 +17,6 @@ public interface StreamRepository {
     KafkaStream create(KafkaStream stream);
 
     void delete(KafkaStream stream);
+
+    void addListener(RepositoryListener<KafkaStream> listener);
 }
@@ -3,6 +3,7 @@ package com.michelin.ns4kafka.repositories;
 import com.michelin.ns4kafka.models.Topic;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface TopicRepository {
     /**
@@ -18,6 +19,22 @@ public interface TopicRepository {
      */
     List<Topic> findAllForCluster(String cluster);
 
+    /**
+     * Find a topic by cluster and name
+     * @param cluster The cluster
+     * @param name The topic name
+     * @return An optional topic
+     */
+    Optional<Topic> findByName(String cluster, String name);
+
+    /**
+     * Find all topics by cluster whose name starts with the given prefix
+     * @param cluster The cluster
+     * @param prefix The topic name prefix
+     * @return The list of topics, sorted by name
+     */
+    List<Topic> findAllForClusterByPrefix(String cluster, String prefix);
+
     /**
      * Create a given topic
      * @param topic The topic to create
@@ -25,9 +42,22 @@ public interface TopicRepository {
      */
     Topic create(Topic topic);
 
+    /**
+     * Create a batch of topics
+     * @param topics The topics to create
+     * @return The created topics
+     */
+    List<Topic> createAll(List<Topic> topics);
+
     /**
      * Delete a given topic
      * @param topic The topic to delete
      */
     void delete(Topic topic);
+
+    /**
+     * Register a listener notified of each topic change
+     * @param listener The listener
+     */
+    void addListener(RepositoryListener<Topic> listener);
 }
@@ -0,0 +1,72 @@
+package com.michelin.ns4kafka.repositories.kafka;
+
+import com.michelin.ns4kafka.models.AccessControlEntry;
+import com.michelin.ns4kafka.repositories.RepositoryListener;
+import com.michelin.ns4kafka.utils.PrefixTrie;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the LITERAL and PREFIXED OWNER ACLs, as one prefix trie per cluster and resource type
+ */
+public class AccessControlEntryOwnershipIndex implements RepositoryListener<AccessControlEntry> {
+    private final Map<AccessControlEntry.ResourceType, Map<String, PrefixTrie<AccessControlEntry>>> tries = new ConcurrentHashMap<>();
+
+    @Override
+    public void onChange(String key, AccessControlEntry previous, AccessControlEntry value) {
+        if (isIndexed(previous)) {
+            Map<String, PrefixTrie<AccessControlEntry>> triesByCluster = tries.get(previous.getSpec().getResourceType());
+            PrefixTrie<AccessControlEntry> trie = triesByCluster == null ? null : triesByCluster.get(previous.getMetadata().getCluster());
+            if (trie != null) {
+                trie.remove(previous.getSpec().getResource(), isPrefixed(previous), previous);
+            }
+        }
+
+        if (isIndexed(value)) {
+            tries.computeIfAbsent(value.getSpec().getResourceType(), k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(value.getMetadata().getCluster(), k -> new PrefixTrie<>())
+                    .add(value.getSpec().getResource(), isPrefixed(value), value);
+        }
+    }
+
+    /**
+     * Find the OWNER ACLs covering a resource, on all the clusters
+     * @param resourceType The resource type
+     * @param resource The resource name
+     * @return The list of ACLs
+     */
+    public List<AccessControlEntry> findOwners(AccessControlEntry.ResourceType resourceType, String resource) {
+        Map<String, PrefixTrie<AccessControlEntry>> triesByCluster = tries.get(resourceType);
+        if (triesByCluster == null) {
+            return List.of();
+        }
+
+        return triesByCluster.values()
+                .stream()
+                .flatMap(trie -> trie.findMatches(resource).stream())
+                .toList();
+    }
+
+    /**
+     * Is the ACL a LITERAL or PREFIXED OWNER ACL
+     * @param accessControlEntry The ACL
+     * @return true if it is, false otherwise
+     */
+    private static boolean isIndexed(AccessControlEntry accessControlEntry) {
+        return accessControlEntry != null
+                && accessControlEntry.getSpec().getPermission() == AccessControlEntry.Permission.OWNER
+                && (accessControlEntry.getSpec().getResourcePatternType() == AccessControlEntry.ResourcePatternType.LITERAL
+                || accessControlEntry.getSpec().getResourcePatternType() == AccessControlEntry.ResourcePatternType.PREFIXED);
+    }
+
+    /**
+     * Is the ACL PREFIXED
+     * @param accessControlEntry The ACL
+     * @return true if it is, false otherwise
+     */
+    private static boolean isPrefixed(AccessControlEntry accessControlEntry) {
+        return accessControlEntry.getSpec().getResourcePatternType() == AccessControlEntry.ResourcePatternType.PREFIXED;
+    }
+}
@@ -9,6 +9,9 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.Producer;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Singleton
@@ -18,9 +21,21 @@ import java.util.Optional;
         offsetStrategy = OffsetStrategy.DISABLED
 )
 public class KafkaAccessControlEntryRepository extends KafkaStore<AccessControlEntry> implements AccessControlEntryRepository {
+    private final KafkaStoreIndex<AccessControlEntry> accessControlEntriesByCluster =
+            createIndex(accessControlEntry -> accessControlEntry.getMetadata().getCluster());
+
+    private final KafkaStoreIndex<AccessControlEntry> accessControlEntriesByNamespace =
+            createIndex(accessControlEntry -> accessControlEntry.getMetadata().getNamespace());
+
+    private final KafkaStoreIndex<AccessControlEntry> accessControlEntriesByGrantedTo =
+            createIndex(accessControlEntry -> accessControlEntry.getSpec().getGrantedTo());
+
+    private final AccessControlEntryOwnershipIndex ownershipIndex = new AccessControlEntryOwnershipIndex();
+
     public KafkaAccessControlEntryRepository(@Value("${ns4kafka.store.kafka.topics.prefix}.access-control-entries") String kafkaTopic,
                                     @KafkaClient("access-control-entries-producer") Producer<String, AccessControlEntry> kafkaProducer) {
         super(kafkaTopic, kafkaProducer);
+        addListener(ownershipIndex);
     }
 
     @Override
@@ -33,6 +48,13 @@ public class KafkaAccessControlEntryRepository extends KafkaStore<AccessControlE
         return this.produce(getMessageKey(accessControlEntry), accessControlEntry);
     }
 
+    @Override
+    public List<AccessControlEntry> createAll(List<AccessControlEntry> accessControlEntries) {
+        Map<String, AccessControlEntry> messages = new LinkedHashMap<>();
+        accessControlEntries.forEach(accessControlEntry -> messages.put(getMessageKey(accessControlEntry), accessControlEntry));
+        return this.produceAll(messages);
+    }
+
     @Override
     public void delete(AccessControlEntry accessControlEntry) {
         produce(getMessageKey(accessControlEntry),null);
@@ -40,11 +62,27 @@ public class KafkaAccessControlEntryRepository extends KafkaStore<AccessControlE
 
     @Override
     public Optional<AccessControlEntry> findByName(String namespace, String name) {
-        return getKafkaStore().values()
-                .stream()
-                .filter(ace -> ace.getMetadata().getNamespace().equals(namespace))
-                .filter(ace -> ace.getMetadata().getName().equals(name))
-                .findFirst();
+        return Optional.ofNullable(getKafkaStore().get(namespace + "/" + name));
+    }
+
+    @Override
+    public List<AccessControlEntry> findAllForCluster(String cluster) {
+        return accessControlEntriesByCluster.find(cluster);
+    }
+
+    @Override
+    public List<AccessControlEntry> findAllForNamespace(String namespace) {
+        return accessControlEntriesByNamespace.find(namespace);
+    }
+
+    @Override
+    public List<AccessControlEntry> findAllGrantedTo(String grantedTo) {
+        return accessControlEntriesByGrantedTo.find(grantedTo);
+    }
+
+    @Override
+    public List<AccessControlEntry> findAllOwnersOfResource(AccessControlEntry.ResourceType resourceType, String resource) {
+        return ownershipIndex.findOwners(resourceType, resource);
     }
 
     @Topic(value = "${ns4kafka.store.kafka.topics.prefix}.access-control-entries")
@@ -18,6 +18,8 @@ import java.util.List;
         offsetStrategy = OffsetStrategy.DISABLED
 )
 public class KafkaConnectClusterRepository extends KafkaStore<ConnectCluster> implements ConnectClusterRepository {
+    private final KafkaStoreIndex<ConnectCluster> connectClustersByCluster = createIndex(connectCluster -> connectCluster.getMetadata().getCluster());
+
     public KafkaConnectClusterRepository(@Value("${ns4kafka.store.kafka.topics.prefix}.connect-workers") String kafkaTopic,
                                          @KafkaClient("connect-workers") Producer<String, ConnectCluster> kafkaProducer) {
         super(kafkaTopic, kafkaProducer);
@@ -30,9 +32,7 @@ public class KafkaConnectClusterRepository extends KafkaStore<ConnectCluster> im
 
     @Override
     public List<ConnectCluster> findAllForCluster(String cluster) {
-        return getKafkaStore().values().stream()
-                .filter(connectCluster -> connectCluster.getMetadata().getCluster().equals(cluster))
-                .toList();
+        return connectClustersByCluster.find(cluster);
     }
 
     @Override
@@ -8,7 +8,9 @@ import jakarta.inject.Singleton;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.Producer;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -18,6 +20,8 @@ import java.util.stream.Collectors;
         offsetStrategy = OffsetStrategy.DISABLED
 )
 public class KafkaConnectorRepository extends KafkaStore<Connector> implements ConnectorRepository {
+    private final KafkaStoreIndex<Connector> connectorsByCluster = createIndex(connector -> connector.getMetadata().getCluster());
+
     public KafkaConnectorRepository(@Value("${ns4kafka.store.kafka.topics.prefix}.connectors") String kafkaTopic,
                                     @KafkaClient("connectors-producer") Producer<String, Connector> kafkaProducer) {
         super(kafkaTopic, kafkaProducer);
@@ -44,6 +48,18 @@ public class KafkaConnectorRepository extends KafkaStore<Connector> implements C
         return this.produce(getMessageKey(connector),connector);
     }
 
+    /**
+     * Create a batch of connectors
+     * @param connectors The connectors to create
+     * @return The created connectors
+     */
+    @Override
+    public List<Connector> createAll(List<Connector> connectors) {
+        Map<String, Connector> messages = new LinkedHashMap<>();
+        connectors.forEach(connector -> messages.put(getMessageKey(connector), connector));
+        return this.produceAll(messages);
+    }
+
     /**
      * Delete a given connector
      * @param connector The connector to delete
@@ -60,8 +76,6 @@ public class KafkaConnectorRepository extends KafkaStore<Connector> implements C
      */
     @Override
     public List<Connector> findAllForCluster(String cluster) {
-        return getKafkaStore().values().stream()
-                .filter(connector -> connector.getMetadata().getCluster().equals(cluster))
-                .toList();
+        return connectorsByCluster.find(cluster);
     }
 }
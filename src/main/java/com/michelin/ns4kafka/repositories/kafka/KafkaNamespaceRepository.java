@@ -18,6 +18,7 @@ import java.util.Optional;
         offsetStrategy = OffsetStrategy.DISABLED
 )
 public class KafkaNamespaceRepository extends KafkaStore<Namespace> implements NamespaceRepository {
+    private final KafkaStoreIndex<Namespace> namespacesByCluster = createIndex(namespace -> namespace.getMetadata().getCluster());
 
     public KafkaNamespaceRepository(@Value("${ns4kafka.store.kafka.topics.prefix}.namespaces") String kafkaTopic,
                                     @KafkaClient("namespace-producer") Producer<String, Namespace> kafkaProducer) {
@@ -46,18 +47,12 @@ public class KafkaNamespaceRepository extends KafkaStore<Namespace> implements N
 
     @Override
     public List<Namespace> findAllForCluster(String cluster) {
-        return getKafkaStore().values()
-                .stream()
-                .filter(namespace -> namespace.getMetadata().getCluster().equals(cluster))
-                .toList();
+        return namespacesByCluster.find(cluster);
     }
 
     @Override
     public Optional<Namespace> findByName(String namespace) {
-        return getKafkaStore().values()
-                .stream()
-                .filter(ns -> ns.getMetadata().getName().equals(namespace))
-                .findFirst();
+        return Optional.ofNullable(getKafkaStore().get(namespace));
     }
 
 }
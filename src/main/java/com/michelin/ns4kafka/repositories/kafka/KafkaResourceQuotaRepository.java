@@ -50,10 +50,7 @@ public class KafkaResourceQuotaRepository extends KafkaStore<ResourceQuota> impl
      */
     @Override
     public Optional<ResourceQuota> findForNamespace(String namespace) {
-        return getKafkaStore().values()
-                .stream()
-                .filter(resourceQuota -> resourceQuota.getMetadata().getNamespace().equals(namespace))
-                .findFirst();
+        return Optional.ofNullable(getKafkaStore().get(namespace));
     }
 
     /**
@@ -10,7 +10,6 @@ import org.apache.kafka.clients.producer.Producer;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Singleton
 @KafkaListener(
@@ -19,6 +18,12 @@ import java.util.stream.Collectors;
         offsetStrategy = OffsetStrategy.DISABLED
 )
 public class KafkaRoleBindingRepository extends KafkaStore<RoleBinding> implements RoleBindingRepository {
+    private final KafkaStoreIndex<RoleBinding> roleBindingsByNamespace = createIndex(roleBinding -> roleBinding.getMetadata().getNamespace());
+
+    private final KafkaStoreIndex<RoleBinding> roleBindingsByGroup = createIndex(roleBinding ->
+            roleBinding.getSpec().getSubject().getSubjectType() == RoleBinding.SubjectType.GROUP ?
+                    roleBinding.getSpec().getSubject().getSubjectName() : null);
+
     /**
      * Constructor
      * @param kafkaTopic The role bindings topic
@@ -75,12 +80,10 @@ public class KafkaRoleBindingRepository extends KafkaStore<RoleBinding> implemen
      */
     @Override
     public List<RoleBinding> findAllForGroups(Collection<String> groups) {
-        return getKafkaStore().values()
+        return groups
                 .stream()
-                .filter(roleBinding -> groups
-                        .stream()
-                        .anyMatch(group -> roleBinding.getSpec().getSubject().getSubjectType() == RoleBinding.SubjectType.GROUP
-                                && roleBinding.getSpec().getSubject().getSubjectName().equals(group)))
+                .distinct()
+                .flatMap(group -> roleBindingsByGroup.find(group).stream())
                 .toList();
     }
 
@@ -91,9 +94,6 @@ public class KafkaRoleBindingRepository extends KafkaStore<RoleBinding> implemen
      */
     @Override
     public List<RoleBinding> findAllForNamespace(String namespace) {
-        return getKafkaStore().values()
-                .stream()
-                .filter(roleBinding -> roleBinding.getMetadata().getNamespace().equals(namespace))
-                .toList();
+        return roleBindingsByNamespace.find(namespace);
     }
 }
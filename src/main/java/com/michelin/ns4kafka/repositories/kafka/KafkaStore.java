@@ -1,11 +1,19 @@
 package com.michelin.ns4kafka.repositories.kafka;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.michelin.ns4kafka.config.KafkaStoreConfig;
+import com.michelin.ns4kafka.config.KafkaStoreSnapshotConfig;
+import com.michelin.ns4kafka.repositories.RepositoryListener;
+import io.micronaut.configuration.kafka.ConsumerAware;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.context.annotation.Property;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.reflect.GenericTypeUtils;
 import io.micronaut.scheduling.TaskExecutors;
 import io.micronaut.scheduling.TaskScheduler;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import lombok.extern.slf4j.Slf4j;
@@ -13,26 +21,29 @@ import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.Config;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.config.ConfigResource;
 import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.errors.TopicExistsException;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.Collections;
-import java.util.Map;
-import java.util.Set;
+import java.time.Instant;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 @Slf4j
-public abstract class KafkaStore<T> {
+public abstract class KafkaStore<T> implements ConsumerAware<String,T>, ConsumerRebalanceListener {
     @Inject
     ApplicationContext applicationContext;
 
@@ -42,25 +53,35 @@ public abstract class KafkaStore<T> {
     @Inject
     KafkaStoreConfig kafkaStoreConfig;
 
+    @Inject
+    KafkaStoreSnapshotConfig kafkaStoreSnapshotConfig;
+
+    @Inject
+    ObjectMapper objectMapper;
+
     @Inject
     @Named(TaskExecutors.SCHEDULED)
     TaskScheduler taskScheduler;
 
     private final Map<String,T> store;
 
+    private final List<RepositoryListener<T>> listeners = new CopyOnWriteArrayList<>();
+
     String kafkaTopic;
 
     Producer<String,T> kafkaProducer;
 
-    long offsetInSchemasTopic = -1;
+    Consumer<String,T> kafkaConsumer;
 
-    long lastWrittenOffset = -1;
+    volatile long offsetInSchemasTopic = -1;
 
-    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    long lastSnapshotOffset = -1;
+
+    volatile long lastWrittenOffset = -1;
 
-    private final ReentrantLock offsetUpdateLock;
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
 
-    private final Condition offsetReachedThreshold;
+    final NavigableMap<Long, List<CompletableFuture<Void>>> offsetWaiters = new TreeMap<>();
 
     @Property(name = "ns4kafka.store.kafka.init-timeout")
     int initTimeout;
@@ -69,8 +90,6 @@ public abstract class KafkaStore<T> {
         this.kafkaTopic = kafkaTopic;
         this.kafkaProducer = kafkaProducer;
         this.store = new ConcurrentHashMap<>();
-        this.offsetUpdateLock = new ReentrantLock();
-        this.offsetReachedThreshold = offsetUpdateLock.newCondition();
     }
 
     /**
@@ -80,6 +99,25 @@ public abstract class KafkaStore<T> {
      */
     abstract String getMessageKey(T message);
 
+    /**
+     * Register a secondary index on the store, kept up to date with each consumed record
+     * @param indexKeyExtractor The function computing the index key of a record
+     * @return The index
+     */
+    KafkaStoreIndex<T> createIndex(Function<T, String> indexKeyExtractor) {
+        KafkaStoreIndex<T> index = new KafkaStoreIndex<>(indexKeyExtractor);
+        addListener(index);
+        return index;
+    }
+
+    /**
+     * Register a listener notified of each consumed record, after it has been applied to the store
+     * @param listener The listener
+     */
+    public void addListener(RepositoryListener<T> listener) {
+        listeners.add(listener);
+    }
+
     /**
      * Create or verify the internal topic
      * @throws KafkaStoreException Exception thrown during internal topic creation or verification
@@ -87,9 +125,150 @@ public abstract class KafkaStore<T> {
     @PostConstruct
     private void createOrVerifyTopic() throws KafkaStoreException {
         createOrVerifyInternalTopic();
+
+        if (kafkaStoreSnapshotConfig.isEnabled()) {
+            loadSnapshot();
+            taskScheduler.scheduleAtFixedRate(kafkaStoreSnapshotConfig.getInterval(), kafkaStoreSnapshotConfig.getInterval(),
+                    this::writeSnapshot);
+        }
+
         taskScheduler.schedule(Duration.ZERO, this::waitUntilKafkaReaderReachesLastOffsetInit);
     }
 
+    /**
+     * Write a last snapshot of the store before shutting down
+     */
+    @PreDestroy
+    private void closeSnapshot() {
+        if (kafkaStoreSnapshotConfig.isEnabled()) {
+            writeSnapshot();
+        }
+    }
+
+    @Override
+    public void setKafkaConsumer(@NonNull Consumer<String,T> kafkaConsumer) {
+        this.kafkaConsumer = kafkaConsumer;
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        // Nothing to do, the offsets are never committed
+    }
+
+    /**
+     * Resume the consumption after the last applied offset, either loaded from a snapshot or consumed before a rebalance,
+     * instead of replaying the whole topic
+     * @param partitions The assigned partitions
+     */
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        if (offsetInSchemasTopic < 0 || partitions.isEmpty()) {
+            return;
+        }
+
+        Map<TopicPartition, Long> beginningOffsets = kafkaConsumer.beginningOffsets(partitions);
+        Map<TopicPartition, Long> endOffsets = kafkaConsumer.endOffsets(partitions);
+        for (TopicPartition partition : partitions) {
+            long nextOffset = offsetInSchemasTopic + 1;
+            if (nextOffset < beginningOffsets.get(partition) || nextOffset > endOffsets.get(partition)) {
+                log.warn("Offset {} is out of the range [{}, {}] of topic {}. Replaying the topic from the beginning.",
+                        nextOffset, beginningOffsets.get(partition), endOffsets.get(partition), kafkaTopic);
+                clearStore();
+                kafkaConsumer.seekToBeginning(Collections.singleton(partition));
+            } else {
+                log.info("Resuming topic {} from offset {}.", kafkaTopic, nextOffset);
+                kafkaConsumer.seek(partition, nextOffset);
+            }
+        }
+    }
+
+    /**
+     * Load the store from its snapshot, if any, valid and recent enough
+     */
+    synchronized void loadSnapshot() {
+        Path snapshotFile = getSnapshotFile();
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+
+        try {
+            KafkaStoreSnapshot snapshot = KafkaStoreSnapshot.read(snapshotFile);
+            if (!snapshot.getTopic().equals(kafkaTopic)) {
+                log.warn("Snapshot {} belongs to topic {}. Replaying topic {} from the beginning.", snapshotFile, snapshot.getTopic(), kafkaTopic);
+                return;
+            }
+
+            Duration age = Duration.between(Instant.ofEpochMilli(snapshot.getTimestamp()), Instant.now());
+            if (age.compareTo(kafkaStoreSnapshotConfig.getMaxAge()) > 0) {
+                log.info("Snapshot {} is too old ({}). Replaying topic {} from the beginning.", snapshotFile, age, kafkaTopic);
+                return;
+            }
+
+            Map<String,T> records = objectMapper.readValue(snapshot.getRecords(), getSnapshotType());
+            records.forEach((key, value) -> {
+                store.put(key, value);
+                notifyListeners(key, null, value);
+            });
+            offsetInSchemasTopic = snapshot.getOffset();
+            lastSnapshotOffset = snapshot.getOffset();
+            log.info("Loaded {} records of topic {} from snapshot at offset {}.", records.size(), kafkaTopic, snapshot.getOffset());
+        } catch (Exception e) {
+            log.warn("Invalid snapshot {}. Replaying topic {} from the beginning.", snapshotFile, kafkaTopic, e);
+        }
+    }
+
+    /**
+     * Write a snapshot of the store if it changed since the last one
+     * Synchronized as the scheduled and the shutdown writes share the same temporary file
+     */
+    public synchronized void writeSnapshot() {
+        if (!isInitialized() || offsetInSchemasTopic <= lastSnapshotOffset) {
+            return;
+        }
+
+        try {
+            // Read the offset before copying the records, the records applied in between are replayed idempotently on restart
+            long offset = offsetInSchemasTopic;
+            byte[] records = objectMapper.writerFor(getSnapshotType()).writeValueAsBytes(new HashMap<>(store));
+            new KafkaStoreSnapshot(kafkaTopic, offset, System.currentTimeMillis(), records).write(getSnapshotFile());
+            lastSnapshotOffset = offset;
+            log.debug("Wrote snapshot of topic {} at offset {} ({} bytes).", kafkaTopic, offset, records.length);
+        } catch (Exception e) {
+            log.error("Error while writing the snapshot of topic {}.", kafkaTopic, e);
+        }
+    }
+
+    /**
+     * Remove all the records from the store
+     */
+    private void clearStore() {
+        store.keySet().forEach(key -> {
+            T previous = store.remove(key);
+            if (previous != null) {
+                notifyListeners(key, previous, null);
+            }
+        });
+        offsetInSchemasTopic = -1;
+    }
+
+    /**
+     * Get the snapshot file of the store
+     * @return The snapshot file
+     */
+    private Path getSnapshotFile() {
+        return Path.of(kafkaStoreSnapshotConfig.getDirectory(), kafkaTopic + ".snapshot");
+    }
+
+    /**
+     * Get the type of the snapshot records, a map of the store records by key
+     * @return The snapshot type
+     */
+    private JavaType getSnapshotType() {
+        Class<?> recordType = GenericTypeUtils.resolveSuperGenericTypeArgument(getClass())
+                .orElseThrow(() -> new KafkaStoreException("Cannot resolve the record type of store " + getClass().getName()));
+        return objectMapper.getTypeFactory().constructMapType(HashMap.class, String.class, recordType);
+    }
+
     /**
      * Create or verify the internal kafka topic
      * @throws KafkaStoreException Exception thrown during internal topic creation or verification
@@ -220,36 +399,132 @@ public abstract class KafkaStore<T> {
      * @throws KafkaStoreException Exception thrown during the send process
      */
     T produce(String key, T message) throws KafkaStoreException {
+        return await(produceAsync(key, message));
+    }
+
+    /**
+     * Produce a new record without blocking
+     * The returned future completes once the local store has applied the record, on the consumer thread,
+     * so dependent stages should not block
+     * @param key The record key
+     * @param message The record body
+     * @return A future of the produced record
+     */
+    CompletableFuture<T> produceAsync(String key, T message) {
         if (key == null) {
+            return CompletableFuture.failedFuture(new KafkaStoreException("Key should not be null"));
+        }
+
+        return send(key, message)
+                .thenCompose(recordMetadata -> {
+                    log.trace("Waiting for the local store to catch up to offset {}", recordMetadata.offset());
+                    return waitUntilOffsetAsync(recordMetadata.offset());
+                })
+                .orTimeout(initTimeout, TimeUnit.MILLISECONDS)
+                .thenApply(reached -> store.get(key));
+    }
+
+    /**
+     * Produce a batch of records, sent together and waiting only once for the local store to apply the highest offset
+     * @param messages The record bodies by key
+     * @return The produced records, in the iteration order of the given keys
+     * @throws KafkaStoreException Exception thrown during the send process
+     */
+    List<T> produceAll(Map<String,T> messages) throws KafkaStoreException {
+        if (messages.containsKey(null)) {
             throw new KafkaStoreException("Key should not be null");
         }
 
-        boolean knownSuccessfulWrite = false;
+        List<CompletableFuture<RecordMetadata>> acks = messages.entrySet()
+                .stream()
+                .map(message -> send(message.getKey(), message.getValue()))
+                .toList();
+
+        CompletableFuture<List<T>> produced = CompletableFuture.allOf(acks.toArray(new CompletableFuture[0]))
+                .thenCompose(sent -> {
+                    long highestOffset = acks.stream()
+                            .mapToLong(ack -> ack.join().offset())
+                            .max()
+                            .orElse(offsetInSchemasTopic);
+                    log.trace("Waiting for the local store to catch up to offset {}", highestOffset);
+                    return waitUntilOffsetAsync(highestOffset);
+                })
+                .orTimeout(initTimeout, TimeUnit.MILLISECONDS)
+                .thenApply(reached -> messages.keySet()
+                        .stream()
+                        .map(store::get)
+                        .toList());
+
+        return await(produced);
+    }
+
+    /**
+     * Send a record to the internal topic
+     * @param key The record key
+     * @param message The record body
+     * @return A future of the record metadata, completed on the ack from Kafka
+     */
+    private CompletableFuture<RecordMetadata> send(String key, T message) {
+        CompletableFuture<RecordMetadata> ack = new CompletableFuture<>();
         try {
             ProducerRecord<String,T> producerRecord = new ProducerRecord<>(kafkaTopic, key, message);
             log.trace("Sending record to topic {}", producerRecord);
-            Future<RecordMetadata> ack = kafkaProducer.send(producerRecord);
-            RecordMetadata recordMetadata = ack.get(initTimeout, TimeUnit.MILLISECONDS);
+            kafkaProducer.send(producerRecord, (recordMetadata, exception) -> {
+                if (exception != null) {
+                    lastWrittenOffset = -1;
+                    ack.completeExceptionally(new KafkaStoreException("Put operation failed while waiting for an ack from Kafka", exception));
+                } else {
+                    lastWrittenOffset = Math.max(lastWrittenOffset, recordMetadata.offset());
+                    ack.complete(recordMetadata);
+                }
+            });
+        } catch (KafkaException e) {
+            ack.completeExceptionally(new KafkaStoreException("Put operation to Kafka failed", e));
+        }
+        return ack;
+    }
 
-            log.trace("Waiting for the local store to catch up to offset {}", recordMetadata.offset());
-            lastWrittenOffset = recordMetadata.offset();
-            waitUntilOffset(getLatestOffset(), TimeUnit.MILLISECONDS);
-            knownSuccessfulWrite = true;
+    /**
+     * Wait for a write to complete
+     * @param write The write
+     * @param <R> The type of the write result
+     * @return The write result
+     * @throws KafkaStoreException Exception thrown if the write failed, timed out or was interrupted
+     */
+    private <R> R await(CompletableFuture<R> write) throws KafkaStoreException {
+        try {
+            return write.get();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new KafkaStoreException("Put operation interrupted while waiting for an ack from Kafka", e);
         } catch (ExecutionException e) {
-            throw new KafkaStoreException("Put operation failed while waiting for an ack from Kafka", e);
-        } catch (TimeoutException e) {
-            throw new KafkaStoreException("Put operation timed out while waiting for an ack from Kafka", e);
-        } catch (KafkaException e) {
-            throw new KafkaStoreException("Put operation to Kafka failed", e);
-        } finally {
-            if (!knownSuccessfulWrite) {
-                this.lastWrittenOffset = -1;
+            if (e.getCause() instanceof KafkaStoreException kafkaStoreException) {
+                throw kafkaStoreException;
+            }
+
+            if (e.getCause() instanceof TimeoutException) {
+                throw new KafkaStoreException("Put operation timed out while waiting for an ack from Kafka", e.getCause());
+            }
+
+            throw new KafkaStoreException("Put operation failed while waiting for an ack from Kafka", e.getCause());
+        }
+    }
+
+    /**
+     * Notify the listeners of a record applied to the store
+     * Each listener is isolated, so a failing one neither skips the next ones nor the completion of the offset waiters
+     * @param key The record key
+     * @param previous The previous value, null if created
+     * @param value The new value, null if deleted
+     */
+    private void notifyListeners(String key, T previous, T value) {
+        for (RepositoryListener<T> listener : listeners) {
+            try {
+                listener.onChange(key, previous, value);
+            } catch (RuntimeException e) {
+                log.error("Error notifying a listener of topic {} of the update of key {}.", kafkaTopic, key, e);
             }
         }
-        return store.get(key);
     }
 
     /**
@@ -261,20 +536,12 @@ public abstract class KafkaStore<T> {
         try {
             if (!message.key().equals("NOOP")) {
                 log.trace("Applying update ({},{}) to the local store", message.key(), message.value());
-                if (message.value() == null) {
-                    store.remove(message.key());
-                } else {
-                    store.put(message.key(), message.value());
-                }
+                T previous = message.value() == null ? store.remove(message.key()) : store.put(message.key(), message.value());
+                notifyListeners(message.key(), previous, message.value());
             }
 
-            try {
-                offsetUpdateLock.lock();
-                offsetInSchemasTopic = message.offset();
-                offsetReachedThreshold.signalAll();
-            } finally {
-                offsetUpdateLock.unlock();
-            }
+            offsetInSchemasTopic = message.offset();
+            completeOffsetWaiters(message.offset());
         } catch (RuntimeException e) {
             log.error("KafkaStoreReader thread has died for an unknown reason.", e);
             throw new KafkaStoreException(e.getMessage());
@@ -336,19 +603,14 @@ public abstract class KafkaStore<T> {
         log.trace("Waiting to read offset {}. Currently at offset {}.", offset, offsetInSchemasTopic);
 
         try {
-            offsetUpdateLock.lock();
-            long timeoutNs = TimeUnit.NANOSECONDS.convert(initTimeout, timeUnit);
-            while ((offsetInSchemasTopic < offset) && (timeoutNs > 0)) {
-                try {
-                    timeoutNs = offsetReachedThreshold.awaitNanos(timeoutNs);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.debug("Interrupted while waiting for the background store reader thread to reach the specified offset: {}",
-                            offset, e);
-                }
-            }
-        } finally {
-            offsetUpdateLock.unlock();
+            waitUntilOffsetAsync(offset).get(initTimeout, timeUnit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Interrupted while waiting for the background store reader thread to reach the specified offset: {}",
+                    offset, e);
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Error while waiting for the background store reader thread to reach the specified offset: {}",
+                    offset, e);
         }
 
         if (offsetInSchemasTopic < offset) {
@@ -358,6 +620,64 @@ public abstract class KafkaStore<T> {
         }
     }
 
+    /**
+     * Get a future completed when the given offset is read, or failed after the init timeout
+     * Waiters are kept ordered by offset, so each consumed record only completes the waiters it reached
+     * @param offset The offset
+     * @return The future
+     */
+    CompletableFuture<Void> waitUntilOffsetAsync(long offset) {
+        if (offsetInSchemasTopic >= offset) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        synchronized (offsetWaiters) {
+            offsetWaiters.computeIfAbsent(offset, o -> new ArrayList<>()).add(waiter);
+        }
+
+        // Unregister the waiter as soon as it times out or is cancelled, so waiters of offsets never read do not pile up
+        waiter.orTimeout(initTimeout, TimeUnit.MILLISECONDS)
+                .whenComplete((reached, exception) -> removeOffsetWaiter(offset, waiter));
+
+        // The reader may have reached the offset while the waiter was being registered
+        if (offsetInSchemasTopic >= offset) {
+            completeOffsetWaiters(offsetInSchemasTopic);
+        }
+
+        return waiter;
+    }
+
+    /**
+     * Complete the waiters of all the offsets up to the given one
+     * @param offset The offset read
+     */
+    private void completeOffsetWaiters(long offset) {
+        List<CompletableFuture<Void>> reached = new ArrayList<>();
+        synchronized (offsetWaiters) {
+            Map<Long, List<CompletableFuture<Void>>> reachedOffsets = offsetWaiters.headMap(offset, true);
+            reachedOffsets.values().forEach(reached::addAll);
+            reachedOffsets.clear();
+        }
+
+        // Complete outside the lock, the dependent stages run on the calling thread
+        reached.forEach(waiter -> waiter.complete(null));
+    }
+
+    /**
+     * Unregister a waiter of an offset
+     * @param offset The offset
+     * @param waiter The waiter
+     */
+    private void removeOffsetWaiter(long offset, CompletableFuture<Void> waiter) {
+        synchronized (offsetWaiters) {
+            List<CompletableFuture<Void>> waiters = offsetWaiters.get(offset);
+            if (waiters != null && waiters.remove(waiter) && waiters.isEmpty()) {
+                offsetWaiters.remove(offset);
+            }
+        }
+    }
+
     /**
      * Is the store initialized
      * @return true if it is, false otherwise
@@ -0,0 +1,105 @@
+package com.michelin.ns4kafka.repositories.kafka;
+
+import com.michelin.ns4kafka.repositories.RepositoryListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index of a Kafka store, grouping the records by a key computed from their value
+ * The records of a group are sorted by record key, to look up a range of keys
+ * @param <T> The type of the indexed records
+ */
+public class KafkaStoreIndex<T> implements RepositoryListener<T> {
+    private final Function<T, String> indexKeyExtractor;
+
+    private final Map<String, ConcurrentNavigableMap<String, T>> index = new ConcurrentHashMap<>();
+
+    KafkaStoreIndex(Function<T, String> indexKeyExtractor) {
+        this.indexKeyExtractor = indexKeyExtractor;
+    }
+
+    @Override
+    public void onChange(String key, T previous, T value) {
+        if (previous != null) {
+            remove(key, previous);
+        }
+
+        if (value != null) {
+            add(key, value);
+        }
+    }
+
+    /**
+     * Find all the records matching the given index key
+     * @param indexKey The index key
+     * @return The list of records
+     */
+    public List<T> find(String indexKey) {
+        Map<String, T> records = index.get(indexKey);
+        return records == null ? List.of() : new ArrayList<>(records.values());
+    }
+
+    /**
+     * Find the records matching the given index key whose record key starts with the given prefix
+     * @param indexKey The index key
+     * @param keyPrefix The record key prefix
+     * @return The list of records, sorted by record key
+     */
+    public List<T> findByKeyPrefix(String indexKey, String keyPrefix) {
+        NavigableMap<String, T> records = index.get(indexKey);
+        if (records == null) {
+            return List.of();
+        }
+
+        List<T> matches = new ArrayList<>();
+        for (Map.Entry<String, T> record : records.tailMap(keyPrefix, true).entrySet()) {
+            if (!record.getKey().startsWith(keyPrefix)) {
+                break;
+            }
+            matches.add(record.getValue());
+        }
+        return matches;
+    }
+
+    /**
+     * Add a record to the index
+     * @param key The record key
+     * @param value The record value
+     */
+    private void add(String key, T value) {
+        String indexKey = indexKeyExtractor.apply(value);
+        if (indexKey == null) {
+            return;
+        }
+
+        index.compute(indexKey, (k, records) -> {
+            ConcurrentNavigableMap<String, T> updated = records == null ? new ConcurrentSkipListMap<>() : records;
+            updated.put(key, value);
+            return updated;
+        });
+    }
+
+    /**
+     * Remove a record from the index
+     * @param key The record key
+     * @param value The record value
+     */
+    private void remove(String key, T value) {
+        String indexKey = indexKeyExtractor.apply(value);
+        if (indexKey == null) {
+            return;
+        }
+
+        index.computeIfPresent(indexKey, (k, records) -> {
+            records.remove(key);
+            return records.isEmpty() ? null : records;
+        });
+    }
+}
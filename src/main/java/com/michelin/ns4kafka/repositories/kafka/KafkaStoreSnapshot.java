@@ -0,0 +1,79 @@
+package com.michelin.ns4kafka.repositories.kafka;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot of a Kafka store persisted on disk: the serialized records and the last offset applied to them
+ */
+@Getter
+@AllArgsConstructor
+class KafkaStoreSnapshot {
+    private static final int MAGIC = 0x4e53344b;
+    private static final int VERSION = 1;
+
+    private final String topic;
+    private final long offset;
+    private final long timestamp;
+    private final byte[] records;
+
+    /**
+     * Write the snapshot to a file, atomically replacing the previous one
+     * @param file The file
+     * @throws IOException Exception thrown while writing the file
+     */
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        CRC32 checksum = new CRC32();
+        checksum.update(records);
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(topic);
+            output.writeLong(offset);
+            output.writeLong(timestamp);
+            output.writeInt(records.length);
+            output.write(records);
+            output.writeLong(checksum.getValue());
+        }
+
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a snapshot from a file and verify its integrity
+     * @param file The file
+     * @return The snapshot
+     * @throws IOException Exception thrown if the file cannot be read or is corrupted
+     */
+    static KafkaStoreSnapshot read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Unknown snapshot format");
+            }
+
+            String topic = input.readUTF();
+            long offset = input.readLong();
+            long timestamp = input.readLong();
+            byte[] records = new byte[input.readInt()];
+            input.readFully(records);
+
+            CRC32 checksum = new CRC32();
+            checksum.update(records);
+            if (checksum.getValue() != input.readLong()) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            return new KafkaStoreSnapshot(topic, offset, timestamp, records);
+        }
+    }
+}
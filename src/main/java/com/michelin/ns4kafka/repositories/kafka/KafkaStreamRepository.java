@@ -18,6 +18,7 @@ import java.util.stream.Collectors;
         offsetStrategy = OffsetStrategy.DISABLED
 )
 public class KafkaStreamRepository extends KafkaStore<KafkaStream> implements StreamRepository {
+    private final KafkaStoreIndex<KafkaStream> streamsByCluster = createIndex(stream -> stream.getMetadata().getCluster());
 
     public KafkaStreamRepository(@Value("${ns4kafka.store.kafka.topics.prefix}.streams") String kafkaTopic,
                                  @KafkaClient("streams-producer") Producer<String, KafkaStream> kafkaProducer) {
@@ -31,10 +32,7 @@ public class KafkaStreamRepository extends KafkaStore<KafkaStream> implements St
 
     @Override
     public List<KafkaStream> findAllForCluster(String cluster) {
-        return getKafkaStore().values()
-                .stream()
-                .filter(stream -> stream.getMetadata().getCluster().equals(cluster))
-                .toList();
+        return streamsByCluster.find(cluster);
     }
 
     @Override
@@ -12,7 +12,10 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.Producer;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -22,6 +25,7 @@ import java.util.stream.Collectors;
         offsetStrategy = OffsetStrategy.DISABLED
 )
 public class KafkaTopicRepository extends KafkaStore<Topic> implements TopicRepository {
+    private final KafkaStoreIndex<Topic> topicsByCluster = createIndex(topic -> topic.getMetadata().getCluster());
 
     public KafkaTopicRepository(@Value("${ns4kafka.store.kafka.topics.prefix}.topics") String kafkaTopic,
                                       @KafkaClient("topics-producer") Producer<String, Topic> kafkaProducer) {
@@ -43,6 +47,18 @@ public class KafkaTopicRepository extends KafkaStore<Topic> implements TopicRepo
         return this.produce(getMessageKey(topic), topic);
     }
 
+    /**
+     * Create a batch of topics
+     * @param topics The topics to create
+     * @return The created topics
+     */
+    @Override
+    public List<Topic> createAll(List<Topic> topics) {
+        Map<String, Topic> messages = new LinkedHashMap<>();
+        topics.forEach(topic -> messages.put(getMessageKey(topic), topic));
+        return this.produceAll(messages);
+    }
+
     /**
      * Delete a given topic
      * @param topic The topic to delete
@@ -73,9 +89,29 @@ public class KafkaTopicRepository extends KafkaStore<Topic> implements TopicRepo
      */
     @Override
     public List<Topic> findAllForCluster(String cluster) {
-        return getKafkaStore().values()
-                .stream()
-                .filter(topic -> topic.getMetadata().getCluster().equals(cluster))
-                .toList();
+        return topicsByCluster.find(cluster);
+    }
+
+    /**
+     * Find a topic by cluster and name
+     * @param cluster The cluster
+     * @param name The topic name
+     * @return An optional topic
+     */
+    @Override
+    public Optional<Topic> findByName(String cluster, String name) {
+        return Optional.ofNullable(getKafkaStore().get(cluster + "/" + name));
+    }
+
+    /**
+     * Find all topics by cluster whose name starts with the given prefix
+     * The topics of a cluster share the key prefix "cluster/", so the key order is the name order
+     * @param cluster The cluster
+     * @param prefix The topic name prefix
+     * @return The list of topics, sorted by name
+     */
+    @Override
+    public List<Topic> findAllForClusterByPrefix(String cluster, String prefix) {
+        return topicsByCluster.findByKeyPrefix(cluster, cluster + "/" + prefix);
     }
 }
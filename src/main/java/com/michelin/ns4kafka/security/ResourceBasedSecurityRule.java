@@ -4,6 +4,7 @@ import com.michelin.ns4kafka.config.SecurityConfig;
 import com.michelin.ns4kafka.models.RoleBinding;
 import com.michelin.ns4kafka.repositories.NamespaceRepository;
 import com.michelin.ns4kafka.repositories.RoleBindingRepository;
+import io.micronaut.context.annotation.Value;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.async.publisher.Publishers;
 import io.micronaut.core.util.StringUtils;
@@ -12,14 +13,14 @@ import io.micronaut.security.authentication.Authentication;
 import io.micronaut.security.rules.SecurityRule;
 import io.micronaut.security.rules.SecurityRuleResult;
 import io.micronaut.web.router.RouteMatch;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 import org.reactivestreams.Publisher;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,6 +29,8 @@ import java.util.regex.Pattern;
 public class ResourceBasedSecurityRule implements SecurityRule {
     public static final String IS_ADMIN = "isAdmin()";
 
+    public static final String BULK_RESOURCE_TYPE = "_";
+
     private final Pattern namespacedResourcePattern = Pattern.compile("^\\/api\\/namespaces\\/(?<namespace>[a-zA-Z0-9_-]+)\\/(?<resourceType>[a-z_-]+)(\\/([a-zA-Z0-9_.-]+)(\\/(?<resourceSubtype>[a-z-]+))?)?$");
 
     @Inject
@@ -39,6 +42,28 @@ public class ResourceBasedSecurityRule implements SecurityRule {
     @Inject
     NamespaceRepository namespaceRepository;
 
+    @Value("${ns4kafka.security.authorization-cache-max-size:10000}")
+    int authorizationCacheMaxSize = 10000;
+
+    private final AtomicLong authorizationCacheGeneration = new AtomicLong();
+
+    private final Map<AuthorizationKey, List<RoleBinding>> authorizedRoleBindingsCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<AuthorizationKey, List<RoleBinding>> eldest) {
+                    return size() > authorizationCacheMaxSize;
+                }
+            });
+
+    /**
+     * Clear the authorization decisions each time a role binding or a namespace changes
+     */
+    @PostConstruct
+    void listenAuthorizationChanges() {
+        roleBindingRepository.addListener((key, previous, value) -> invalidateAuthorizations());
+        namespaceRepository.addListener((key, previous, value) -> invalidateAuthorizations());
+    }
+
     @Override
     public Publisher<SecurityRuleResult> check(HttpRequest<?> request, RouteMatch<?> routeMatch, Authentication authentication) {
         return Publishers.just(checkSecurity(request, authentication));
@@ -61,7 +86,7 @@ public class ResourceBasedSecurityRule implements SecurityRule {
         }
 
         String sub = authentication.getName();
-        List<String> groups = (List<String>) authentication.getAttributes().get("groups");
+        List<String> groups = getGroups(authentication);
         Collection<String> roles = authentication.getRoles();
 
         // Request to a URL that is not in the scope of this SecurityRule
@@ -95,16 +120,7 @@ public class ResourceBasedSecurityRule implements SecurityRule {
         }
 
         // Collect all roleBindings for this user
-        Collection<RoleBinding> roleBindings = roleBindingRepository.findAllForGroups(groups);
-        List<RoleBinding> authorizedRoleBindings = roleBindings.stream()
-                .filter(roleBinding -> roleBinding.getMetadata().getNamespace().equals(namespace))
-                .filter(roleBinding -> roleBinding.getSpec().getRole().getResourceTypes().contains(resourceType))
-                .filter(roleBinding -> roleBinding.getSpec().getRole().getVerbs()
-                        .stream()
-                        .map(Enum::name)
-                        .toList()
-                        .contains(request.getMethodName()))
-                .toList();
+        List<RoleBinding> authorizedRoleBindings = findAuthorizedRoleBindings(groups, namespace, resourceType, request.getMethodName());
 
         // User not authorized to access requested resource
         if (authorizedRoleBindings.isEmpty()) {
@@ -120,6 +136,71 @@ public class ResourceBasedSecurityRule implements SecurityRule {
         return SecurityRuleResult.ALLOWED;
     }
 
+    /**
+     * Find the role bindings allowing the given groups to call a method on a resource type of a namespace
+     * Bulk requests are allowed by any role binding of the namespace with the method,
+     * their resources being authorized one by one by the controller
+     * @param groups The groups
+     * @param namespace The namespace
+     * @param resourceType The resource type
+     * @param method The HTTP method
+     * @return The list of authorized role bindings
+     */
+    public List<RoleBinding> findAuthorizedRoleBindings(Collection<String> groups, String namespace, String resourceType, String method) {
+        AuthorizationKey key = new AuthorizationKey(groups.stream().sorted().distinct().toList(), namespace, resourceType, method);
+        List<RoleBinding> cached = authorizedRoleBindingsCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = authorizationCacheGeneration.get();
+        Optional<RoleBinding.Verb> verb = Arrays.stream(RoleBinding.Verb.values())
+                .filter(v -> v.name().equals(method))
+                .findFirst();
+
+        List<RoleBinding> authorizedRoleBindings = verb.isEmpty() ? List.of() : roleBindingRepository.findAllForGroups(groups)
+                .stream()
+                .filter(roleBinding -> roleBinding.getMetadata().getNamespace().equals(namespace))
+                .filter(roleBinding -> resourceType.equals(BULK_RESOURCE_TYPE)
+                        || roleBinding.getSpec().getRole().getResourceTypes().contains(resourceType))
+                .filter(roleBinding -> roleBinding.getSpec().getRole().getVerbs().contains(verb.get()))
+                .toList();
+
+        // Do not cache a decision computed while the role bindings or namespaces were changing
+        synchronized (authorizedRoleBindingsCache) {
+            if (generation == authorizationCacheGeneration.get()) {
+                authorizedRoleBindingsCache.put(key, authorizedRoleBindings);
+            }
+        }
+
+        return authorizedRoleBindings;
+    }
+
+    /**
+     * Clear all the cached authorization decisions
+     */
+    private void invalidateAuthorizations() {
+        synchronized (authorizedRoleBindingsCache) {
+            authorizationCacheGeneration.incrementAndGet();
+            authorizedRoleBindingsCache.clear();
+        }
+    }
+
+    /**
+     * Get the groups of a user from its claims
+     * @param authentication The claims from the token
+     * @return The groups, empty if the claim is missing
+     */
+    public static List<String> getGroups(Authentication authentication) {
+        if (!(authentication.getAttributes().get("groups") instanceof Collection<?> groups)) {
+            return List.of();
+        }
+
+        return groups.stream()
+                .map(String::valueOf)
+                .toList();
+    }
+
     @Override
     public int getOrder() {
         return -1000;
@@ -134,4 +215,6 @@ public class ResourceBasedSecurityRule implements SecurityRule {
 
         return roles;
     }
+
+    private record AuthorizationKey(List<String> groups, String namespace, String resourceType, String method) {}
 }
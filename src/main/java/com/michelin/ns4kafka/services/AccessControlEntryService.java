@@ -4,15 +4,20 @@ import com.michelin.ns4kafka.models.AccessControlEntry;
 import com.michelin.ns4kafka.models.Namespace;
 import com.michelin.ns4kafka.repositories.AccessControlEntryRepository;
 import com.michelin.ns4kafka.services.executors.AccessControlEntryAsyncExecutor;
+import com.michelin.ns4kafka.utils.PrefixTrie;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.inject.qualifiers.Qualifiers;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Singleton
 public class AccessControlEntryService {
@@ -24,6 +29,28 @@ public class AccessControlEntryService {
     @Inject
     ApplicationContext applicationContext;
 
+    private final Map<String, PrefixTrie<AccessControlEntry>> ownedTopicsByNamespace = new ConcurrentHashMap<>();
+
+    /**
+     * Invalidate the owned topics of the namespaces granted the created, updated and deleted OWNER TOPIC ACLs
+     * A public one invalidates the owned topics of all the namespaces
+     */
+    @PostConstruct
+    void listenAccessControlEntryChanges() {
+        accessControlEntryRepository.addListener((key, previous, value) -> Stream.of(previous, value)
+                .filter(accessControlEntry -> accessControlEntry != null
+                        && accessControlEntry.getSpec().getPermission() == AccessControlEntry.Permission.OWNER
+                        && accessControlEntry.getSpec().getResourceType() == AccessControlEntry.ResourceType.TOPIC)
+                .map(accessControlEntry -> accessControlEntry.getSpec().getGrantedTo())
+                .forEach(grantedTo -> {
+                    if (PUBLIC_GRANTED_TO.equals(grantedTo)) {
+                        ownedTopicsByNamespace.clear();
+                    } else {
+                        ownedTopicsByNamespace.remove(grantedTo);
+                    }
+                }));
+    }
+
     /**
      * Validate a new ACL
      * @param accessControlEntry The ACL
@@ -196,6 +223,16 @@ public class AccessControlEntryService {
         return accessControlEntryRepository.create(accessControlEntry);
     }
 
+    /**
+     * Create a batch of ACLs in internal topic
+     *
+     * @param accessControlEntries The ACLs
+     * @return The created ACLs
+     */
+    public List<AccessControlEntry> createAll(List<AccessControlEntry> accessControlEntries) {
+        return accessControlEntryRepository.createAll(accessControlEntries);
+    }
+
     /**
      * Delete an ACL from broker and from internal topic
      *
@@ -217,11 +254,9 @@ public class AccessControlEntryService {
      * @return A list of ACLs
      */
     public List<AccessControlEntry> findAllGrantedToNamespace(Namespace namespace) {
-        return accessControlEntryRepository.findAll()
-                .stream()
-                .filter(accessControlEntry -> accessControlEntry.getSpec().getGrantedTo().equals(namespace.getMetadata().getName()) ||
-                                accessControlEntry.getSpec().getGrantedTo().equals(PUBLIC_GRANTED_TO))
-                .toList();
+        List<AccessControlEntry> grantedToNamespace = new ArrayList<>(accessControlEntryRepository.findAllGrantedTo(namespace.getMetadata().getName()));
+        grantedToNamespace.addAll(findAllPublicGrantedTo());
+        return grantedToNamespace;
     }
 
     /**
@@ -230,10 +265,7 @@ public class AccessControlEntryService {
      * @return A list of ACLs
      */
     public List<AccessControlEntry> findAllPublicGrantedTo() {
-        return accessControlEntryRepository.findAll()
-                .stream()
-                .filter(accessControlEntry -> accessControlEntry.getSpec().getGrantedTo().equals(PUBLIC_GRANTED_TO))
-                .toList();
+        return accessControlEntryRepository.findAllGrantedTo(PUBLIC_GRANTED_TO);
     }
 
     /**
@@ -243,9 +275,7 @@ public class AccessControlEntryService {
      * @return A list of ACLs
      */
     public List<AccessControlEntry> findAllForNamespace(Namespace namespace) {
-        return accessControlEntryRepository.findAll().stream()
-                .filter(accessControlEntry -> accessControlEntry.getMetadata().getNamespace().equals(namespace.getMetadata().getName()))
-                .toList();
+        return accessControlEntryRepository.findAllForNamespace(namespace.getMetadata().getName());
     }
 
     /**
@@ -255,9 +285,7 @@ public class AccessControlEntryService {
      * @return A list of ACLs
      */
     public List<AccessControlEntry> findAllForCluster(String cluster) {
-        return accessControlEntryRepository.findAll().stream()
-                .filter(accessControlEntry -> accessControlEntry.getMetadata().getCluster().equals(cluster))
-                .toList();
+        return accessControlEntryRepository.findAllForCluster(cluster);
     }
 
     /**
@@ -277,20 +305,37 @@ public class AccessControlEntryService {
      * @return true if it is, false otherwise
      */
     public boolean isNamespaceOwnerOfResource(String namespace, AccessControlEntry.ResourceType resourceType, String resource) {
-        return accessControlEntryRepository.findAll()
+        return accessControlEntryRepository.findAllOwnersOfResource(resourceType, resource)
                 .stream()
-                .filter(accessControlEntry -> accessControlEntry.getSpec().getGrantedTo().equals(namespace))
-                .filter(accessControlEntry -> accessControlEntry.getSpec().getPermission() == AccessControlEntry.Permission.OWNER)
-                .filter(accessControlEntry -> accessControlEntry.getSpec().getResourceType() == resourceType)
-                .anyMatch(accessControlEntry -> {
-                    switch (accessControlEntry.getSpec().getResourcePatternType()) {
-                        case PREFIXED:
-                            return resource.startsWith(accessControlEntry.getSpec().getResource());
-                        case LITERAL:
-                            return resource.equals(accessControlEntry.getSpec().getResource());
-                    }
-                    return false;
-                });
+                .anyMatch(accessControlEntry -> accessControlEntry.getSpec().getGrantedTo().equals(namespace));
+    }
+
+    /**
+     * Get the matcher of the topics owned by a namespace, built from its OWNER TOPIC ACLs and cached until they change
+     * Each topic is then matched in O(topic name length) instead of scanning the ACLs
+     *
+     * @param namespace The namespace
+     * @return The OWNER TOPIC ACLs of the namespace, by LITERAL or PREFIXED topic name
+     */
+    public PrefixTrie<AccessControlEntry> getOwnedTopicsMatcher(Namespace namespace) {
+        return ownedTopicsByNamespace.computeIfAbsent(namespace.getMetadata().getName(), name -> {
+            PrefixTrie<AccessControlEntry> ownedTopics = new PrefixTrie<>();
+            findAllGrantedToNamespace(namespace)
+                    .stream()
+                    .filter(accessControlEntry -> accessControlEntry.getSpec().getPermission() == AccessControlEntry.Permission.OWNER)
+                    .filter(accessControlEntry -> accessControlEntry.getSpec().getResourceType() == AccessControlEntry.ResourceType.TOPIC)
+                    .forEach(accessControlEntry -> {
+                        switch (accessControlEntry.getSpec().getResourcePatternType()) {
+                            case PREFIXED:
+                                ownedTopics.add(accessControlEntry.getSpec().getResource(), true, accessControlEntry);
+                                break;
+                            case LITERAL:
+                                ownedTopics.add(accessControlEntry.getSpec().getResource(), false, accessControlEntry);
+                                break;
+                        }
+                    });
+            return ownedTopics;
+        });
     }
 
     /**
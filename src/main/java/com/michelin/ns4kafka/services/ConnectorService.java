@@ -6,9 +6,11 @@ import com.michelin.ns4kafka.models.connector.Connector;
 import com.michelin.ns4kafka.repositories.ConnectorRepository;
 import com.michelin.ns4kafka.services.connect.ConnectorClientProxy;
 import com.michelin.ns4kafka.services.connect.client.ConnectorClient;
+import com.michelin.ns4kafka.services.connect.client.entities.ConnectorPluginInfo;
 import com.michelin.ns4kafka.services.connect.client.entities.ConnectorSpecs;
 import com.michelin.ns4kafka.services.executors.ConnectorAsyncExecutor;
 import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.annotation.Value;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.inject.qualifiers.Qualifiers;
@@ -18,10 +20,14 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -45,6 +51,11 @@ public class ConnectorService {
     @Inject
     ConnectClusterService connectClusterService;
 
+    @Value("${ns4kafka.connect.plugins-cache-ttl:10m}")
+    Duration pluginsCacheTtl = Duration.ofMinutes(10);
+
+    private final Map<String, ConnectorPlugins> connectorPlugins = new ConcurrentHashMap<>();
+
     /**
      * Find all connectors by given namespace
      * @param namespace The namespace
@@ -71,6 +82,28 @@ public class ConnectorService {
                 .toList();
     }
 
+    /**
+     * Find all connectors by given namespace, with their status cached by the connector executor
+     * at the last synchronization, instead of requesting each Connect cluster
+     * The last update time of the status is the time of the cache refresh
+     * @param namespace The namespace
+     * @return A list of connectors
+     */
+    public List<Connector> findAllForNamespaceWithStatus(Namespace namespace) {
+        ConnectorAsyncExecutor connectorAsyncExecutor = applicationContext.getBean(ConnectorAsyncExecutor.class,
+                Qualifiers.byName(namespace.getMetadata().getCluster()));
+
+        return findAllForNamespace(namespace)
+                .stream()
+                .map(connector -> Connector.builder()
+                        .metadata(connector.getMetadata())
+                        .spec(connector.getSpec())
+                        .status(connectorAsyncExecutor.getCachedStatus(connector.getSpec().getConnectCluster(),
+                                connector.getMetadata().getName()).orElse(connector.getStatus()))
+                        .build())
+                .toList();
+    }
+
     /**
      * Find all connectors by given namespace and Connect cluster
      * @param namespace The namespace
@@ -122,16 +155,13 @@ public class ConnectorService {
         }
 
         // Connector type exists on this target connect cluster ?
-        return connectorClient.connectPlugins(ConnectorClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(),
-                        connector.getSpec().getConnectCluster())
-                .map(connectorPluginInfos -> {
-                    Optional<String> connectorType = connectorPluginInfos
-                            .stream()
-                            .filter(connectPluginItem -> connectPluginItem.className().equals(connector.getSpec().getConfig().get(CONNECTOR_CLASS)))
-                            .map(connectorPluginInfo -> connectorPluginInfo.type().toString().toLowerCase(Locale.ROOT))
-                            .findFirst();
+        return getConnectorPluginTypes(namespace.getMetadata().getCluster(), connector.getSpec().getConnectCluster())
+                .map(connectorPluginTypes -> {
+                    Optional<String> connectorType = Optional.ofNullable(connectorPluginTypes.get(connector.getSpec().getConfig().get(CONNECTOR_CLASS)));
 
                     if (connectorType.isEmpty()) {
+                        // The plugins may have been redeployed since the catalogue was cached
+                        invalidateConnectorPlugins(namespace.getMetadata().getCluster(), connector.getSpec().getConnectCluster());
                         return List.of("Failed to find any class that implements Connector and which name matches " +
                                 connector.getSpec().getConfig().get(CONNECTOR_CLASS));
                     }
@@ -141,6 +171,47 @@ public class ConnectorService {
                 });
     }
 
+    /**
+     * Get the connector plugin catalogue of a Connect cluster, from the cache while it is fresh
+     * @param cluster The Kafka cluster
+     * @param connectCluster The Connect cluster
+     * @return The connector types by plugin class name
+     */
+    public Single<Map<String, String>> getConnectorPluginTypes(String cluster, String connectCluster) {
+        ConnectorPlugins cachedPlugins = connectorPlugins.get(cluster + "/" + connectCluster);
+        if (cachedPlugins != null && cachedPlugins.fetchTime().plus(pluginsCacheTtl).isAfter(Instant.now())) {
+            return Single.just(cachedPlugins.types());
+        }
+        return refreshConnectorPlugins(cluster, connectCluster);
+    }
+
+    /**
+     * Fetch the connector plugin catalogue of a Connect cluster and cache it
+     * @param cluster The Kafka cluster
+     * @param connectCluster The Connect cluster
+     * @return The connector types by plugin class name
+     */
+    public Single<Map<String, String>> refreshConnectorPlugins(String cluster, String connectCluster) {
+        return connectorClient.connectPlugins(ConnectorClientProxy.PROXY_SECRET, cluster, connectCluster)
+                .map(connectorPluginInfos -> {
+                    Map<String, String> types = connectorPluginInfos
+                            .stream()
+                            .collect(Collectors.toMap(ConnectorPluginInfo::className,
+                                    connectorPluginInfo -> connectorPluginInfo.type().toString().toLowerCase(Locale.ROOT), (t1, t2) -> t1));
+                    connectorPlugins.put(cluster + "/" + connectCluster, new ConnectorPlugins(types, Instant.now()));
+                    return types;
+                });
+    }
+
+    /**
+     * Drop the cached connector plugin catalogue of a Connect cluster
+     * @param cluster The Kafka cluster
+     * @param connectCluster The Connect cluster
+     */
+    public void invalidateConnectorPlugins(String cluster, String connectCluster) {
+        connectorPlugins.remove(cluster + "/" + connectCluster);
+    }
+
     /**
      * Is given namespace owner of the given connector
      * @param namespace The namespace
@@ -179,6 +250,15 @@ public class ConnectorService {
         return connectorRepository.create(connector);
     }
 
+    /**
+     * Create a batch of connectors
+     * @param connectors The connectors to create
+     * @return The created connectors
+     */
+    public List<Connector> createOrUpdateAll(List<Connector> connectors) {
+        return connectorRepository.createAll(connectors);
+    }
+
     /**
      * Delete a given connector
      * @param namespace The namespace
@@ -227,6 +307,23 @@ public class ConnectorService {
         return Observable.merge(connectors).toList();
     }
 
+    /**
+     * List the connectors of a namespace whose configuration deployed on Connect differs from the applied one,
+     * or which are not deployed yet, as of the last synchronization of their connect cluster
+     * @param namespace The namespace
+     * @return The list of drifted connectors
+     */
+    public List<Connector> listDriftedConnectors(Namespace namespace) {
+        ConnectorAsyncExecutor connectorAsyncExecutor = applicationContext.getBean(ConnectorAsyncExecutor.class,
+                Qualifiers.byName(namespace.getMetadata().getCluster()));
+
+        return findAllForNamespace(namespace)
+                .stream()
+                .filter(connector -> connectorAsyncExecutor.isCachedOutOfSync(connector.getSpec().getConnectCluster(),
+                        connector.getMetadata().getName()))
+                .toList();
+    }
+
     /**
      * Restart a given connector
      * @param namespace The namespace
@@ -290,4 +387,11 @@ public class ConnectorService {
                             return HttpResponse.accepted();
                         });
     }
+
+    /**
+     * Cached connector plugin catalogue of a Connect cluster
+     * @param types The connector types by plugin class name
+     * @param fetchTime The time the catalogue was fetched
+     */
+    private record ConnectorPlugins(Map<String, String> types, Instant fetchTime) {}
 }
@@ -0,0 +1,208 @@
+package com.michelin.ns4kafka.services;
+
+import com.michelin.ns4kafka.config.ProxyHttpClientConfig;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.client.DefaultHttpClientConfiguration;
+import io.micronaut.http.client.HttpClientConfiguration;
+import io.micronaut.http.client.ProxyHttpClient;
+import io.reactivex.rxjava3.core.Flowable;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Singleton
+public class ProxyHttpClientService {
+    @Inject
+    ProxyHttpClientConfig proxyHttpClientConfig;
+
+    private final Map<String, BackendClient> backendClients = new ConcurrentHashMap<>();
+
+    /**
+     * Proxy a request to a backend, through the pooled client dedicated to this backend
+     * The client is created on the first request to the backend, or recreated if the previous one is closing,
+     * with the pool overrides of this request
+     * @param url The backend URL
+     * @param poolOverrides The pool settings of the backend overriding the default ones
+     * @param request The request, already mutated to the backend
+     * @return The backend response
+     */
+    public Publisher<MutableHttpResponse<?>> proxy(String url, ProxyHttpClientConfig.PoolOverrides poolOverrides,
+                                                   MutableHttpRequest<?> request) {
+        return Flowable.defer(() -> {
+            long startTime = System.currentTimeMillis();
+            BackendClient backendClient = acquireBackendClient(url, poolOverrides);
+            log.debug("Proxying request to backend {}, {} requests in flight", url, backendClient.inFlightRequests().get());
+
+            return Flowable.defer(() -> backendClient.client().proxy(request))
+                    .doFinally(() -> {
+                        int inFlightRequests = releaseBackendClient(url, backendClient);
+                        log.debug("Proxied request to backend {} completed in {}ms, {} requests in flight",
+                                url, System.currentTimeMillis() - startTime, inFlightRequests);
+                    });
+        });
+    }
+
+    /**
+     * Get the number of requests in flight to a backend
+     * @param url The backend URL
+     * @return The number of requests in flight
+     */
+    public int getInFlightRequests(String url) {
+        BackendClient backendClient = backendClients.get(url);
+        return backendClient == null ? 0 : backendClient.inFlightRequests().get();
+    }
+
+    /**
+     * Close the client of a backend no longer routed to
+     * The client is closed once its requests in flight complete, the next requests to the backend use a new client
+     * @param url The backend URL
+     */
+    public void close(String url) {
+        BackendClient backendClient = backendClients.remove(url);
+        if (backendClient != null) {
+            backendClient.closing().set(true);
+            if (backendClient.inFlightRequests().get() == 0) {
+                closeBackendClient(url, backendClient);
+            }
+        }
+    }
+
+    /**
+     * Close the clients of all the backends
+     */
+    @PreDestroy
+    public void closeAll() {
+        backendClients.keySet().forEach(this::close);
+    }
+
+    /**
+     * Get the client of a backend and count a request in flight on it
+     * A client marked as closing in the meantime is released and a new one is used
+     * @param url The backend URL
+     * @param poolOverrides The pool settings of the backend overriding the default ones
+     * @return The backend client
+     */
+    private BackendClient acquireBackendClient(String url, ProxyHttpClientConfig.PoolOverrides poolOverrides) {
+        while (true) {
+            BackendClient backendClient = backendClients.computeIfAbsent(url, key -> createBackendClient(key, poolOverrides));
+            backendClient.inFlightRequests().incrementAndGet();
+            if (!backendClient.closing().get()) {
+                return backendClient;
+            }
+            releaseBackendClient(url, backendClient);
+        }
+    }
+
+    /**
+     * Count a request in flight on the client of a backend as completed, and close the client
+     * if it is closing and this was its last request in flight
+     * @param url The backend URL
+     * @param backendClient The backend client
+     * @return The number of requests in flight remaining
+     */
+    private int releaseBackendClient(String url, BackendClient backendClient) {
+        int inFlightRequests = backendClient.inFlightRequests().decrementAndGet();
+        if (inFlightRequests == 0 && backendClient.closing().get()) {
+            closeBackendClient(url, backendClient);
+        }
+        return inFlightRequests;
+    }
+
+    /**
+     * Create the pooled client of a backend
+     * @param url The backend URL
+     * @param poolOverrides The pool settings of the backend overriding the default ones
+     * @return The backend client
+     */
+    private BackendClient createBackendClient(String url, ProxyHttpClientConfig.PoolOverrides poolOverrides) {
+        HttpClientConfiguration configuration = buildHttpClientConfiguration(poolOverrides);
+        log.debug("Creating client of backend {} with a pool of {} connections", url,
+                configuration.getConnectionPoolConfiguration().getMaxConnections());
+        return new BackendClient(createProxyHttpClient(url, configuration), new AtomicInteger(), new AtomicBoolean(), new AtomicBoolean());
+    }
+
+    /**
+     * Build the configuration of the pooled HTTP client of a backend
+     * @param poolOverrides The pool settings of the backend overriding the default ones
+     * @return The HTTP client configuration
+     */
+    HttpClientConfiguration buildHttpClientConfiguration(ProxyHttpClientConfig.PoolOverrides poolOverrides) {
+        DefaultHttpClientConfiguration configuration = new DefaultHttpClientConfiguration();
+        configuration.setConnectTimeout(proxyHttpClientConfig.getConnectTimeout());
+        configuration.setReadTimeout(proxyHttpClientConfig.getReadTimeout());
+        configuration.setConnectionPoolIdleTimeout(proxyHttpClientConfig.getKeepAliveTimeout());
+        configuration.setNumOfThreads(proxyHttpClientConfig.getEventLoopThreads());
+
+        HttpClientConfiguration.ConnectionPoolConfiguration connectionPool = configuration.getConnectionPoolConfiguration();
+        connectionPool.setEnabled(true);
+        connectionPool.setMaxConnections(Optional.ofNullable(poolOverrides.maxConnections())
+                .orElse(proxyHttpClientConfig.getMaxConnections()));
+        connectionPool.setMaxPendingAcquires(Optional.ofNullable(poolOverrides.maxPendingAcquires())
+                .orElse(proxyHttpClientConfig.getMaxPendingAcquires()));
+        connectionPool.setAcquireTimeout(Optional.ofNullable(poolOverrides.acquireTimeout())
+                .orElse(proxyHttpClientConfig.getAcquireTimeout()));
+        return configuration;
+    }
+
+    /**
+     * Create the pooled HTTP client of a backend
+     * @param url The backend URL
+     * @param configuration The HTTP client configuration
+     * @return The HTTP client
+     */
+    ProxyHttpClient createProxyHttpClient(String url, HttpClientConfiguration configuration) {
+        try {
+            return ProxyHttpClient.create(new URL(url), configuration);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid backend URL " + url, e);
+        }
+    }
+
+    /**
+     * Close the client of a backend, once
+     * @param url The backend URL
+     * @param backendClient The backend client
+     */
+    private void closeBackendClient(String url, BackendClient backendClient) {
+        if (backendClient.closed().compareAndSet(false, true)) {
+            log.debug("Closing client of backend {}", url);
+            closeProxyHttpClient(url, backendClient.client());
+        }
+    }
+
+    /**
+     * Close the pooled HTTP client of a backend
+     * @param url The backend URL
+     * @param client The HTTP client
+     */
+    void closeProxyHttpClient(String url, ProxyHttpClient client) {
+        if (client instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Error closing the client of backend {}", url, e);
+            }
+        }
+    }
+
+    /**
+     * Pooled client of a backend
+     * @param client The client
+     * @param inFlightRequests The number of requests in flight
+     * @param closing Whether the backend is no longer routed to, and the client to close once idle
+     * @param closed Whether the client is closed
+     */
+    private record BackendClient(ProxyHttpClient client, AtomicInteger inFlightRequests, AtomicBoolean closing, AtomicBoolean closed) {}
+}
@@ -1,21 +1,36 @@
 package com.michelin.ns4kafka.services;
 
+import com.michelin.ns4kafka.models.AccessControlEntry;
 import com.michelin.ns4kafka.models.Namespace;
 import com.michelin.ns4kafka.models.ObjectMeta;
 import com.michelin.ns4kafka.models.Topic;
 import com.michelin.ns4kafka.models.quota.ResourceQuota;
 import com.michelin.ns4kafka.models.quota.ResourceQuotaResponse;
+import com.michelin.ns4kafka.repositories.AccessControlEntryRepository;
+import com.michelin.ns4kafka.repositories.ConnectorRepository;
+import com.michelin.ns4kafka.repositories.NamespaceRepository;
 import com.michelin.ns4kafka.repositories.ResourceQuotaRepository;
+import com.michelin.ns4kafka.repositories.TopicRepository;
 import com.michelin.ns4kafka.services.executors.UserAsyncExecutor;
 import com.michelin.ns4kafka.utils.BytesUtils;
 import io.micronaut.core.util.StringUtils;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.michelin.ns4kafka.models.quota.ResourceQuota.ResourceQuotaSpecKey.*;
 import static com.michelin.ns4kafka.utils.BytesUtils.*;
@@ -44,6 +59,20 @@ public class ResourceQuotaService {
     @Inject
     ConnectorService connectorService;
 
+    @Inject
+    TopicRepository topicRepository;
+
+    @Inject
+    ConnectorRepository connectorRepository;
+
+    @Inject
+    AccessControlEntryRepository accessControlEntryRepository;
+
+    @Inject
+    NamespaceRepository namespaceRepository;
+
+    private final Map<String, Map<ResourceQuota.ResourceQuotaSpecKey, Long>> namespaceUsages = new ConcurrentHashMap<>();
+
     /**
      * Find a resource quota by namespace
      * @param namespace The namespace used to research
@@ -150,13 +179,117 @@ public class ResourceQuotaService {
         return errors;
     }
 
+    /**
+     * Invalidate the cached usage of the namespaces owning a changed topic or connector, or granted a changed OWNER ACL,
+     * and drop the cached usage of the deleted namespaces
+     * Status-only changes are ignored, as they do not change the usage
+     */
+    @PostConstruct
+    void listenUsageChanges() {
+        topicRepository.addListener((key, previous, value) -> {
+            if (previous == null || value == null || !Objects.equals(previous.getSpec(), value.getSpec())) {
+                Stream.of(previous, value)
+                        .filter(Objects::nonNull)
+                        .forEach(topic -> invalidateUsageOfOwners(AccessControlEntry.ResourceType.TOPIC,
+                                topic.getMetadata().getName(), topic.getMetadata().getNamespace()));
+            }
+        });
+
+        connectorRepository.addListener((key, previous, value) -> {
+            if (previous == null || value == null || !Objects.equals(previous.getSpec(), value.getSpec())) {
+                Stream.of(previous, value)
+                        .filter(Objects::nonNull)
+                        .forEach(connector -> invalidateUsageOfOwners(AccessControlEntry.ResourceType.CONNECT,
+                                connector.getMetadata().getName(), connector.getMetadata().getNamespace()));
+            }
+        });
+
+        accessControlEntryRepository.addListener((key, previous, value) -> Stream.of(previous, value)
+                .filter(Objects::nonNull)
+                .filter(accessControlEntry -> accessControlEntry.getSpec().getPermission() == AccessControlEntry.Permission.OWNER)
+                .forEach(accessControlEntry -> namespaceUsages.remove(accessControlEntry.getSpec().getGrantedTo())));
+
+        namespaceRepository.addListener((key, previous, value) -> {
+            if (previous != null && value == null) {
+                namespaceUsages.remove(previous.getMetadata().getName());
+            }
+        });
+    }
+
+    /**
+     * Invalidate the cached usage of the namespaces owning a resource
+     * @param resourceType The resource type
+     * @param resource The resource name
+     * @param namespace The namespace the resource was applied from
+     */
+    private void invalidateUsageOfOwners(AccessControlEntry.ResourceType resourceType, String resource, String namespace) {
+        if (namespace != null) {
+            namespaceUsages.remove(namespace);
+        }
+
+        accessControlEntryRepository.findAllOwnersOfResource(resourceType, resource)
+                .forEach(accessControlEntry -> namespaceUsages.remove(accessControlEntry.getSpec().getGrantedTo()));
+    }
+
+    /**
+     * Get a resource currently used by a namespace, computed once and cached until the namespace resources change
+     * @param namespace The namespace
+     * @param key The resource
+     * @param computation The computation of the used resource
+     * @return The used resource
+     */
+    private long getNamespaceUsage(Namespace namespace, ResourceQuota.ResourceQuotaSpecKey key, ToLongFunction<Namespace> computation) {
+        return namespaceUsages.computeIfAbsent(namespace.getMetadata().getName(), name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> computation.applyAsLong(namespace));
+    }
+
+    /**
+     * Get a topic resource currently used by a namespace
+     * The number of topics, the number of partitions and the disk are computed together in a single pass over the
+     * topics of the namespace, and cached until the namespace resources change
+     * @param namespace The namespace
+     * @param key The topic resource
+     * @return The used topic resource
+     */
+    private long getNamespaceTopicUsage(Namespace namespace, ResourceQuota.ResourceQuotaSpecKey key) {
+        Map<ResourceQuota.ResourceQuotaSpecKey, Long> usages = namespaceUsages
+                .computeIfAbsent(namespace.getMetadata().getName(), name -> new ConcurrentHashMap<>());
+
+        Long usage = usages.get(key);
+        if (usage == null) {
+            Map<ResourceQuota.ResourceQuotaSpecKey, Long> topicUsages = computeNamespaceTopicUsages(namespace);
+            usages.putAll(topicUsages);
+            usage = topicUsages.get(key);
+        }
+
+        return usage;
+    }
+
+    /**
+     * Compute the number of topics, the number of partitions and the disk used by a namespace
+     * @param namespace The namespace
+     * @return The used topic resources
+     */
+    private Map<ResourceQuota.ResourceQuotaSpecKey, Long> computeNamespaceTopicUsages(Namespace namespace) {
+        List<Topic> topics = topicService.findAllForNamespace(namespace);
+
+        long partitions = 0L;
+        long disk = 0L;
+        for (Topic topic : topics) {
+            partitions += topic.getSpec().getPartitions();
+            disk += getTopicSize(topic);
+        }
+
+        return Map.of(COUNT_TOPICS, (long) topics.size(), COUNT_PARTITIONS, partitions, DISK_TOPICS, disk);
+    }
+
     /**
      * Get currently used number of topics by namespace
      * @param namespace The namespace
      * @return The number of topics
      */
     public long getCurrentCountTopicsByNamespace(Namespace namespace) {
-        return topicService.findAllForNamespace(namespace).size();
+        return getNamespaceTopicUsage(namespace, COUNT_TOPICS);
     }
 
     /**
@@ -165,11 +298,7 @@ public class ResourceQuotaService {
      * @return The number of partitions
      */
     public long getCurrentCountPartitionsByNamespace(Namespace namespace) {
-        return topicService.findAllForNamespace(namespace)
-                .stream()
-                .map(topic -> topic.getSpec().getPartitions())
-                .reduce(0, Integer::sum)
-                .longValue();
+        return getNamespaceTopicUsage(namespace, COUNT_PARTITIONS);
     }
 
     /**
@@ -178,11 +307,7 @@ public class ResourceQuotaService {
      * @return The number of topic disk
      */
     public long getCurrentDiskTopicsByNamespace(Namespace namespace) {
-        return topicService.findAllForNamespace(namespace)
-                .stream()
-                .map(topic -> Long.parseLong(topic.getSpec().getConfigs().getOrDefault("retention.bytes", "0")) *
-                        topic.getSpec().getPartitions())
-                .reduce(0L, Long::sum);
+        return getNamespaceTopicUsage(namespace, DISK_TOPICS);
     }
 
     /**
@@ -191,7 +316,7 @@ public class ResourceQuotaService {
      * @return The number of connectors
      */
     public long getCurrentCountConnectorsByNamespace(Namespace namespace) {
-        return connectorService.findAllForNamespace(namespace).size();
+        return getNamespaceUsage(namespace, COUNT_CONNECTORS, ns -> connectorService.findAllForNamespace(ns).size());
     }
 
     /**
@@ -276,6 +401,84 @@ public class ResourceQuotaService {
         return errors;
     }
 
+    /**
+     * Validate the quota of a batch of resources applied together, against a snapshot of the resources of the namespace
+     * @param namespace The namespace
+     * @param existingTopics The topics of the namespace
+     * @param existingConnectors The number of connectors of the namespace
+     * @param appliedTopics The topics created or updated by the batch
+     * @param createdConnectors The number of connectors created by the batch
+     * @return A list of errors
+     */
+    public List<String> validateBulkQuota(Namespace namespace, List<Topic> existingTopics, long existingConnectors,
+                                          List<Topic> appliedTopics, long createdConnectors) {
+        Optional<ResourceQuota> resourceQuotaOptional = findByNamespace(namespace.getMetadata().getName());
+        if (resourceQuotaOptional.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> errors = new ArrayList<>();
+        Map<String, String> quota = resourceQuotaOptional.get().getSpec();
+        Map<String, Topic> existingTopicsByName = existingTopics
+                .stream()
+                .collect(Collectors.toMap(topic -> topic.getMetadata().getName(), Function.identity()));
+        List<Topic> createdTopics = appliedTopics
+                .stream()
+                .filter(topic -> !existingTopicsByName.containsKey(topic.getMetadata().getName()))
+                .toList();
+
+        if (!createdTopics.isEmpty() && StringUtils.hasText(quota.get(COUNT_TOPICS.getKey()))) {
+            long used = existingTopics.size();
+            long limit = Long.parseLong(quota.get(COUNT_TOPICS.getKey()));
+            if (used + createdTopics.size() > limit) {
+                errors.add(String.format("Exceeding quota for %s: %s/%s (used/limit). Cannot add %s topic(s).", COUNT_TOPICS, used, limit, createdTopics.size()));
+            }
+        }
+
+        if (!createdTopics.isEmpty() && StringUtils.hasText(quota.get(COUNT_PARTITIONS.getKey()))) {
+            long used = existingTopics.stream().mapToLong(topic -> topic.getSpec().getPartitions()).sum();
+            long limit = Long.parseLong(quota.get(COUNT_PARTITIONS.getKey()));
+            long partitionsToAdd = createdTopics.stream().mapToLong(topic -> topic.getSpec().getPartitions()).sum();
+            if (used + partitionsToAdd > limit) {
+                errors.add(String.format("Exceeding quota for %s: %s/%s (used/limit). Cannot add %s partition(s).", COUNT_PARTITIONS, used, limit, partitionsToAdd));
+            }
+        }
+
+        if (StringUtils.hasText(quota.get(DISK_TOPICS.getKey()))) {
+            long used = existingTopics.stream().mapToLong(this::getTopicSize).sum();
+            long limit = BytesUtils.humanReadableToBytes(quota.get(DISK_TOPICS.getKey()));
+            long bytesToAdd = appliedTopics
+                    .stream()
+                    .mapToLong(topic -> getTopicSize(topic) - Optional.ofNullable(existingTopicsByName.get(topic.getMetadata().getName()))
+                            .map(this::getTopicSize)
+                            .orElse(0L))
+                    .sum();
+            if (bytesToAdd > 0 && used + bytesToAdd > limit) {
+                errors.add(String.format("Exceeding quota for %s: %s/%s (used/limit). Cannot add %s of data.", DISK_TOPICS,
+                        BytesUtils.bytesToHumanReadable(used), BytesUtils.bytesToHumanReadable(limit), BytesUtils.bytesToHumanReadable(bytesToAdd)));
+            }
+        }
+
+        if (createdConnectors > 0 && StringUtils.hasText(quota.get(COUNT_CONNECTORS.getKey()))) {
+            long limit = Long.parseLong(quota.get(COUNT_CONNECTORS.getKey()));
+            if (existingConnectors + createdConnectors > limit) {
+                errors.add(String.format("Exceeding quota for %s: %s/%s (used/limit). Cannot add %s connector(s).", COUNT_CONNECTORS, existingConnectors, limit, createdConnectors));
+            }
+        }
+
+        return errors;
+    }
+
+    /**
+     * Get the disk size of a topic, its retention bytes multiplied by its partitions
+     * @param topic The topic
+     * @return The size in bytes
+     */
+    private long getTopicSize(Topic topic) {
+        Map<String, String> configs = topic.getSpec().getConfigs();
+        return configs == null ? 0L : Long.parseLong(configs.getOrDefault(RETENTION_BYTES_CONFIG, "0")) * topic.getSpec().getPartitions();
+    }
+
     /**
      * Get the current consumed resources against the current quota of the given namespace to a response
      * @return A list of quotas as response format
@@ -287,6 +490,19 @@ public class ResourceQuotaService {
                 .toList();
     }
 
+    /**
+     * Stream the current consumed resources against the current quota of all the namespaces
+     * The namespaces are processed in parallel, and each response is emitted as soon as it is ready, in no particular order
+     * @return A flowable of quotas as response format
+     */
+    public Flowable<ResourceQuotaResponse> streamUsedResourcesByQuotaForAllNamespaces() {
+        return Flowable.defer(() -> Flowable.fromIterable(namespaceService.listAll()))
+                .parallel()
+                .runOn(Schedulers.computation())
+                .map(namespace -> getUsedResourcesByQuotaByNamespace(namespace, findByNamespace(namespace.getMetadata().getName())))
+                .sequential();
+    }
+
     /**
      * Map current consumed resources and current quota of the given namespace to a response
      * @param namespace The namespace
@@ -10,49 +10,69 @@ import com.michelin.ns4kafka.services.schema.client.KafkaSchemaRegistryClient;
 import com.michelin.ns4kafka.services.schema.client.entities.SchemaCompatibilityResponse;
 import com.michelin.ns4kafka.services.schema.client.entities.SchemaRequest;
 import com.michelin.ns4kafka.services.schema.client.entities.SchemaResponse;
+import com.michelin.ns4kafka.utils.PrefixTrie;
+import io.micronaut.context.annotation.Value;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Singleton
 public class SchemaService {
+    private static final Pattern SUBJECT_SUFFIX = Pattern.compile("(-key|-value)$");
+
     @Inject
     AccessControlEntryService accessControlEntryService;
 
     @Inject
     KafkaSchemaRegistryClient kafkaSchemaRegistryClient;
 
+    @Value("${ns4kafka.schema.subjects-cache-ttl:1m}")
+    Duration subjectsCacheTtl = Duration.ofMinutes(1);
+
+    private final Map<String, CachedSubjects> subjectsByCluster = new ConcurrentHashMap<>();
+
+    @Value("${ns4kafka.schema.latest-schemas-cache-ttl:30s}")
+    Duration latestSchemasCacheTtl = Duration.ofSeconds(30);
+
+    @Value("${ns4kafka.schema.latest-schemas-cache-max-size:1000}")
+    int latestSchemasCacheMaxSize = 1000;
+
+    // Least recently used entries are evicted first, once the cache is full
+    private final Map<String, CachedSchema> latestSchemas = Collections.synchronizedMap(new LinkedHashMap<String, CachedSchema>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedSchema> eldest) {
+            return size() > latestSchemasCacheMaxSize;
+        }
+    });
+
     /**
      * Get all the schemas by namespace
      * @param namespace The namespace
      * @return A list of schemas
      */
     public Single<List<SchemaList>> findAllForNamespace(Namespace namespace) {
-        List<AccessControlEntry> acls = accessControlEntryService.findAllGrantedToNamespace(namespace).stream()
-                .filter(acl -> acl.getSpec().getPermission() == AccessControlEntry.Permission.OWNER)
-                .filter(acl -> acl.getSpec().getResourceType() == AccessControlEntry.ResourceType.TOPIC).toList();
+        PrefixTrie<AccessControlEntry> ownedTopics = accessControlEntryService.getOwnedTopicsMatcher(namespace);
 
-        return kafkaSchemaRegistryClient
-                .getSubjects(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster())
+        return getSubjects(namespace.getMetadata().getCluster())
                 .map(subjects -> subjects
                         .stream()
-                        .filter(subject -> {
-                            String underlyingTopicName = subject.replaceAll("(-key|-value)$","");
-
-                            return acls.stream().anyMatch(accessControlEntry -> switch (accessControlEntry.getSpec().getResourcePatternType()) {
-                                case PREFIXED ->
-                                        underlyingTopicName.startsWith(accessControlEntry.getSpec().getResource());
-                                case LITERAL ->
-                                        underlyingTopicName.equals(accessControlEntry.getSpec().getResource());
-                            });
-                        })
+                        .filter(subject -> !ownedTopics.findMatches(getUnderlyingTopicName(subject)).isEmpty())
                         .map(namespacedSubject -> SchemaList.builder()
                                 .metadata(ObjectMeta.builder()
                                         .cluster(namespace.getMetadata().getCluster())
@@ -64,6 +84,26 @@ public class SchemaService {
                 );
     }
 
+    /**
+     * Get all the subjects of a cluster, from the cache while it is fresh
+     * @param cluster The cluster
+     * @return The subjects
+     */
+    public Single<Set<String>> getSubjects(String cluster) {
+        CachedSubjects cachedSubjects = subjectsByCluster.get(cluster);
+        if (cachedSubjects != null && cachedSubjects.fetchTime().plus(subjectsCacheTtl).isAfter(Instant.now())) {
+            return Single.just(cachedSubjects.subjects());
+        }
+
+        return kafkaSchemaRegistryClient
+                .getSubjects(KafkaSchemaRegistryClientProxy.PROXY_SECRET, cluster)
+                .map(subjects -> {
+                    Set<String> fetchedSubjects = new ConcurrentSkipListSet<>(subjects);
+                    subjectsByCluster.put(cluster, new CachedSubjects(fetchedSubjects, Instant.now()));
+                    return fetchedSubjects;
+                });
+    }
+
     /**
      * Get the last version of a schema by namespace and subject
      *
@@ -72,32 +112,51 @@ public class SchemaService {
      * @return A schema
      */
     public Maybe<Schema> getLatestSubject(Namespace namespace, String subject) {
-        return kafkaSchemaRegistryClient
-                .getLatestSubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(), subject)
-                .flatMap(latestSubjectOptional -> kafkaSchemaRegistryClient
-                    .getCurrentCompatibilityBySubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(), subject)
-                    .map(Optional::of)
-                    .defaultIfEmpty(Optional.empty())
-                    .map(currentCompatibilityOptional -> {
-                        Schema.Compatibility compatibility = currentCompatibilityOptional.isPresent() ? currentCompatibilityOptional.get().compatibilityLevel() : Schema.Compatibility.GLOBAL;
-
-                        return Schema.builder()
-                                .metadata(ObjectMeta.builder()
-                                        .cluster(namespace.getMetadata().getCluster())
-                                        .namespace(namespace.getMetadata().getName())
-                                        .name(latestSubjectOptional.subject())
-                                        .build())
-                                .spec(Schema.SchemaSpec.builder()
-                                        .id(latestSubjectOptional.id())
-                                        .version(latestSubjectOptional.version())
-                                        .compatibility(compatibility)
-                                        .schema(latestSubjectOptional.schema())
-                                        .schemaType(latestSubjectOptional.schemaType() == null ? Schema.SchemaType.AVRO :
-                                                Schema.SchemaType.valueOf(latestSubjectOptional.schemaType()))
-                                        .build())
-                                .build();
-                    })
-                    .toMaybe());
+        String cacheKey = latestSchemaCacheKey(namespace.getMetadata().getCluster(), subject);
+        CachedSchema cachedSchema = latestSchemas.get(cacheKey);
+        if (cachedSchema != null && cachedSchema.fetchTime().plus(latestSchemasCacheTtl).isAfter(Instant.now())) {
+            return Maybe.just(buildSchema(namespace, cachedSchema.schemaResponse(), cachedSchema.compatibility()));
+        }
+
+        // Both requests are issued at once, rather than one after the other
+        Maybe<Schema.Compatibility> currentCompatibility = kafkaSchemaRegistryClient
+                .getCurrentCompatibilityBySubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(), subject)
+                .map(SchemaCompatibilityResponse::compatibilityLevel)
+                .defaultIfEmpty(Schema.Compatibility.GLOBAL)
+                .toMaybe();
+
+        return Maybe.zip(kafkaSchemaRegistryClient
+                        .getLatestSubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(), subject),
+                currentCompatibility,
+                (latestSubject, compatibility) -> {
+                    latestSchemas.put(cacheKey, new CachedSchema(latestSubject, compatibility, Instant.now()));
+                    return buildSchema(namespace, latestSubject, compatibility);
+                });
+    }
+
+    /**
+     * Build a schema from the Schema Registry responses
+     * @param namespace The namespace
+     * @param schemaResponse The schema
+     * @param compatibility The compatibility of the subject
+     * @return The schema
+     */
+    private Schema buildSchema(Namespace namespace, SchemaResponse schemaResponse, Schema.Compatibility compatibility) {
+        return Schema.builder()
+                .metadata(ObjectMeta.builder()
+                        .cluster(namespace.getMetadata().getCluster())
+                        .namespace(namespace.getMetadata().getName())
+                        .name(schemaResponse.subject())
+                        .build())
+                .spec(Schema.SchemaSpec.builder()
+                        .id(schemaResponse.id())
+                        .version(schemaResponse.version())
+                        .compatibility(compatibility)
+                        .schema(schemaResponse.schema())
+                        .schemaType(schemaResponse.schemaType() == null ? Schema.SchemaType.AVRO :
+                                Schema.SchemaType.valueOf(schemaResponse.schemaType()))
+                        .build())
+                .build();
     }
 
     /**
@@ -115,6 +174,13 @@ public class SchemaService {
                                 .schema(schema.getSpec().getSchema())
                                 .references(schema.getSpec().getReferences())
                                 .build())
+                .doOnSuccess(schemaResponse -> {
+                    CachedSubjects cachedSubjects = subjectsByCluster.get(namespace.getMetadata().getCluster());
+                    if (cachedSubjects != null) {
+                        cachedSubjects.subjects().add(schema.getMetadata().getName());
+                    }
+                    latestSchemas.remove(latestSchemaCacheKey(namespace.getMetadata().getCluster(), schema.getMetadata().getName()));
+                })
                 .map(SchemaResponse::id);
     }
 
@@ -129,7 +195,14 @@ public class SchemaService {
                 .deleteSubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(), subject, false)
                 .flatMap(ids -> kafkaSchemaRegistryClient.
                         deleteSubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(),
-                                subject, true));
+                                subject, true))
+                .doOnSuccess(ids -> {
+                    CachedSubjects cachedSubjects = subjectsByCluster.get(namespace.getMetadata().getCluster());
+                    if (cachedSubjects != null) {
+                        cachedSubjects.subjects().remove(subject);
+                    }
+                    latestSchemas.remove(latestSchemaCacheKey(namespace.getMetadata().getCluster(), subject));
+                });
     }
 
     /**
@@ -169,16 +242,20 @@ public class SchemaService {
      * @param compatibility The compatibility to apply
      */
     public Single<SchemaCompatibilityResponse> updateSubjectCompatibility(Namespace namespace, Schema schema, Schema.Compatibility compatibility) {
+        Single<SchemaCompatibilityResponse> compatibilityUpdate;
         // Reset to default
         if (compatibility.equals(Schema.Compatibility.GLOBAL)) {
-            return kafkaSchemaRegistryClient.deleteCurrentCompatibilityBySubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET,
+            compatibilityUpdate = kafkaSchemaRegistryClient.deleteCurrentCompatibilityBySubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET,
                     namespace.getMetadata().getCluster(), schema.getMetadata().getName());
         } else {
             // Update
-            return kafkaSchemaRegistryClient.updateSubjectCompatibility(KafkaSchemaRegistryClientProxy.PROXY_SECRET,
+            compatibilityUpdate = kafkaSchemaRegistryClient.updateSubjectCompatibility(KafkaSchemaRegistryClientProxy.PROXY_SECRET,
                     namespace.getMetadata().getCluster(), schema.getMetadata().getName(),
                     compatibility.toString());
         }
+
+        return compatibilityUpdate
+                .doOnSuccess(response -> latestSchemas.remove(latestSchemaCacheKey(namespace.getMetadata().getCluster(), schema.getMetadata().getName())));
     }
 
     /**
@@ -189,8 +266,41 @@ public class SchemaService {
      * @return true if it's owner, false otherwise
      */
     public boolean isNamespaceOwnerOfSubject(Namespace namespace, String subjectName) {
-        String underlyingTopicName = subjectName.replaceAll("(-key|-value)$","");
         return accessControlEntryService.isNamespaceOwnerOfResource(namespace.getMetadata().getName(), AccessControlEntry.ResourceType.TOPIC,
-                underlyingTopicName);
+                getUnderlyingTopicName(subjectName));
     }
+
+    /**
+     * Get the name of the topic a subject belongs to, by stripping its key or value suffix
+     * @param subject The subject
+     * @return The topic name
+     */
+    private static String getUnderlyingTopicName(String subject) {
+        return SUBJECT_SUFFIX.matcher(subject).replaceAll("");
+    }
+
+    /**
+     * Build the latest schemas cache key of a subject
+     * @param cluster The cluster
+     * @param subject The subject
+     * @return The cache key
+     */
+    private static String latestSchemaCacheKey(String cluster, String subject) {
+        return cluster + "/" + subject;
+    }
+
+    /**
+     * Cached subjects of a cluster
+     * @param subjects The subjects
+     * @param fetchTime The time the subjects were fetched
+     */
+    private record CachedSubjects(Set<String> subjects, Instant fetchTime) {}
+
+    /**
+     * Cached latest schema of a subject
+     * @param schemaResponse The latest schema
+     * @param compatibility The compatibility of the subject
+     * @param fetchTime The time the schema was fetched
+     */
+    private record CachedSchema(SchemaResponse schemaResponse, Schema.Compatibility compatibility, Instant fetchTime) {}
 }
@@ -6,6 +6,7 @@ import com.michelin.ns4kafka.models.Namespace;
 import com.michelin.ns4kafka.models.Topic;
 import com.michelin.ns4kafka.repositories.TopicRepository;
 import com.michelin.ns4kafka.services.executors.TopicAsyncExecutor;
+import com.michelin.ns4kafka.utils.PrefixTrie;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.inject.qualifiers.Qualifiers;
 import jakarta.inject.Inject;
@@ -44,29 +45,32 @@ public class TopicService {
 
     /**
      * Find all topics by given namespace
+     * The topics of the LITERAL OWNER ACLs are got by key, the ones of the PREFIXED OWNER ACLs by a range of the sorted
+     * topic names of the cluster, so the cost depends on the topics of the namespace only
      * @param namespace The namespace
-     * @return A list of topics
+     * @return A list of topics, sorted by name
      */
     public List<Topic> findAllForNamespace(Namespace namespace) {
-        List<AccessControlEntry> acls = accessControlEntryService.findAllGrantedToNamespace(namespace);
-        return topicRepository.findAllForCluster(namespace.getMetadata().getCluster())
+        String cluster = namespace.getMetadata().getCluster();
+        Map<String, Topic> topics = new TreeMap<>();
+        accessControlEntryService.findAllGrantedToNamespace(namespace)
                 .stream()
-                .filter(topic -> acls.stream().anyMatch(accessControlEntry -> {
-                    //need to check accessControlEntry.Permission, we want OWNER
-                    if (accessControlEntry.getSpec().getPermission() != AccessControlEntry.Permission.OWNER) {
-                        return false;
+                .filter(accessControlEntry -> accessControlEntry.getSpec().getPermission() == AccessControlEntry.Permission.OWNER)
+                .filter(accessControlEntry -> accessControlEntry.getSpec().getResourceType() == AccessControlEntry.ResourceType.TOPIC)
+                .forEach(accessControlEntry -> {
+                    switch (accessControlEntry.getSpec().getResourcePatternType()) {
+                        case PREFIXED:
+                            topicRepository.findAllForClusterByPrefix(cluster, accessControlEntry.getSpec().getResource())
+                                    .forEach(topic -> topics.put(topic.getMetadata().getName(), topic));
+                            break;
+                        case LITERAL:
+                            topicRepository.findByName(cluster, accessControlEntry.getSpec().getResource())
+                                    .ifPresent(topic -> topics.put(topic.getMetadata().getName(), topic));
+                            break;
                     }
-                    if (accessControlEntry.getSpec().getResourceType() == AccessControlEntry.ResourceType.TOPIC) {
-                        switch (accessControlEntry.getSpec().getResourcePatternType()) {
-                            case PREFIXED:
-                                return topic.getMetadata().getName().startsWith(accessControlEntry.getSpec().getResource());
-                            case LITERAL:
-                                return topic.getMetadata().getName().equals(accessControlEntry.getSpec().getResource());
-                        }
-                    }
-                    return false;
-                }))
-                .toList();
+                });
+
+        return new ArrayList<>(topics.values());
     }
 
     /**
@@ -76,10 +80,11 @@ public class TopicService {
      * @return An optional topic
      */
     public Optional<Topic> findByName(Namespace namespace, String topic) {
-        return findAllForNamespace(namespace)
-                .stream()
-                .filter(t -> t.getMetadata().getName().equals(topic))
-                .findFirst();
+        if (!isNamespaceOwnerOfTopic(namespace.getMetadata().getName(), topic)) {
+            return Optional.empty();
+        }
+
+        return topicRepository.findByName(namespace.getMetadata().getCluster(), topic);
     }
 
     /**
@@ -101,6 +106,15 @@ public class TopicService {
         return topicRepository.create(topic);
     }
 
+    /**
+     * Create a batch of topics
+     * @param topics The topics to create
+     * @return The created topics
+     */
+    public List<Topic> createAll(List<Topic> topics) {
+        return topicRepository.createAll(topics);
+    }
+
     /**
      * Delete a given topic
      * @param topic The topic
@@ -180,7 +194,7 @@ public class TopicService {
      * @param topicB The second topic
      * @return true if it does, false otherwise
      */
-    private boolean hasCollision(String topicA, String topicB) {
+    public static boolean hasCollision(String topicA, String topicB) {
         return topicA.replace('.', '_').equals(topicB.replace('.', '_'));
     }
 
@@ -217,13 +231,14 @@ public class TopicService {
     public List<String> listUnsynchronizedTopicNames(Namespace namespace) throws ExecutionException, InterruptedException, TimeoutException {
         TopicAsyncExecutor topicAsyncExecutor = applicationContext.getBean(TopicAsyncExecutor.class,
                 Qualifiers.byName(namespace.getMetadata().getCluster()));
+        PrefixTrie<AccessControlEntry> ownedTopics = accessControlEntryService.getOwnedTopicsMatcher(namespace);
 
         return topicAsyncExecutor.listBrokerTopicNames()
                 .stream()
                 // ...that belongs to this namespace
-                .filter(topic -> isNamespaceOwnerOfTopic(namespace.getMetadata().getName(), topic))
+                .filter(topic -> !ownedTopics.findMatches(topic).isEmpty())
                 // ...and aren't in ns4kafka storage
-                .filter(topic -> findByName(namespace, topic).isEmpty())
+                .filter(topic -> topicRepository.findByName(namespace.getMetadata().getCluster(), topic).isEmpty())
                 .toList();
     }
 
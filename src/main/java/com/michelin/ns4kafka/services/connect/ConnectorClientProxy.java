@@ -1,10 +1,11 @@
 package com.michelin.ns4kafka.services.connect;
 
 import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
-import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig.ConnectConfig;
+import com.michelin.ns4kafka.config.ProxyHttpClientConfig;
 import com.michelin.ns4kafka.config.SecurityConfig;
 import com.michelin.ns4kafka.models.connect.cluster.ConnectCluster;
-import com.michelin.ns4kafka.services.ConnectClusterService;
+import com.michelin.ns4kafka.repositories.ConnectClusterRepository;
+import com.michelin.ns4kafka.services.ProxyHttpClientService;
 import com.michelin.ns4kafka.utils.EncryptionUtils;
 import com.michelin.ns4kafka.utils.exceptions.ResourceValidationException;
 import io.micronaut.core.async.publisher.Publishers;
@@ -14,17 +15,20 @@ import io.micronaut.http.HttpRequest;
 import io.micronaut.http.MutableHttpRequest;
 import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.Filter;
-import io.micronaut.http.client.ProxyHttpClient;
 import io.micronaut.http.filter.HttpServerFilter;
 import io.micronaut.http.filter.ServerFilterChain;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import org.reactivestreams.Publisher;
 
 import java.net.URI;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 @Slf4j
 @Filter(ConnectorClientProxy.PROXY_PREFIX + "/**")
@@ -40,17 +44,23 @@ public class ConnectorClientProxy implements HttpServerFilter {
     public static final String PROXY_SECRET = UUID.randomUUID().toString();
 
     @Inject
-    ProxyHttpClient client;
+    ProxyHttpClientService proxyHttpClientService;
 
     @Inject
     List<KafkaAsyncExecutorConfig> kafkaAsyncExecutorConfigs;
 
     @Inject
-    ConnectClusterService connectClusterService;
+    ConnectClusterRepository connectClusterRepository;
 
     @Inject
     SecurityConfig securityConfig;
 
+    private final Set<String> kafkaClusters = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, ConnectRoute> configRoutes = new ConcurrentHashMap<>();
+
+    private final Map<String, ConnectRoute> selfDeployedRoutes = new ConcurrentHashMap<>();
+
     /**
      * Filter requests
      * @param request The request to filter
@@ -80,37 +90,111 @@ public class ConnectorClientProxy implements HttpServerFilter {
         String kafkaCluster = request.getHeaders().get(ConnectorClientProxy.PROXY_HEADER_KAFKA_CLUSTER);
         String connectCluster = request.getHeaders().get(ConnectorClientProxy.PROXY_HEADER_CONNECT_CLUSTER);
 
-        // Get config of the kafkaCluster
-        Optional<KafkaAsyncExecutorConfig> config = kafkaAsyncExecutorConfigs.stream()
-                .filter(kafkaAsyncExecutorConfig -> kafkaAsyncExecutorConfig.getName().equals(kafkaCluster))
-                .findFirst();
-
-        if (config.isEmpty()) {
+        if (!kafkaClusters.contains(kafkaCluster)) {
             return Publishers.just(new ResourceValidationException(List.of("Kafka Cluster [" + kafkaCluster + "] not found"),null,null));
         }
 
-        Optional<ConnectCluster> connectClusterOptional = connectClusterService.findAll()
-                .stream()
-                .filter(researchConnectCluster -> researchConnectCluster.getMetadata().getName().equals(connectCluster))
-                .findFirst();
-
-        if (connectClusterOptional.isPresent()) {
-            log.debug("Self deployed Connect cluster {} found in namespace {}", connectCluster, connectClusterOptional.get().getMetadata().getNamespace());
-            return client.proxy(mutateKafkaConnectRequest(request, connectClusterOptional.get().getSpec().getUrl(),
-                    connectClusterOptional.get().getSpec().getUsername(),
-                    EncryptionUtils.decryptAES256GCM(connectClusterOptional.get().getSpec().getPassword(), securityConfig.getAes256EncryptionKey())));
+        ConnectRoute selfDeployedRoute = selfDeployedRoutes.get(routeKey(kafkaCluster, connectCluster));
+        if (selfDeployedRoute != null) {
+            log.debug("Self deployed Connect cluster {} found", connectCluster);
+            return proxyHttpClientService.proxy(selfDeployedRoute.url(), selfDeployedRoute.poolOverrides(), mutateKafkaConnectRequest(request, selfDeployedRoute.url(),
+                    selfDeployedRoute.username(), selfDeployedRoute.password()));
         }
 
-        ConnectConfig connectConfig = config.get().getConnects().get(connectCluster);
-        if (connectConfig == null) {
+        ConnectRoute configRoute = configRoutes.get(routeKey(kafkaCluster, connectCluster));
+        if (configRoute == null) {
             return Publishers.just(new ResourceValidationException(List.of("Connect cluster [" + connectCluster + "] not found"), null, null));
         }
 
         log.debug("Connect cluster {} found in Ns4Kafka configuration", connectCluster);
 
-        return client.proxy(mutateKafkaConnectRequest(request, connectConfig.getUrl(),
-                connectConfig.getBasicAuthUsername(),
-                connectConfig.getBasicAuthPassword()));
+        return proxyHttpClientService.proxy(configRoute.url(), configRoute.poolOverrides(), mutateKafkaConnectRequest(request, configRoute.url(),
+                configRoute.username(), configRoute.password()));
+    }
+
+    /**
+     * Build the routing table from the Ns4Kafka configuration and the self-deployed Connect clusters,
+     * then keep it up to date from the Connect clusters store changes
+     */
+    @PostConstruct
+    public void buildRoutingTable() {
+        kafkaAsyncExecutorConfigs.stream().forEach(config -> {
+            kafkaClusters.add(config.getName());
+            if (config.getConnects() != null) {
+                config.getConnects().forEach((name, connectConfig) -> configRoutes.put(routeKey(config.getName(), name),
+                        new ConnectRoute(connectConfig.getUrl(), connectConfig.getBasicAuthUsername(), connectConfig.getBasicAuthPassword(),
+                                new ProxyHttpClientConfig.PoolOverrides(connectConfig.getMaxConnections(),
+                                        connectConfig.getMaxPendingAcquires(), connectConfig.getAcquireTimeout()))));
+            }
+        });
+
+        connectClusterRepository.addListener((key, previous, value) -> {
+            if (previous != null) {
+                selfDeployedRoutes.remove(routeKey(previous.getMetadata().getCluster(), previous.getMetadata().getName()));
+            }
+
+            if (value != null) {
+                addSelfDeployedRoute(value);
+            }
+
+            // Release the pooled connections of a backend no longer routed to, or routed to with another pool
+            if (previous != null && (!isRouted(previous.getSpec().getUrl()) || (value != null
+                    && value.getSpec().getUrl().equals(previous.getSpec().getUrl())
+                    && !getPoolOverrides(value).equals(getPoolOverrides(previous))))) {
+                proxyHttpClientService.close(previous.getSpec().getUrl());
+            }
+        });
+        connectClusterRepository.findAll().forEach(this::addSelfDeployedRoute);
+    }
+
+    /**
+     * Add the route of a self-deployed Connect cluster, decrypting its password once
+     * A Connect cluster whose password cannot be decrypted is not routed, so it is answered as not found
+     * @param connectCluster The self-deployed Connect cluster
+     */
+    private void addSelfDeployedRoute(ConnectCluster connectCluster) {
+        String password;
+        try {
+            password = EncryptionUtils.decryptAES256GCM(connectCluster.getSpec().getPassword(), securityConfig.getAes256EncryptionKey());
+        } catch (RuntimeException e) {
+            log.error("Error decrypting the password of Connect cluster {} of Kafka cluster {}, it is not routed",
+                    connectCluster.getMetadata().getName(), connectCluster.getMetadata().getCluster(), e);
+            return;
+        }
+
+        selfDeployedRoutes.put(routeKey(connectCluster.getMetadata().getCluster(), connectCluster.getMetadata().getName()),
+                new ConnectRoute(connectCluster.getSpec().getUrl(), connectCluster.getSpec().getUsername(), password,
+                        getPoolOverrides(connectCluster)));
+    }
+
+    /**
+     * Get the pool settings of a self-deployed Connect cluster overriding the default ones
+     * @param connectCluster The self-deployed Connect cluster
+     * @return The pool overrides
+     */
+    private static ProxyHttpClientConfig.PoolOverrides getPoolOverrides(ConnectCluster connectCluster) {
+        return new ProxyHttpClientConfig.PoolOverrides(connectCluster.getSpec().getMaxConnections(),
+                connectCluster.getSpec().getMaxPendingAcquires(), connectCluster.getSpec().getAcquireTimeout());
+    }
+
+    /**
+     * Is there any route to the given Connect cluster URL
+     * @param url The Connect cluster URL
+     * @return true if there is, false otherwise
+     */
+    private boolean isRouted(String url) {
+        return Stream.concat(configRoutes.values().stream(), selfDeployedRoutes.values().stream())
+                .anyMatch(route -> route.url().equals(url));
+    }
+
+    /**
+     * Build the routing table key of a Connect cluster
+     * @param kafkaCluster The Kafka cluster
+     * @param connectCluster The Connect cluster
+     * @return The routing table key
+     */
+    private static String routeKey(String kafkaCluster, String connectCluster) {
+        return kafkaCluster + "/" + connectCluster;
     }
 
     /**
@@ -141,4 +225,13 @@ public class ConnectorClientProxy implements HttpServerFilter {
         mutableHttpRequest.getHeaders().remove(HttpHeaders.HOST);
         return mutableHttpRequest;
     }
+
+    /**
+     * Target of the requests proxied to a Connect cluster
+     * @param url The Connect cluster URL
+     * @param username The Connect cluster username
+     * @param password The decrypted Connect cluster password
+     * @param poolOverrides The pool settings of the Connect cluster overriding the default ones
+     */
+    private record ConnectRoute(String url, String username, String password, ProxyHttpClientConfig.PoolOverrides poolOverrides) {}
 }
@@ -1,33 +1,38 @@
 package com.michelin.ns4kafka.services.executors;
 
 import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorSchedulerConfig;
 import com.michelin.ns4kafka.models.AccessControlEntry;
 import com.michelin.ns4kafka.models.KafkaStream;
 import com.michelin.ns4kafka.models.Namespace;
+import com.michelin.ns4kafka.repositories.AccessControlEntryRepository;
 import com.michelin.ns4kafka.repositories.NamespaceRepository;
+import com.michelin.ns4kafka.repositories.StreamRepository;
 import com.michelin.ns4kafka.repositories.kafka.KafkaStoreException;
 import com.michelin.ns4kafka.services.AccessControlEntryService;
 import com.michelin.ns4kafka.services.ConnectorService;
 import com.michelin.ns4kafka.services.StreamService;
 import io.micronaut.context.annotation.EachBean;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.Admin;
-import org.apache.kafka.common.acl.AclBinding;
-import org.apache.kafka.common.acl.AclBindingFilter;
-import org.apache.kafka.common.acl.AclOperation;
-import org.apache.kafka.common.acl.AclPermissionType;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.acl.*;
 import org.apache.kafka.common.resource.PatternType;
 import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourcePatternFilter;
 import org.apache.kafka.common.resource.ResourceType;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.michelin.ns4kafka.models.AccessControlEntry.ResourceType.*;
@@ -39,6 +44,8 @@ import static com.michelin.ns4kafka.services.AccessControlEntryService.PUBLIC_GR
 public class AccessControlEntryAsyncExecutor {
     private static final String USER_PRINCIPAL = "User:";
 
+    private static final List<ResourceType> MANAGED_RESOURCE_TYPES = List.of(ResourceType.TOPIC, ResourceType.GROUP, ResourceType.TRANSACTIONAL_ID);
+
     private final KafkaAsyncExecutorConfig kafkaAsyncExecutorConfig;
 
     @Inject
@@ -53,16 +60,66 @@ public class AccessControlEntryAsyncExecutor {
     @Inject
     NamespaceRepository namespaceRepository;
 
+    @Inject
+    AccessControlEntryRepository accessControlEntryRepository;
+
+    @Inject
+    StreamRepository streamRepository;
+
+    @Inject
+    KafkaAsyncExecutorSchedulerConfig kafkaAsyncExecutorSchedulerConfig;
+
+    final Set<String> changedNamespaces = ConcurrentHashMap.newKeySet();
+
+    volatile Instant nextDriftDetection = Instant.MIN;
+
     public AccessControlEntryAsyncExecutor(KafkaAsyncExecutorConfig kafkaAsyncExecutorConfig) {
         this.kafkaAsyncExecutorConfig = kafkaAsyncExecutorConfig;
     }
 
+    /**
+     * Record the namespaces of the cluster whose ACLs or Kafka Streams changed, to synchronize only their Kafka users on the next run
+     * Changes of public ACLs or of namespaces impact the whole cluster and bring the next full synchronization forward
+     * ACLs written again with the same spec are ignored
+     */
+    @PostConstruct
+    void listenChanges() {
+        accessControlEntryRepository.addListener((key, previous, value) -> Stream.of(previous, value)
+                .filter(accessControlEntry -> accessControlEntry != null
+                        && kafkaAsyncExecutorConfig.getName().equals(accessControlEntry.getMetadata().getCluster())
+                        && (previous == null || value == null || !Objects.equals(previous.getSpec(), value.getSpec())))
+                .forEach(accessControlEntry -> {
+                    if (PUBLIC_GRANTED_TO.equals(accessControlEntry.getSpec().getGrantedTo())) {
+                        nextDriftDetection = Instant.MIN;
+                    } else {
+                        changedNamespaces.add(accessControlEntry.getSpec().getGrantedTo());
+                    }
+                }));
+
+        streamRepository.addListener((key, previous, value) -> Stream.of(previous, value)
+                .filter(kafkaStream -> kafkaStream != null
+                        && kafkaAsyncExecutorConfig.getName().equals(kafkaStream.getMetadata().getCluster()))
+                .forEach(kafkaStream -> changedNamespaces.add(kafkaStream.getMetadata().getNamespace())));
+
+        namespaceRepository.addListener((key, previous, value) -> {
+            if (Stream.of(previous, value).anyMatch(namespace -> namespace != null
+                    && kafkaAsyncExecutorConfig.getName().equals(namespace.getMetadata().getCluster()))) {
+                nextDriftDetection = Instant.MIN;
+            }
+        });
+    }
+
     /**
      * Run the ACL executor
+     * All the ACLs are synchronized once per drift detection interval, only the ones of the changed namespaces in between
      */
     public void run() {
         if (this.kafkaAsyncExecutorConfig.isManageAcls()) {
-            synchronizeACLs();
+            if (Instant.now().isAfter(nextDriftDetection)) {
+                synchronizeACLs();
+            } else if (!changedNamespaces.isEmpty()) {
+                synchronizeChangedACLs();
+            }
         }
     }
 
@@ -71,65 +128,120 @@ public class AccessControlEntryAsyncExecutor {
      */
     private void synchronizeACLs() {
         log.debug("Starting ACLs collection for cluster {}", kafkaAsyncExecutorConfig.getName());
+        changedNamespaces.clear();
 
         try {
             // List ACLs from broker
             List<AclBinding> brokerACLs = collectBrokerACLs(true);
 
             // List ACLs from NS4Kafka
-            List<AclBinding> ns4kafkaACLs = collectNs4KafkaACLs();
-
-            List<AclBinding> toCreate = ns4kafkaACLs.stream()
-                    .filter(aclBinding -> !brokerACLs.contains(aclBinding))
-                    .toList();
-
-            List<AclBinding> toDelete = brokerACLs.stream()
-                    .filter(aclBinding -> !ns4kafkaACLs.contains(aclBinding))
-                    .toList();
+            List<AclBinding> ns4kafkaACLs = collectNs4KafkaACLs(namespaceRepository.findAllForCluster(kafkaAsyncExecutorConfig.getName()));
 
-            if (log.isDebugEnabled()) {
-                brokerACLs.stream()
-                        .filter(ns4kafkaACLs::contains)
-                        .forEach(aclBinding -> log.debug("ACLs found in broker and Ns4Kafka: " + aclBinding.toString()));
+            reconcileACLs(brokerACLs, ns4kafkaACLs);
+            nextDriftDetection = Instant.now().plus(kafkaAsyncExecutorSchedulerConfig.getDriftDetectionInterval());
+        } catch (KafkaStoreException | ExecutionException | TimeoutException e) {
+            log.error("An error occurred collecting ACLs from broker during ACLs synchronization", e);
+        } catch (InterruptedException e) {
+            log.error("An error occurred during ACLs synchronization", e);
+            Thread.currentThread().interrupt();
+        }
+    }
 
-                toCreate.forEach(aclBinding -> log.debug("ACLs to create: " + aclBinding.toString()));
+    /**
+     * Synchronize the ACLs of the Kafka users of the namespaces changed since the last run,
+     * describing only the ACLs of these users on the broker
+     * The changed namespaces are kept for the next run if the synchronization fails
+     */
+    private void synchronizeChangedACLs() {
+        Set<String> namespaceNames = new HashSet<>(changedNamespaces);
+        changedNamespaces.removeAll(namespaceNames);
+        log.debug("Starting ACLs synchronization of {} changed namespaces for cluster {}", namespaceNames.size(), kafkaAsyncExecutorConfig.getName());
 
-                if (!kafkaAsyncExecutorConfig.isDropUnsyncAcls() && !toDelete.isEmpty()) {
-                    log.debug("The ACL drop is disabled. The following ACLs won't be deleted.");
-                }
+        try {
+            List<Namespace> namespaces = namespaceRepository.findAllForCluster(kafkaAsyncExecutorConfig.getName());
 
-                toDelete.forEach(aclBinding -> log.debug("ACLs to delete: " + aclBinding.toString()));
-            }
+            // Several namespaces can share a Kafka user, so all of them are collected
+            Set<String> principals = namespaces.stream()
+                    .filter(namespace -> namespaceNames.contains(namespace.getMetadata().getName()))
+                    .map(namespace -> USER_PRINCIPAL + namespace.getSpec().getKafkaUser())
+                    .collect(Collectors.toSet());
 
-            // Execute toAdd list BEFORE toDelete list to avoid breaking ACL on connected user
-            // such as deleting <LITERAL "toto.titi"> only to add one second later <PREFIX "toto.">
-            createACLs(toCreate);
+            List<AclBinding> ns4kafkaACLs = collectNs4KafkaACLs(namespaces.stream()
+                    .filter(namespace -> principals.contains(USER_PRINCIPAL + namespace.getSpec().getKafkaUser()))
+                    .toList())
+                    .stream()
+                    .filter(aclBinding -> principals.contains(aclBinding.entry().principal()))
+                    .toList();
 
-            if (kafkaAsyncExecutorConfig.isDropUnsyncAcls()) {
-                deleteACLs(toDelete);
-            }
+            reconcileACLs(collectBrokerACLs(principals), ns4kafkaACLs);
         } catch (KafkaStoreException | ExecutionException | TimeoutException e) {
+            changedNamespaces.addAll(namespaceNames);
             log.error("An error occurred collecting ACLs from broker during ACLs synchronization", e);
         } catch (InterruptedException e) {
+            changedNamespaces.addAll(namespaceNames);
             log.error("An error occurred during ACLs synchronization", e);
             Thread.currentThread().interrupt();
         }
     }
 
+    /**
+     * Create and delete the broker ACLs to match the Ns4Kafka ones
+     * @param brokerACLs The broker ACLs
+     * @param ns4kafkaACLs The Ns4Kafka ACLs
+     */
+    private void reconcileACLs(List<AclBinding> brokerACLs, List<AclBinding> ns4kafkaACLs) {
+        Set<AclBinding> brokerACLSet = new HashSet<>(brokerACLs);
+        Set<AclBinding> ns4kafkaACLSet = new LinkedHashSet<>(ns4kafkaACLs);
+
+        List<AclBinding> toCreate = ns4kafkaACLSet.stream()
+                .filter(aclBinding -> !brokerACLSet.contains(aclBinding))
+                .toList();
+
+        List<AclBinding> toDelete = brokerACLs.stream()
+                .filter(aclBinding -> !ns4kafkaACLSet.contains(aclBinding))
+                .toList();
+
+        if (log.isDebugEnabled()) {
+            brokerACLs.stream()
+                    .filter(ns4kafkaACLSet::contains)
+                    .forEach(aclBinding -> log.debug("ACLs found in broker and Ns4Kafka: " + aclBinding.toString()));
+
+            toCreate.forEach(aclBinding -> log.debug("ACLs to create: " + aclBinding.toString()));
+
+            if (!kafkaAsyncExecutorConfig.isDropUnsyncAcls() && !toDelete.isEmpty()) {
+                log.debug("The ACL drop is disabled. The following ACLs won't be deleted.");
+            }
+
+            toDelete.forEach(aclBinding -> log.debug("ACLs to delete: " + aclBinding.toString()));
+        }
+
+        // Execute toAdd list BEFORE toDelete list to avoid breaking ACL on connected user
+        // such as deleting <LITERAL "toto.titi"> only to add one second later <PREFIX "toto.">
+        createACLs(toCreate);
+
+        if (kafkaAsyncExecutorConfig.isDropUnsyncAcls()) {
+            deleteACLs(toDelete);
+        }
+    }
+
     /**
      * Collect the ACLs from Ns4Kafka.
      * Whenever the permission is OWNER, create 2 entries (one READ and one WRITE)
      * This is necessary to translate ns4kafka grouped AccessControlEntry (OWNER, WRITE, READ)
      * into Kafka Atomic ACLs (READ and WRITE)
+     * @param namespaces The namespaces to collect the ACLs of
      * @return A list of ACLs
      */
-    private List<AclBinding> collectNs4KafkaACLs() {
-        List<Namespace> namespaces = namespaceRepository.findAllForCluster(kafkaAsyncExecutorConfig.getName());
+    private List<AclBinding> collectNs4KafkaACLs(List<Namespace> namespaces) {
+        // Find the ACLs granted to each namespace once, for both the topic/group and the connect conversions
+        Map<String, List<AccessControlEntry>> grantedACLs = namespaces.stream()
+                .collect(Collectors.toMap(namespace -> namespace.getMetadata().getName(),
+                        namespace -> accessControlEntryService.findAllGrantedToNamespace(namespace), (a1, a2) -> a1));
 
         // Converts topic, group and transaction Ns4kafka ACLs to topic and group Kafka AclBindings
         Stream<AclBinding> aclBindingFromACLs = namespaces
                 .stream()
-                .flatMap(namespace -> accessControlEntryService.findAllGrantedToNamespace(namespace)
+                .flatMap(namespace -> grantedACLs.get(namespace.getMetadata().getName())
                         .stream()
                         .filter(accessControlEntry -> (List.of(TOPIC, GROUP, TRANSACTIONAL_ID).contains(accessControlEntry.getSpec().getResourceType())))
                         .flatMap(accessControlEntry -> buildAclBindingsFromAccessControlEntry(accessControlEntry, namespace.getSpec().getKafkaUser())
@@ -145,7 +257,7 @@ public class AccessControlEntryAsyncExecutor {
 
         // Converts connect ACLs to group AclBindings (connect-)
         Stream<AclBinding> aclBindingFromConnect = namespaces.stream()
-                .flatMap(namespace -> accessControlEntryService.findAllGrantedToNamespace(namespace)
+                .flatMap(namespace -> grantedACLs.get(namespace.getMetadata().getName())
                         .stream()
                         .filter(accessControlEntry -> accessControlEntry.getSpec().getResourceType() == AccessControlEntry.ResourceType.CONNECT)
                         .filter(accessControlEntry -> accessControlEntry.getSpec().getPermission() == AccessControlEntry.Permission.OWNER)
@@ -166,6 +278,7 @@ public class AccessControlEntryAsyncExecutor {
 
     /**
      * Collect the ACLs from broker
+     * The ACLs are described per managed resource type, and per managed principal when enabled
      *
      * @param managedUsersOnly Only retrieve ACLs from Kafka user managed by Ns4Kafka or not ?
      * @return A list of ACLs
@@ -174,14 +287,27 @@ public class AccessControlEntryAsyncExecutor {
      * @throws TimeoutException     Any timeout exception during ACLs description
      */
     private List<AclBinding> collectBrokerACLs(boolean managedUsersOnly) throws ExecutionException, InterruptedException, TimeoutException {
-        List<ResourceType> validResourceTypes = List.of(ResourceType.TOPIC, ResourceType.GROUP, ResourceType.TRANSACTIONAL_ID);
+        Set<String> managedUsers = Set.of();
+        if (managedUsersOnly) {
+            // we first collect the list of Users managed in ns4kafka
+            managedUsers = namespaceRepository.findAllForCluster(kafkaAsyncExecutorConfig.getName())
+                    .stream()
+                    //1-N Namespace to KafkaUser
+                    .map(namespace -> USER_PRINCIPAL + namespace.getSpec().getKafkaUser())
+                    .collect(Collectors.toSet());
+        }
 
-        List<AclBinding> userACLs = getAdminClient()
-                .describeAcls(AclBindingFilter.ANY)
-                .values().get(10, TimeUnit.SECONDS)
-                .stream()
-                .filter(aclBinding -> validResourceTypes.contains(aclBinding.pattern().resourceType()))
-                .toList();
+        List<AclBinding> userACLs;
+        if (managedUsersOnly && kafkaAsyncExecutorConfig.isDescribeAclsByPrincipal()) {
+            Set<String> principals = new HashSet<>(managedUsers);
+            principals.add(PUBLIC_GRANTED_TO);
+            userACLs = collectBrokerACLs(principals);
+        } else {
+            userACLs = describeBrokerACLs(MANAGED_RESOURCE_TYPES.stream()
+                    .map(resourceType -> new AclBindingFilter(new ResourcePatternFilter(resourceType, null, PatternType.ANY),
+                            AccessControlEntryFilter.ANY))
+                    .toList());
+        }
 
         log.debug("{} ACLs found on broker", userACLs.size());
         if (log.isTraceEnabled()) {
@@ -189,18 +315,12 @@ public class AccessControlEntryAsyncExecutor {
         }
 
         if (managedUsersOnly) {
-            // we first collect the list of Users managed in ns4kafka
-            List<String> managedUsers = namespaceRepository.findAllForCluster(kafkaAsyncExecutorConfig.getName())
-                    .stream()
-                    //1-N Namespace to KafkaUser
-                    .flatMap(namespace -> Stream.of(USER_PRINCIPAL + namespace.getSpec().getKafkaUser()))
-                    .toList();
-
             // And then filter out the AclBinding to retain only those matching
             // or having principal equal to wildcard (public).
+            Set<String> managedPrincipals = managedUsers;
             userACLs = userACLs
                     .stream()
-                    .filter(aclBinding -> managedUsers.contains(aclBinding.entry().principal()) ||
+                    .filter(aclBinding -> managedPrincipals.contains(aclBinding.entry().principal()) ||
                             aclBinding.entry().principal().equals(PUBLIC_GRANTED_TO))
                     .toList();
             log.debug("ACLs found on Broker (managed scope) : {}", userACLs.size());
@@ -213,6 +333,44 @@ public class AccessControlEntryAsyncExecutor {
         return userACLs;
     }
 
+    /**
+     * Collect the ACLs of the given principals from broker
+     * @param principals The principals
+     * @return A list of ACLs
+     * @throws ExecutionException   Any execution exception during ACLs description
+     * @throws InterruptedException Any interrupted exception during ACLs description
+     * @throws TimeoutException     Any timeout exception during ACLs description
+     */
+    private List<AclBinding> collectBrokerACLs(Set<String> principals) throws ExecutionException, InterruptedException, TimeoutException {
+        return describeBrokerACLs(MANAGED_RESOURCE_TYPES.stream()
+                .flatMap(resourceType -> principals.stream()
+                        .map(principal -> new AclBindingFilter(new ResourcePatternFilter(resourceType, null, PatternType.ANY),
+                                new AccessControlEntryFilter(principal, null, AclOperation.ANY, AclPermissionType.ANY))))
+                .toList());
+    }
+
+    /**
+     * Describe the broker ACLs matching the given filters, sending all the requests before waiting for their results
+     * @param filters The filters
+     * @return A list of ACLs
+     * @throws ExecutionException   Any execution exception during ACLs description
+     * @throws InterruptedException Any interrupted exception during ACLs description
+     * @throws TimeoutException     Any timeout exception during ACLs description
+     */
+    private List<AclBinding> describeBrokerACLs(List<AclBindingFilter> filters) throws ExecutionException, InterruptedException, TimeoutException {
+        List<KafkaFuture<Collection<AclBinding>>> results = filters.stream()
+                .map(filter -> getAdminClient().describeAcls(filter).values())
+                .toList();
+
+        List<AclBinding> aclBindings = new ArrayList<>();
+        for (KafkaFuture<Collection<AclBinding>> result : results) {
+            aclBindings.addAll(result.get(10, TimeUnit.SECONDS));
+        }
+
+        log.debug("{} ACLs fetched from broker on {} with {} filters", aclBindings.size(), kafkaAsyncExecutorConfig.getName(), filters.size());
+        return aclBindings;
+    }
+
     /**
      * Convert Ns4Kafka topic/group ACL into Kafka ACL
      * @param accessControlEntry The Ns4Kafka ACL
@@ -1,25 +1,33 @@
 package com.michelin.ns4kafka.services.executors;
 
 import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorSchedulerConfig;
 import com.michelin.ns4kafka.models.ObjectMeta;
 import com.michelin.ns4kafka.models.connector.Connector;
 import com.michelin.ns4kafka.repositories.ConnectorRepository;
 import com.michelin.ns4kafka.services.ConnectClusterService;
+import com.michelin.ns4kafka.services.ConnectorService;
 import com.michelin.ns4kafka.services.connect.ConnectorClientProxy;
 import com.michelin.ns4kafka.services.connect.client.ConnectorClient;
 import com.michelin.ns4kafka.services.connect.client.entities.ConnectorSpecs;
+import com.michelin.ns4kafka.services.connect.client.entities.ConnectorStateInfo;
 import com.michelin.ns4kafka.services.connect.client.entities.ConnectorStatus;
 import io.micronaut.context.annotation.EachBean;
+import io.micronaut.http.HttpStatus;
 import io.micronaut.http.client.exceptions.HttpClientResponseException;
 import io.micronaut.http.client.exceptions.ReadTimeoutException;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
-import io.reactivex.rxjava3.internal.observers.ConsumerSingleObserver;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
-import java.util.Map;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Slf4j
@@ -29,13 +37,23 @@ public class ConnectorAsyncExecutor {
     private final KafkaAsyncExecutorConfig kafkaAsyncExecutorConfig;
 
     @Inject
-    private ConnectorRepository connectorRepository;
+    ConnectorRepository connectorRepository;
 
     @Inject
-    private ConnectorClient connectorClient;
+    ConnectorClient connectorClient;
 
     @Inject
-    private ConnectClusterService connectClusterService;
+    ConnectClusterService connectClusterService;
+
+    @Inject
+    ConnectorService connectorService;
+
+    @Inject
+    KafkaAsyncExecutorSchedulerConfig kafkaAsyncExecutorSchedulerConfig;
+
+    private final Map<String, Map<String, Connector.ConnectorStatus>> connectorStatuses = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<String>> outOfSyncConnectorNames = new ConcurrentHashMap<>();
 
     public ConnectorAsyncExecutor(KafkaAsyncExecutorConfig kafkaAsyncExecutorConfig) {
         this.kafkaAsyncExecutorConfig = kafkaAsyncExecutorConfig;
@@ -43,17 +61,25 @@ public class ConnectorAsyncExecutor {
 
     /**
      * Start connector synchronization
+     * Wait for all the deployments to complete, so the next run never overlaps this one
+     * The deployments still running after the executor timeout are cancelled
      */
     public void run() {
         if (kafkaAsyncExecutorConfig.isManageConnectors()) {
-            synchronizeConnectors();
+            synchronizeConnectors()
+                    .timeout(kafkaAsyncExecutorSchedulerConfig.getExecutorTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .doOnError(error -> log.error("Connectors synchronization for Kafka cluster {} did not complete within {}",
+                            kafkaAsyncExecutorConfig.getName(), kafkaAsyncExecutorSchedulerConfig.getExecutorTimeout()))
+                    .onErrorComplete()
+                    .blockingAwait();
         }
     }
 
     /**
      * For each connect cluster, start the synchronization of connectors
+     * @return A completable completed when all the connect clusters are synchronized
      */
-    private void synchronizeConnectors() {
+    private Completable synchronizeConnectors() {
         log.debug("Starting Connect cluster collection for cluster {}", kafkaAsyncExecutorConfig.getName());
 
         List<String> selfDeclaredConnectClusterNames = connectClusterService.findAll()
@@ -61,45 +87,32 @@ public class ConnectorAsyncExecutor {
                 .filter(connectCluster -> connectCluster.getMetadata().getCluster().equals(kafkaAsyncExecutorConfig.getName()))
                 .map(connectCluster -> connectCluster.getMetadata().getName()).toList();
 
-        Stream.concat(kafkaAsyncExecutorConfig.getConnects().keySet().stream(), selfDeclaredConnectClusterNames.stream())
-                        .forEach(this::synchronizeConnectCluster);
+        return Flowable.fromStream(Stream.concat(kafkaAsyncExecutorConfig.getConnects().keySet().stream(), selfDeclaredConnectClusterNames.stream()))
+                .flatMapCompletable(this::synchronizeConnectCluster);
     }
 
     /**
      * Synchronize connectors of given connect cluster
+     * The connectors are deployed with a bounded concurrency, so a restarted Connect cluster is not flooded
+     * The connector plugin catalogue of the connect cluster is refreshed along
      * @param connectCluster The connect cluster
+     * @return A completable completed when all the connectors are deployed
      */
-    private void synchronizeConnectCluster(String connectCluster) {
+    private Completable synchronizeConnectCluster(String connectCluster) {
         log.debug("Starting connector collection for Kafka cluster {} and Connect cluster {}",
                 kafkaAsyncExecutorConfig.getName(), connectCluster);
 
-        collectBrokerConnectors(connectCluster)
-                .subscribe(new ConsumerSingleObserver<>(brokerConnectors -> {
-                    List<Connector> ns4kafkaConnectors = collectNs4KafkaConnectors(connectCluster);
-
-                    List<Connector> toCreate = ns4kafkaConnectors.stream()
-                            .filter(connector -> brokerConnectors.stream().noneMatch(connector1 -> connector1.getMetadata().getName().equals(connector.getMetadata().getName())))
-                            .toList();
-
-                    List<Connector> toUpdate = ns4kafkaConnectors.stream()
-                            .filter(connector -> brokerConnectors.stream()
-                                    .anyMatch(connector1 -> {
-                                        if (connector1.getMetadata().getName().equals(connector.getMetadata().getName())) {
-                                            return !connectorsAreSame(connector, connector1);
-                                        }
-                                        return false;
-                                    }))
-                            .toList();
+        Completable pluginsRefresh = connectorService.refreshConnectorPlugins(kafkaAsyncExecutorConfig.getName(), connectCluster)
+                .ignoreElement()
+                .doOnError(error -> log.warn("Error refreshing the connector plugins of Kafka cluster {} and Connect cluster {}",
+                        kafkaAsyncExecutorConfig.getName(), connectCluster, error))
+                .onErrorComplete();
 
-                    if (log.isDebugEnabled()) {
-                        toCreate.forEach(connector -> log.debug("Connector to create: " + connector.getMetadata().getName()));
-                        toUpdate.forEach(connector -> log.debug("Connector to update: " + connector.getMetadata().getName()));
-                    }
-
-                    toCreate.forEach(this::deployConnector);
-                    toUpdate.forEach(this::deployConnector);
-                },
-                error -> {
+        Completable connectorsDeployment = collectOutOfSyncConnectors(connectCluster)
+                .flatMapCompletable(outOfSyncConnectors -> Flowable.fromIterable(outOfSyncConnectors)
+                        .flatMapCompletable(this::deployConnector, false,
+                                Math.max(1, kafkaAsyncExecutorConfig.getConnectorDeployConcurrency())))
+                .doOnError(error -> {
                     if (error instanceof HttpClientResponseException) {
                         log.error("Invalid HTTP response {} ({}) during connectors synchronization for Kafka cluster {} and Connect cluster {}",
                                 ((HttpClientResponseException) error).getStatus(), ((HttpClientResponseException) error).getResponse().getStatus(),
@@ -113,7 +126,10 @@ public class ConnectorAsyncExecutor {
                                 kafkaAsyncExecutorConfig.getName(),
                                 connectCluster, error);
                     }
-                }));
+                })
+                .onErrorComplete();
+
+        return Completable.mergeArray(connectorsDeployment, pluginsRefresh);
     }
 
     /**
@@ -126,6 +142,14 @@ public class ConnectorAsyncExecutor {
                 .map(connectors -> {
                     log.debug("Connectors found on Connect cluster {} of Kafka cluster {}: {}", connectCluster, kafkaAsyncExecutorConfig.getName(), connectors.size());
 
+                    // The statuses come with the listing, keep them to serve them without requesting Connect
+                    Date refreshTime = Date.from(Instant.now());
+                    connectorStatuses.put(connectCluster, connectors.values()
+                            .stream()
+                            .filter(connectorStatus -> connectorStatus.getStatus() != null)
+                            .collect(Collectors.toMap(connectorStatus -> connectorStatus.getInfo().name(),
+                                    connectorStatus -> buildConnectorStatus(connectorStatus.getStatus(), refreshTime), (s1, s2) -> s2)));
+
                     return connectors
                             .values()
                             .stream()
@@ -134,6 +158,61 @@ public class ConnectorAsyncExecutor {
                 });
     }
 
+    /**
+     * Get the status of a connector cached at the last listing of its connect cluster
+     * @param connectCluster The connect cluster
+     * @param connector The connector name
+     * @return The connector status, whose last update time is the time of the listing
+     */
+    public Optional<Connector.ConnectorStatus> getCachedStatus(String connectCluster, String connector) {
+        return Optional.ofNullable(connectorStatuses.getOrDefault(connectCluster, Map.of()).get(connector));
+    }
+
+    /**
+     * Is a connector out of sync at the last synchronization of its connect cluster
+     * @param connectCluster The connect cluster
+     * @param connector The connector name
+     * @return true if the connector was to create or update, false otherwise
+     */
+    public boolean isCachedOutOfSync(String connectCluster, String connector) {
+        return outOfSyncConnectorNames.getOrDefault(connectCluster, Set.of()).contains(connector);
+    }
+
+    /**
+     * Build a connector status from a given Connect state
+     * @param connectorStateInfo The Connect state
+     * @param refreshTime The time the state was collected
+     * @return The built connector status
+     */
+    private Connector.ConnectorStatus buildConnectorStatus(ConnectorStateInfo connectorStateInfo, Date refreshTime) {
+        return Connector.ConnectorStatus.builder()
+                .state(connectorStateInfo.connector() != null ? toTaskState(connectorStateInfo.connector().state()) : null)
+                .worker_id(connectorStateInfo.connector() != null ? connectorStateInfo.connector().workerId() : null)
+                .tasks(connectorStateInfo.tasks() == null ? List.of() : connectorStateInfo.tasks()
+                        .stream()
+                        .map(taskState -> Connector.TaskStatus.builder()
+                                .id(String.valueOf(taskState.id()))
+                                .state(toTaskState(taskState.state()))
+                                .trace(taskState.trace())
+                                .worker_id(taskState.workerId())
+                                .build())
+                        .toList())
+                .lastUpdateTime(refreshTime)
+                .build();
+    }
+
+    /**
+     * Convert a Connect state, ignoring the ones unknown from Ns4Kafka
+     * @param state The Connect state
+     * @return The task state
+     */
+    private Connector.TaskState toTaskState(String state) {
+        return Arrays.stream(Connector.TaskState.values())
+                .filter(taskState -> taskState.name().equals(state))
+                .findFirst()
+                .orElse(null);
+    }
+
     /**
      * Build a connector from a given connector status
      * @param connectorStatus The connector status
@@ -168,36 +247,79 @@ public class ConnectorAsyncExecutor {
     }
 
     /**
-     * Check if both given connectors are equal
-     * @param expected The first connector
-     * @param actual The second connector
-     * @return true it they are, false otherwise
+     * Collect the Ns4Kafka connectors of the given connect cluster to create or update
+     * The deployed configurations are looked up by connector name and compared to the applied ones,
+     * and the out of sync connectors are kept to serve them without requesting Connect
+     * @param connectCluster The connect cluster
+     * @return A list of connectors
      */
-    private boolean connectorsAreSame(Connector expected, Connector actual) {
-        Map<String, String> expectedMap = expected.getSpec().getConfig();
-        Map<String, String> actualMap = actual.getSpec().getConfig();
+    private Single<List<Connector>> collectOutOfSyncConnectors(String connectCluster) {
+        return collectBrokerConnectors(connectCluster)
+                .map(brokerConnectors -> {
+                    Map<String, Map<String, String>> brokerConfigs = brokerConnectors.stream()
+                            .collect(Collectors.toMap(connector -> connector.getMetadata().getName(),
+                                    connector -> getConfig(connector), (c1, c2) -> c2));
 
-        if (expectedMap.size() != actualMap.size()) {
-            return false;
-        }
+                    List<Connector> outOfSyncConnectors = collectNs4KafkaConnectors(connectCluster)
+                            .stream()
+                            .filter(connector -> !getConfig(connector).equals(brokerConfigs.get(connector.getMetadata().getName())))
+                            .toList();
 
-        return expectedMap.entrySet()
-                .stream()
-                .allMatch(e -> (e.getValue() == null && actualMap.get(e.getKey()) == null)
-                        || (e.getValue() != null && e.getValue().equals(actualMap.get(e.getKey()))));
+                    if (log.isDebugEnabled()) {
+                        outOfSyncConnectors.forEach(connector -> log.debug((brokerConfigs.containsKey(connector.getMetadata().getName()) ?
+                                "Connector to update: " : "Connector to create: ") + connector.getMetadata().getName()));
+                    }
+
+                    outOfSyncConnectorNames.put(connectCluster, outOfSyncConnectors.stream()
+                            .map(connector -> connector.getMetadata().getName())
+                            .collect(Collectors.toUnmodifiableSet()));
+                    return outOfSyncConnectors;
+                });
+    }
+
+    /**
+     * Get the configuration of a connector, a missing one being empty
+     * @param connector The connector
+     * @return The configuration
+     */
+    private Map<String, String> getConfig(Connector connector) {
+        return connector.getSpec().getConfig() == null ? Map.of() : connector.getSpec().getConfig();
     }
 
     /**
      * Deploy a given connector to associated connect cluster
+     * Retry with an exponential backoff while the Connect cluster answers 409 (rebalancing) or 5xx
      * @param connector The connector to deploy
+     * @return A completable completed when the connector is deployed or its deployment failed
      */
-    private void deployConnector(Connector connector) {
-        connectorClient.createOrUpdate(ConnectorClientProxy.PROXY_SECRET, kafkaAsyncExecutorConfig.getName(),
+    private Completable deployConnector(Connector connector) {
+        return connectorClient.createOrUpdate(ConnectorClientProxy.PROXY_SECRET, kafkaAsyncExecutorConfig.getName(),
                 connector.getSpec().getConnectCluster(), connector.getMetadata().getName(),
                         ConnectorSpecs.builder().config(connector.getSpec().getConfig()).build())
-                .subscribe(new ConsumerSingleObserver<>(httpResponse -> log.info("Success deploying Connector [{}] on Kafka [{}] Connect [{}]",
-                        connector.getMetadata().getName(), kafkaAsyncExecutorConfig.getName(), connector.getSpec().getConnectCluster()),
-                        httpError -> log.error(String.format("Error deploying Connector [%s] on Kafka [%s] Connect [%s]",
-                                connector.getMetadata().getName(), kafkaAsyncExecutorConfig.getName(), connector.getSpec().getConnectCluster()))));
+                .retryWhen(errors -> errors
+                        .zipWith(Flowable.range(1, Integer.MAX_VALUE), (error, attempt) -> {
+                            if (attempt > kafkaAsyncExecutorConfig.getConnectorDeployMaxRetries() || !isRetryable(error)) {
+                                throw error;
+                            }
+                            return attempt;
+                        })
+                        .flatMap(attempt -> Flowable.timer(kafkaAsyncExecutorConfig.getConnectorDeployRetryBackoff().toMillis() << (attempt - 1),
+                                TimeUnit.MILLISECONDS)))
+                .doOnSuccess(httpResponse -> log.info("Success deploying Connector [{}] on Kafka [{}] Connect [{}]",
+                        connector.getMetadata().getName(), kafkaAsyncExecutorConfig.getName(), connector.getSpec().getConnectCluster()))
+                .doOnError(httpError -> log.error(String.format("Error deploying Connector [%s] on Kafka [%s] Connect [%s]",
+                        connector.getMetadata().getName(), kafkaAsyncExecutorConfig.getName(), connector.getSpec().getConnectCluster())))
+                .ignoreElement()
+                .onErrorComplete();
+    }
+
+    /**
+     * Is the deployment error worth a retry
+     * @param error The error
+     * @return true if the Connect cluster is rebalancing or failing, false otherwise
+     */
+    private boolean isRetryable(Throwable error) {
+        return error instanceof HttpClientResponseException httpError
+                && (httpError.getStatus() == HttpStatus.CONFLICT || httpError.getStatus().getCode() >= 500);
     }
 }
@@ -1,13 +1,22 @@
 package com.michelin.ns4kafka.services.executors;
 
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorSchedulerConfig;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.inject.qualifiers.Qualifiers;
 import io.micronaut.runtime.event.ApplicationStartupEvent;
 import io.micronaut.runtime.event.annotation.EventListener;
 import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 
@@ -15,19 +24,41 @@ import java.util.concurrent.atomic.AtomicBoolean;
 @Singleton
 public class KafkaAsyncExecutorScheduler {
     @Inject
-    List<TopicAsyncExecutor> topicAsyncExecutors;
+    ApplicationContext applicationContext;
 
     @Inject
-    List<AccessControlEntryAsyncExecutor> accessControlEntryAsyncExecutors;
+    List<KafkaAsyncExecutorConfig> kafkaAsyncExecutorConfigs;
 
     @Inject
-    List<ConnectorAsyncExecutor> connectorAsyncExecutors;
-
-    @Inject
-    List<UserAsyncExecutor> userAsyncExecutors;
+    KafkaAsyncExecutorSchedulerConfig kafkaAsyncExecutorSchedulerConfig;
 
     private final AtomicBoolean ready = new AtomicBoolean(false);
 
+    private final Map<String, AtomicBoolean> inFlightClusters = new ConcurrentHashMap<>();
+
+    final Map<String, ExecutorService> taskExecutorServices = new ConcurrentHashMap<>();
+
+    private ExecutorService clusterExecutorService;
+
+    /**
+     * Create the pool running the clusters synchronizations
+     * It runs the sequence of executors of each cluster, while the executors themselves run on a worker of their cluster,
+     * so the other clusters do not wait for a hung executor once its timeout is reached
+     */
+    @PostConstruct
+    void init() {
+        clusterExecutorService = Executors.newFixedThreadPool(Math.max(1, kafkaAsyncExecutorSchedulerConfig.getParallelism()));
+    }
+
+    /**
+     * Stop the running synchronizations
+     */
+    @PreDestroy
+    void close() {
+        clusterExecutorService.shutdownNow();
+        taskExecutorServices.values().forEach(ExecutorService::shutdownNow);
+    }
+
     /**
      * Register when the application is ready
      * @param event The application start event
@@ -39,16 +70,124 @@ public class KafkaAsyncExecutorScheduler {
 
     /**
      * Schedule resource synchronization
+     * Each cluster is synchronized concurrently, a cluster still synchronizing from a previous run is skipped,
+     * as well as a cluster whose timed out executor is still running on its abandoned worker
      */
     @Scheduled(initialDelay = "12s", fixedDelay = "20s")
     void schedule(){
         if (ready.get()) {
-            topicAsyncExecutors.forEach(TopicAsyncExecutor::run);
-            accessControlEntryAsyncExecutors.forEach(AccessControlEntryAsyncExecutor::run);
-            connectorAsyncExecutors.forEach(ConnectorAsyncExecutor::run);
-            userAsyncExecutors.forEach(UserAsyncExecutor::run);
+            kafkaAsyncExecutorConfigs.forEach(config -> {
+                AtomicBoolean inFlight = inFlightClusters.computeIfAbsent(config.getName(), k -> new AtomicBoolean(false));
+                releaseTerminatedWorker(config.getName(), inFlight);
+                if (!inFlight.compareAndSet(false, true)) {
+                    log.warn("Synchronization of cluster {} skipped because the previous one is still running", config.getName());
+                    return;
+                }
+
+                try {
+                    clusterExecutorService.execute(() -> {
+                        boolean workerAvailable = true;
+                        try {
+                            workerAvailable = synchronizeCluster(config.getName());
+                        } finally {
+                            // The cluster stays in flight while its abandoned worker may still change the broker and the store
+                            if (workerAvailable) {
+                                inFlight.set(false);
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.set(false);
+                }
+            });
         } else {
             log.warn("Scheduled jobs did not start because Micronaut is not ready yet");
         }
     }
+
+    /**
+     * Release a cluster whose worker was abandoned on a timeout, once the worker has terminated
+     * @param cluster The cluster
+     * @param inFlight The in flight flag of the cluster
+     */
+    private void releaseTerminatedWorker(String cluster, AtomicBoolean inFlight) {
+        ExecutorService taskExecutorService = taskExecutorServices.get(cluster);
+        if (taskExecutorService == null || !taskExecutorService.isShutdown()) {
+            return;
+        }
+
+        if (!taskExecutorService.isTerminated()) {
+            log.warn("The timed out synchronization of cluster {} is still running on its worker", cluster);
+            return;
+        }
+
+        if (taskExecutorServices.remove(cluster, taskExecutorService)) {
+            log.info("The timed out synchronization of cluster {} has terminated, the cluster is synchronized again", cluster);
+            inFlight.set(false);
+        }
+    }
+
+    /**
+     * Run the executors of a cluster one after the other
+     * The sequence stops at the first executor that times out, as it may still be running despite the interruption
+     * @param cluster The cluster
+     * @return false if the worker of the cluster has been abandoned on a timeout, true otherwise
+     */
+    boolean synchronizeCluster(String cluster) {
+        Map<String, Runnable> executors = new LinkedHashMap<>();
+        executors.put("topic", getExecutor(TopicAsyncExecutor.class, cluster)::run);
+        executors.put("ACL", getExecutor(AccessControlEntryAsyncExecutor.class, cluster)::run);
+        executors.put("connector", getExecutor(ConnectorAsyncExecutor.class, cluster)::run);
+        executors.put("user", getExecutor(UserAsyncExecutor.class, cluster)::run);
+
+        for (Map.Entry<String, Runnable> executor : executors.entrySet()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return true;
+            }
+
+            ExecutorService taskExecutorService = taskExecutorServices.computeIfAbsent(cluster, this::createTaskExecutorService);
+            Future<?> future = taskExecutorService.submit(executor.getValue());
+            try {
+                future.get(kafkaAsyncExecutorSchedulerConfig.getExecutorTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // The worker may be stuck in a non-interruptible call, it is replaced only once terminated
+                future.cancel(true);
+                taskExecutorService.shutdownNow();
+                log.error("The {} synchronization of cluster {} did not complete within {}, it has been interrupted",
+                        executor.getKey(), cluster, kafkaAsyncExecutorSchedulerConfig.getExecutorTimeout());
+                return false;
+            } catch (ExecutionException e) {
+                log.error("Error during the {} synchronization of cluster {}", executor.getKey(), cluster, e.getCause());
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create the worker running the executors of a cluster
+     * Its thread is a daemon, so a worker stuck in a hung call does not prevent the shutdown
+     * @param cluster The cluster
+     * @return The worker
+     */
+    private ExecutorService createTaskExecutorService(String cluster) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ns4kafka-sync-" + cluster);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the executor of a given type bound to a cluster
+     * @param executorClass The executor type
+     * @param cluster The cluster
+     * @return The executor
+     * @param <T> The executor type
+     */
+    private <T> T getExecutor(Class<T> executorClass, String cluster) {
+        return applicationContext.getBean(executorClass, Qualifiers.byName(cluster));
+    }
 }
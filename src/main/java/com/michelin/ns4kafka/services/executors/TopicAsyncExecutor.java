@@ -1,25 +1,32 @@
 package com.michelin.ns4kafka.services.executors;
 
 import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorSchedulerConfig;
 import com.michelin.ns4kafka.models.ObjectMeta;
 import com.michelin.ns4kafka.models.Topic;
 import com.michelin.ns4kafka.repositories.TopicRepository;
 import com.michelin.ns4kafka.repositories.kafka.KafkaStoreException;
 import io.micronaut.context.annotation.EachBean;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.*;
+import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
 
 import java.net.MalformedURLException;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -32,6 +39,13 @@ public class TopicAsyncExecutor {
     @Inject
     TopicRepository topicRepository;
 
+    @Inject
+    KafkaAsyncExecutorSchedulerConfig kafkaAsyncExecutorSchedulerConfig;
+
+    final Set<String> changedTopics = ConcurrentHashMap.newKeySet();
+
+    volatile Instant nextDriftDetection = Instant.MIN;
+
     public TopicAsyncExecutor(KafkaAsyncExecutorConfig kafkaAsyncExecutorConfig) throws MalformedURLException {
         this.kafkaAsyncExecutorConfig = kafkaAsyncExecutorConfig;
     }
@@ -40,77 +54,159 @@ public class TopicAsyncExecutor {
         return kafkaAsyncExecutorConfig.getAdminClient();
     }
 
+    /**
+     * Record the topics of the cluster whose spec changed in Ns4Kafka, to synchronize only them on the next run
+     * Status-only changes, such as the ones written by this executor, are ignored
+     */
+    @PostConstruct
+    void listenTopicChanges() {
+        topicRepository.addListener((key, previous, value) -> {
+            if (value != null && kafkaAsyncExecutorConfig.getName().equals(value.getMetadata().getCluster())
+                    && (previous == null || !Objects.equals(previous.getSpec(), value.getSpec()))) {
+                changedTopics.add(value.getMetadata().getName());
+            }
+        });
+    }
+
     /**
      * Start topic synchronization
+     * All the topics are synchronized once per drift detection interval, only the changed ones in between
      */
     public void run(){
         if (this.kafkaAsyncExecutorConfig.isManageTopics()) {
-            synchronizeTopics();
+            if (Instant.now().isAfter(nextDriftDetection)) {
+                synchronizeTopics();
+            } else if (!changedTopics.isEmpty()) {
+                synchronizeChangedTopics();
+            }
         }
     }
 
     public void synchronizeTopics() {
         log.debug("Starting topic collection for cluster {}", kafkaAsyncExecutorConfig.getName());
+        changedTopics.clear();
 
         try {
             // List topics from broker
-            Map<String, Topic> brokerTopicList = collectBrokerTopics();
+            List<String> brokerTopicNames = listBrokerTopicNames();
             // List topics from ns4kafka Repository
-            List<Topic> ns4kafkaTopicList = topicRepository.findAllForCluster(kafkaAsyncExecutorConfig.getName());
-
-            // Compute toCreate, toDelete, and toUpdate lists
-            List<Topic> toCreate = ns4kafkaTopicList.stream()
-                    .filter(topic -> !brokerTopicList.containsKey(topic.getMetadata().getName()))
-                    .toList();
+            Map<String, Topic> ns4kafkaTopics = topicRepository.findAllForCluster(kafkaAsyncExecutorConfig.getName())
+                    .stream()
+                    .collect(Collectors.toMap(topic -> topic.getMetadata().getName(), Function.identity(), (t1, t2) -> t2));
 
-            List<Topic> toDelete = brokerTopicList.values()
+            // Create the topics missing from the broker
+            Set<String> brokerTopicNameSet = new HashSet<>(brokerTopicNames);
+            reconcileTopics(Map.of(), ns4kafkaTopics.values()
                     .stream()
-                    .filter(topic -> ns4kafkaTopicList.stream().noneMatch(topic1 -> topic1.getMetadata().getName().equals(topic.getMetadata().getName())))
-                    .toList();
+                    .filter(topic -> !brokerTopicNameSet.contains(topic.getMetadata().getName()))
+                    .toList());
 
-            List<Topic> toCheckConf = ns4kafkaTopicList.stream()
-                    .filter(topic -> brokerTopicList.containsKey(topic.getMetadata().getName()))
-                    .toList();
+            // Reconcile the existing ones as they are described, chunk by chunk
+            collectBrokerTopicsByChunk(brokerTopicNames, brokerTopicChunk -> reconcileTopics(brokerTopicChunk,
+                    brokerTopicChunk.keySet()
+                            .stream()
+                            .map(ns4kafkaTopics::get)
+                            .filter(Objects::nonNull)
+                            .toList()));
 
-            Map<ConfigResource, Collection<AlterConfigOp>> toUpdate = toCheckConf.stream()
-                    .map(topic -> {
-                        Map<String,String> actualConf = brokerTopicList.get(topic.getMetadata().getName()).getSpec().getConfigs();
-                        Map<String,String> expectedConf = topic.getSpec().getConfigs() == null ? Map.of() : topic.getSpec().getConfigs();
-                        Collection<AlterConfigOp> topicConfigChanges = computeConfigChanges(expectedConf,actualConf);
-                        if(!topicConfigChanges.isEmpty()){
-                            ConfigResource cr = new ConfigResource(ConfigResource.Type.TOPIC, topic.getMetadata().getName());
-                            return Map.entry(cr,topicConfigChanges);
-                        }
-                        return null;
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-            if(log.isDebugEnabled()){
-                log.debug("Number of topics to create: " + toCreate.size());
-                log.debug("Number of topics to delete: " + toDelete.size());
-                log.debug("Number of topics to update: " + toUpdate.size());
-                for (Map.Entry<ConfigResource,Collection<AlterConfigOp>> e : toUpdate.entrySet()) {
-                    for (AlterConfigOp op : e.getValue()) {
-                        log.debug(e.getKey().name()+" "+op.opType().toString()+" " +op.configEntry().name()+"("+op.configEntry().value()+")");
-                    }
-                }
-            }
-            //creating topics
-            createTopics(toCreate);
-            //delete
-            deleteTopics(toDelete);
-            //alter
-            alterTopics(toUpdate, toCheckConf);
+            nextDriftDetection = Instant.now().plus(kafkaAsyncExecutorSchedulerConfig.getDriftDetectionInterval());
+        } catch (ExecutionException | TimeoutException | CancellationException | KafkaStoreException e) {
+            log.error("Error", e);
+        } catch (InterruptedException e) {
+            log.error("Error", e);
+            Thread.currentThread().interrupt();
+        }
+    }
 
+    /**
+     * Synchronize the topics changed in Ns4Kafka since the last run, fetching them by key and describing only them on the broker
+     * The full listing of the broker topics is left to the drift detection
+     * The changed topics are kept for the next run if the synchronization fails
+     */
+    private void synchronizeChangedTopics() {
+        Set<String> topicNames = new HashSet<>(changedTopics);
+        changedTopics.removeAll(topicNames);
+        log.debug("Starting synchronization of {} changed topics for cluster {}", topicNames.size(), kafkaAsyncExecutorConfig.getName());
+
+        try {
+            List<Topic> ns4kafkaTopicList = topicNames.stream()
+                    .map(topicName -> topicRepository.findByName(kafkaAsyncExecutorConfig.getName(), topicName))
+                    .flatMap(Optional::stream)
+                    .toList();
+
+            Map<String, Topic> brokerTopicList = collectExistingBrokerTopics(ns4kafkaTopicList.stream()
+                    .map(topic -> topic.getMetadata().getName())
+                    .toList());
+            reconcileTopics(brokerTopicList, ns4kafkaTopicList);
         } catch (ExecutionException | TimeoutException | CancellationException | KafkaStoreException e) {
+            changedTopics.addAll(topicNames);
             log.error("Error", e);
         } catch (InterruptedException e) {
+            changedTopics.addAll(topicNames);
             log.error("Error", e);
             Thread.currentThread().interrupt();
         }
     }
 
+    /**
+     * Create and update the broker topics to match the Ns4Kafka ones
+     * @param brokerTopicList The broker topics
+     * @param ns4kafkaTopicList The Ns4Kafka topics
+     */
+    private void reconcileTopics(Map<String, Topic> brokerTopicList, List<Topic> ns4kafkaTopicList) {
+        // Compute toCreate, toDelete, and toUpdate lists with name lookups only, to keep them linear
+        Map<String, Topic> ns4kafkaTopics = ns4kafkaTopicList.stream()
+                .collect(Collectors.toMap(topic -> topic.getMetadata().getName(), Function.identity(), (t1, t2) -> t2));
+
+        List<Topic> toCreate = ns4kafkaTopics.values().stream()
+                .filter(topic -> !brokerTopicList.containsKey(topic.getMetadata().getName()))
+                .toList();
+
+        List<Topic> toDelete = brokerTopicList.values()
+                .stream()
+                .filter(topic -> !ns4kafkaTopics.containsKey(topic.getMetadata().getName()))
+                .toList();
+
+        Map<String, Topic> toCheckConf = ns4kafkaTopics.values().stream()
+                .filter(topic -> brokerTopicList.containsKey(topic.getMetadata().getName()))
+                .collect(Collectors.toMap(topic -> topic.getMetadata().getName(), Function.identity()));
+
+        Map<ConfigResource, Collection<AlterConfigOp>> toUpdate = toCheckConf.values().stream()
+                .map(topic -> {
+                    Map<String,String> actualConf = brokerTopicList.get(topic.getMetadata().getName()).getSpec().getConfigs();
+                    Map<String,String> expectedConf = topic.getSpec().getConfigs() == null ? Map.of() : topic.getSpec().getConfigs();
+                    Collection<AlterConfigOp> topicConfigChanges = computeConfigChanges(expectedConf,actualConf);
+                    if(!topicConfigChanges.isEmpty()){
+                        ConfigResource cr = new ConfigResource(ConfigResource.Type.TOPIC, topic.getMetadata().getName());
+                        return Map.entry(cr,topicConfigChanges);
+                    }
+                    return null;
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        if(log.isDebugEnabled()){
+            log.debug("Number of topics to create: " + toCreate.size());
+            log.debug("Number of topics to delete: " + toDelete.size());
+            log.debug("Number of topics to update: " + toUpdate.size());
+            for (Map.Entry<ConfigResource,Collection<AlterConfigOp>> e : toUpdate.entrySet()) {
+                for (AlterConfigOp op : e.getValue()) {
+                    log.debug(e.getKey().name()+" "+op.opType().toString()+" " +op.configEntry().name()+"("+op.configEntry().value()+")");
+                }
+            }
+        }
+        //creating topics
+        if (!toCreate.isEmpty()) {
+            createTopics(toCreate);
+        }
+        //delete
+        deleteTopics(toDelete);
+        //alter
+        if (!toUpdate.isEmpty()) {
+            alterTopics(toUpdate, toCheckConf);
+        }
+    }
+
     private void deleteTopics(List<Topic> topics) {
         //TODO What's the best way to prevent delete __consumer_offsets and other internal topics ?
         // delete only topics that belongs to a namespace and ignore others ?
@@ -141,6 +237,7 @@ public class TopicAsyncExecutor {
     public Map<String, Topic> collectBrokerTopics() throws ExecutionException, InterruptedException, TimeoutException {
         return collectBrokerTopicsFromNames(listBrokerTopicNames());
     }
+
     public List<String> listBrokerTopicNames() throws InterruptedException, ExecutionException, TimeoutException {
         return getAdminClient().listTopics().listings()
                 .get(30, TimeUnit.SECONDS)
@@ -150,46 +247,145 @@ public class TopicAsyncExecutor {
     }
 
     public Map<String, Topic> collectBrokerTopicsFromNames(List<String> topicNames) throws InterruptedException, ExecutionException, TimeoutException {
-        Map<String, TopicDescription> topicDescriptions = getAdminClient().describeTopics(topicNames).all().get();
-        // Create a Map<TopicName, Map<ConfigName, ConfigValue>> for all topics
-        // includes only Dynamic config properties
-        return getAdminClient()
-                .describeConfigs(topicNames.stream()
+        Map<String, Topic> brokerTopics = new HashMap<>();
+        collectBrokerTopicsByChunk(topicNames, brokerTopics::putAll);
+        return brokerTopics;
+    }
+
+    /**
+     * Describe the given topics chunk by chunk, leaving out the ones that do not exist on the broker
+     * @param topicNames The topic names
+     * @return The existing topics by name
+     * @throws ExecutionException Any execution exception
+     * @throws InterruptedException Any interrupted exception
+     * @throws TimeoutException Any timeout exception
+     */
+    private Map<String, Topic> collectExistingBrokerTopics(List<String> topicNames)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        int chunkSize = Math.max(1, kafkaAsyncExecutorConfig.getTopicDescribeChunkSize());
+
+        Map<String, Topic> brokerTopics = new HashMap<>();
+        for (int from = 0; from < topicNames.size(); from += chunkSize) {
+            List<String> chunkTopicNames = topicNames.subList(from, Math.min(from + chunkSize, topicNames.size()));
+            Map<String, KafkaFuture<TopicDescription>> descriptions = getAdminClient().describeTopics(chunkTopicNames).topicNameValues();
+            Map<ConfigResource, KafkaFuture<Config>> configs = getAdminClient().describeConfigs(chunkTopicNames.stream()
+                    .map(topicName -> new ConfigResource(ConfigResource.Type.TOPIC, topicName))
+                    .toList()).values();
+
+            for (String topicName : chunkTopicNames) {
+                try {
+                    brokerTopics.put(topicName, buildBrokerTopic(topicName,
+                            descriptions.get(topicName).get(30, TimeUnit.SECONDS),
+                            configs.get(new ConfigResource(ConfigResource.Type.TOPIC, topicName)).get(30, TimeUnit.SECONDS)));
+                } catch (ExecutionException e) {
+                    // The topic is missing from the broker, so it is to create
+                    if (!(e.getCause() instanceof UnknownTopicOrPartitionException)) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        return brokerTopics;
+    }
+
+    /**
+     * Describe the given topics chunk by chunk, keeping a bounded number of chunk requests in flight,
+     * so that large clusters never produce a single giant describeTopics/describeConfigs request
+     * @param topicNames The topic names
+     * @param chunkConsumer The consumer of the described topics, called once per chunk in order
+     * @throws ExecutionException Any execution exception
+     * @throws InterruptedException Any interrupted exception
+     * @throws TimeoutException Any timeout exception
+     */
+    private void collectBrokerTopicsByChunk(List<String> topicNames, Consumer<Map<String, Topic>> chunkConsumer)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        int chunkSize = Math.max(1, kafkaAsyncExecutorConfig.getTopicDescribeChunkSize());
+        int concurrency = Math.max(1, kafkaAsyncExecutorConfig.getTopicDescribeConcurrency());
+
+        Deque<TopicChunk> inFlightChunks = new ArrayDeque<>();
+        for (int from = 0; from < topicNames.size(); from += chunkSize) {
+            if (inFlightChunks.size() == concurrency) {
+                chunkConsumer.accept(inFlightChunks.poll().get());
+            }
+            inFlightChunks.add(describeTopicChunk(topicNames.subList(from, Math.min(from + chunkSize, topicNames.size()))));
+        }
+
+        while (!inFlightChunks.isEmpty()) {
+            chunkConsumer.accept(inFlightChunks.poll().get());
+        }
+    }
+
+    /**
+     * Send the describeTopics and describeConfigs requests of a chunk of topics
+     * @param topicNames The topic names of the chunk
+     * @return The chunk
+     */
+    private TopicChunk describeTopicChunk(List<String> topicNames) {
+        return new TopicChunk(topicNames.size(), System.nanoTime(),
+                getAdminClient().describeTopics(topicNames).all(),
+                getAdminClient().describeConfigs(topicNames.stream()
                         .map(s -> new ConfigResource(ConfigResource.Type.TOPIC, s))
-                        .toList())
-                .all()
-                .get(30, TimeUnit.SECONDS)
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        configResourceConfigEntry -> configResourceConfigEntry.getKey().name()
-                        , configResourceConfigEntry ->
-                                configResourceConfigEntry.getValue().entries()
-                                        .stream()
-                                        .filter( configEntry -> configEntry.source() == ConfigEntry.ConfigSource.DYNAMIC_TOPIC_CONFIG)
-                                        .collect(Collectors.toMap(ConfigEntry::name, ConfigEntry::value))
-                ))
-                .entrySet()
-                .stream()
-                .map(stringMapEntry -> Topic.builder()
-                        .metadata(ObjectMeta.builder()
-                                .cluster(kafkaAsyncExecutorConfig.getName())
-                                .name(stringMapEntry.getKey())
-                                .build())
-                        .spec(Topic.TopicSpec.builder()
-                                .replicationFactor(topicDescriptions.get(stringMapEntry.getKey()).partitions().get(0).replicas().size())
-                                .partitions(topicDescriptions.get(stringMapEntry.getKey()).partitions().size())
-                                .configs(stringMapEntry.getValue())
-                                .build())
-                        .build()
-                )
-                .collect(Collectors.toMap( topic -> topic.getMetadata().getName(), Function.identity()));
+                        .toList()).all());
+    }
+
+    /**
+     * Chunk of topics being described
+     */
+    @AllArgsConstructor
+    private class TopicChunk {
+        private final int size;
+        private final long startTime;
+        private final KafkaFuture<Map<String, TopicDescription>> topicDescriptions;
+        private final KafkaFuture<Map<ConfigResource, Config>> topicConfigs;
+
+        /**
+         * Wait for the chunk descriptions and build its topics
+         * @return The topics of the chunk by name
+         */
+        private Map<String, Topic> get() throws InterruptedException, ExecutionException, TimeoutException {
+            Map<String, TopicDescription> descriptions = topicDescriptions.get(30, TimeUnit.SECONDS);
+            Map<ConfigResource, Config> configs = topicConfigs.get(30, TimeUnit.SECONDS);
+            log.debug("Described {} topics on {} in {}ms", size, kafkaAsyncExecutorConfig.getName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+            return configs.entrySet()
+                    .stream()
+                    .map(configEntry -> buildBrokerTopic(configEntry.getKey().name(),
+                            descriptions.get(configEntry.getKey().name()), configEntry.getValue()))
+                    .collect(Collectors.toMap(topic -> topic.getMetadata().getName(), Function.identity()));
+        }
     }
-    private void alterTopics(Map<ConfigResource, Collection<AlterConfigOp>> toUpdate, List<Topic> topics) {
+
+    /**
+     * Build a broker topic from its description
+     * Includes only Dynamic config properties
+     * @param topicName The topic name
+     * @param description The topic description
+     * @param config The topic config
+     * @return The topic
+     */
+    private Topic buildBrokerTopic(String topicName, TopicDescription description, Config config) {
+        return Topic.builder()
+                .metadata(ObjectMeta.builder()
+                        .cluster(kafkaAsyncExecutorConfig.getName())
+                        .name(topicName)
+                        .build())
+                .spec(Topic.TopicSpec.builder()
+                        .replicationFactor(description.partitions().get(0).replicas().size())
+                        .partitions(description.partitions().size())
+                        .configs(config.entries()
+                                .stream()
+                                .filter(configValue -> configValue.source() == ConfigEntry.ConfigSource.DYNAMIC_TOPIC_CONFIG)
+                                .collect(Collectors.toMap(ConfigEntry::name, ConfigEntry::value)))
+                        .build())
+                .build();
+    }
+
+    private void alterTopics(Map<ConfigResource, Collection<AlterConfigOp>> toUpdate, Map<String, Topic> topics) {
         AlterConfigsResult alterConfigsResult = getAdminClient().incrementalAlterConfigs(toUpdate);
         alterConfigsResult.values().entrySet()
                 .forEach(mapEntry -> {
-                    Topic updatedTopic = topics.stream().filter(t -> t.getMetadata().getName().equals(mapEntry.getKey().name())).findFirst().get();
+                    Topic updatedTopic = topics.get(mapEntry.getKey().name());
                     try {
                         mapEntry.getValue().get(10, TimeUnit.SECONDS);
                         Collection<AlterConfigOp> ops = toUpdate.get(mapEntry.getKey());
@@ -222,9 +418,12 @@ public class TopicAsyncExecutor {
                 })
                 .toList();
 
+        Map<String, Topic> topicsByName = topics.stream()
+                .collect(Collectors.toMap(topic -> topic.getMetadata().getName(), Function.identity()));
+
         CreateTopicsResult createTopicsResult = getAdminClient().createTopics(newTopics);
         createTopicsResult.values().forEach((key, value) -> {
-            Topic createdTopic = topics.stream().filter(t -> t.getMetadata().getName().equals(key)).findFirst().get();
+            Topic createdTopic = topicsByName.get(key);
             try {
                 value.get(10, TimeUnit.SECONDS);
                 createdTopic.getMetadata().setCreationTimestamp(Date.from(Instant.now()));
@@ -13,6 +13,7 @@ import org.apache.kafka.clients.admin.Admin;
 import org.apache.kafka.clients.admin.ScramCredentialInfo;
 import org.apache.kafka.clients.admin.ScramMechanism;
 import org.apache.kafka.clients.admin.UserScramCredentialUpsertion;
+import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.quota.ClientQuotaAlteration;
 import org.apache.kafka.common.quota.ClientQuotaEntity;
 import org.apache.kafka.common.quota.ClientQuotaFilter;
@@ -89,8 +90,11 @@ public class UserAsyncExecutor {
             log.debug("UserQuotas to update : " + toUpdate.size());
         }
 
-        createUserQuotas(toCreate);
-        createUserQuotas(toUpdate);
+        Map<String, Map<String, Double>> toApply = new HashMap<>(toCreate);
+        toApply.putAll(toUpdate);
+        if (!toApply.isEmpty()) {
+            this.userExecutor.applyQuotas(toApply);
+        }
     }
 
     public String resetPassword(String user) {
@@ -123,10 +127,6 @@ public class UserAsyncExecutor {
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
-    private void createUserQuotas(Map<String, Map<String, Double>> toCreate) {
-        toCreate.forEach(this.userExecutor::applyQuotas);
-    }
-
     interface AbstractUserSynchronizer {
         boolean canSynchronizeQuotas();
 
@@ -134,12 +134,13 @@ public class UserAsyncExecutor {
 
         String resetPassword(String user);
 
-        void applyQuotas(String user, Map<String, Double> quotas);
+        void applyQuotas(Map<String, Map<String, Double>> quotasByUser);
 
         Map<String, Map<String, Double>> listQuotas();
     }
 
     static class Scram512UserSynchronizer implements AbstractUserSynchronizer {
+        private static final int QUOTA_ALTERATIONS_BATCH_SIZE = 500;
 
         private Admin admin;
 
@@ -198,23 +199,51 @@ public class UserAsyncExecutor {
 
         }
 
+        /**
+         * Apply the quotas of the given users, sending the alterations in batches
+         * All the batches are sent before waiting for any result, and each user succeeds or fails on its own
+         * @param quotasByUser The quotas to apply, by user
+         */
         @Override
-        public void applyQuotas(String user, Map<String, Double> quotas) {
-            ClientQuotaEntity client = new ClientQuotaEntity(Map.of("user", user));
-            ClientQuotaAlteration.Op producerQuota = new ClientQuotaAlteration.Op("producer_byte_rate", quotas.getOrDefault("producer_byte_rate", BYTE_RATE_DEFAULT_VALUE));
-            ClientQuotaAlteration.Op consumerQuota = new ClientQuotaAlteration.Op("consumer_byte_rate", quotas.getOrDefault("consumer_byte_rate", BYTE_RATE_DEFAULT_VALUE));
-            ClientQuotaAlteration clientQuota = new ClientQuotaAlteration(client, List.of(producerQuota, consumerQuota));
-            try {
-                admin.alterClientQuotas(List.of(clientQuota)).all().get(10, TimeUnit.SECONDS);
-                log.info("Success applying quotas {} for user {}", clientQuota.ops(), user);
-            } catch (InterruptedException e) {
-                log.error("Error", e);
-                Thread.currentThread().interrupt();
-            } catch (Exception e) {
-                log.error(String.format("Error while applying quotas for user %s", user), e);
+        public void applyQuotas(Map<String, Map<String, Double>> quotasByUser) {
+            List<ClientQuotaAlteration> alterations = quotasByUser.entrySet()
+                    .stream()
+                    .map(entry -> buildQuotaAlteration(entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList());
+
+            Map<ClientQuotaEntity, KafkaFuture<Void>> results = new HashMap<>();
+            for (int i = 0; i < alterations.size(); i += QUOTA_ALTERATIONS_BATCH_SIZE) {
+                results.putAll(admin.alterClientQuotas(alterations.subList(i, Math.min(i + QUOTA_ALTERATIONS_BATCH_SIZE, alterations.size())))
+                        .values());
+            }
 
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            for (ClientQuotaAlteration alteration : alterations) {
+                String user = alteration.entity().entries().get(ClientQuotaEntity.USER);
+                try {
+                    results.get(alteration.entity()).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    log.info("Success applying quotas {} for user {}", alteration.ops(), user);
+                } catch (InterruptedException e) {
+                    log.error("Error", e);
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.error(String.format("Error while applying quotas for user %s", user), e);
+                }
             }
+        }
 
+        /**
+         * Build the quota alteration of a user, falling back on the default byte rates
+         * @param user The user
+         * @param quotas The quotas of the user
+         * @return The quota alteration
+         */
+        private ClientQuotaAlteration buildQuotaAlteration(String user, Map<String, Double> quotas) {
+            ClientQuotaEntity client = new ClientQuotaEntity(Map.of(ClientQuotaEntity.USER, user));
+            ClientQuotaAlteration.Op producerQuota = new ClientQuotaAlteration.Op("producer_byte_rate", quotas.getOrDefault("producer_byte_rate", BYTE_RATE_DEFAULT_VALUE));
+            ClientQuotaAlteration.Op consumerQuota = new ClientQuotaAlteration.Op("consumer_byte_rate", quotas.getOrDefault("consumer_byte_rate", BYTE_RATE_DEFAULT_VALUE));
+            return new ClientQuotaAlteration(client, List.of(producerQuota, consumerQuota));
         }
     }
 
@@ -238,7 +267,7 @@ public class UserAsyncExecutor {
         }
 
         @Override
-        public void applyQuotas(String user, Map<String, Double> quotas) {
+        public void applyQuotas(Map<String, Map<String, Double>> quotasByUser) {
             throw exception;
         }
 
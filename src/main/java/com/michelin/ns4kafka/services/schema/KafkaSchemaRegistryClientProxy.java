@@ -1,6 +1,8 @@
 package com.michelin.ns4kafka.services.schema;
 
 import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
+import com.michelin.ns4kafka.config.ProxyHttpClientConfig;
+import com.michelin.ns4kafka.services.ProxyHttpClientService;
 import com.michelin.ns4kafka.utils.exceptions.ResourceValidationException;
 import io.micronaut.core.async.publisher.Publishers;
 import io.micronaut.core.util.StringUtils;
@@ -9,16 +11,18 @@ import io.micronaut.http.HttpRequest;
 import io.micronaut.http.MutableHttpRequest;
 import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.Filter;
-import io.micronaut.http.client.ProxyHttpClient;
 import io.micronaut.http.filter.HttpServerFilter;
 import io.micronaut.http.filter.ServerFilterChain;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import org.reactivestreams.Publisher;
 
 import java.net.URI;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Filter(KafkaSchemaRegistryClientProxy.SCHEMA_REGISTRY_PREFIX + "/**")
 public class KafkaSchemaRegistryClientProxy implements HttpServerFilter {
@@ -34,7 +38,9 @@ public class KafkaSchemaRegistryClientProxy implements HttpServerFilter {
     List<KafkaAsyncExecutorConfig> kafkaAsyncExecutorConfigs;
 
     @Inject
-    ProxyHttpClient client;
+    ProxyHttpClientService proxyHttpClientService;
+
+    private Map<String, KafkaAsyncExecutorConfig> kafkaClusters = Map.of();
 
     /**
      * Filter requests
@@ -60,19 +66,28 @@ public class KafkaSchemaRegistryClientProxy implements HttpServerFilter {
 
         String kafkaCluster = request.getHeaders().get(KafkaSchemaRegistryClientProxy.PROXY_HEADER_KAFKA_CLUSTER);
 
-        Optional<KafkaAsyncExecutorConfig> config = kafkaAsyncExecutorConfigs.stream()
-                .filter(kafkaAsyncExecutorConfig -> kafkaAsyncExecutorConfig.getName().equals(kafkaCluster))
-                .findFirst();
-
-        if (config.isEmpty()) {
+        KafkaAsyncExecutorConfig config = kafkaClusters.get(kafkaCluster);
+        if (config == null) {
             return Publishers.just(new ResourceValidationException(List.of("Kafka Cluster [" + kafkaCluster + "] not found"),null,null));
         }
 
-        if (config.get().getSchemaRegistry() == null) {
+        if (config.getSchemaRegistry() == null) {
             return Publishers.just(new ResourceValidationException(List.of("Kafka Cluster [" + kafkaCluster + "] has no schema registry"),null,null));
         }
 
-        return client.proxy(mutateSchemaRegistryRequest(request, config.get()));
+        return proxyHttpClientService.proxy(config.getSchemaRegistry().getUrl(),
+                new ProxyHttpClientConfig.PoolOverrides(config.getSchemaRegistry().getMaxConnections(),
+                        config.getSchemaRegistry().getMaxPendingAcquires(), config.getSchemaRegistry().getAcquireTimeout()),
+                mutateSchemaRegistryRequest(request, config));
+    }
+
+    /**
+     * Index the Kafka clusters configurations by name, so the requests are routed without scanning them
+     */
+    @PostConstruct
+    public void buildRoutingTable() {
+        kafkaClusters = kafkaAsyncExecutorConfigs.stream()
+                .collect(Collectors.toMap(KafkaAsyncExecutorConfig::getName, Function.identity(), (c1, c2) -> c1));
     }
 
     /**
@@ -0,0 +1,122 @@
+package com.michelin.ns4kafka.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Character trie of literal and prefixed keys, answering "which keys match this name" in O(name length)
+ * @param <V> The type of the values attached to the keys
+ */
+public class PrefixTrie<V> {
+    private final Node<V> root = new Node<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Attach a value to a key
+     * @param key The key
+     * @param prefixed true if the key matches all names starting with it, false if it matches the exact name only
+     * @param value The value
+     */
+    public void add(String key, boolean prefixed, V value) {
+        lock.writeLock().lock();
+        try {
+            Node<V> node = root;
+            for (char c : key.toCharArray()) {
+                node = node.children.computeIfAbsent(c, k -> new Node<>());
+            }
+            node.values(prefixed).add(value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Detach a value from a key, pruning the nodes left empty
+     * @param key The key
+     * @param prefixed true if the key was added as prefixed, false otherwise
+     * @param value The value
+     * @return true if the value was found, false otherwise
+     */
+    public boolean remove(String key, boolean prefixed, V value) {
+        lock.writeLock().lock();
+        try {
+            Deque<Node<V>> path = new ArrayDeque<>();
+            Node<V> node = root;
+            for (char c : key.toCharArray()) {
+                path.push(node);
+                node = node.children.get(c);
+                if (node == null) {
+                    return false;
+                }
+            }
+
+            boolean removed = node.values(prefixed).remove(value);
+            for (int i = key.length() - 1; i >= 0 && node.isEmpty(); i--) {
+                Node<V> parent = path.pop();
+                parent.children.remove(key.charAt(i));
+                node = parent;
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the values of the prefixed keys the name starts with, and of the literal key equal to the name
+     * @param name The name
+     * @return The list of matching values
+     */
+    public List<V> findMatches(String name) {
+        lock.readLock().lock();
+        try {
+            List<V> matches = new ArrayList<>(root.prefixedValues);
+            Node<V> node = root;
+            for (int i = 0; i < name.length(); i++) {
+                node = node.children.get(name.charAt(i));
+                if (node == null) {
+                    return matches;
+                }
+                matches.addAll(node.prefixedValues);
+            }
+            matches.addAll(node.literalValues);
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Is the trie empty
+     * @return true if it is, false otherwise
+     */
+    public boolean isEmpty() {
+        lock.readLock().lock();
+        try {
+            return root.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static class Node<V> {
+        private final Map<Character, Node<V>> children = new HashMap<>();
+        private final List<V> prefixedValues = new ArrayList<>();
+        private final List<V> literalValues = new ArrayList<>();
+
+        private List<V> values(boolean prefixed) {
+            return prefixed ? prefixedValues : literalValues;
+        }
+
+        private boolean isEmpty() {
+            return children.isEmpty() && prefixedValues.isEmpty() && literalValues.isEmpty();
+        }
+    }
+}
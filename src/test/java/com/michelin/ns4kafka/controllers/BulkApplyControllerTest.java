@@ -0,0 +1,321 @@
+package com.michelin.ns4kafka.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.michelin.ns4kafka.controllers.acl.AccessControlListController;
+import com.michelin.ns4kafka.controllers.generic.ResourceController;
+import com.michelin.ns4kafka.controllers.topic.TopicController;
+import com.michelin.ns4kafka.models.*;
+import com.michelin.ns4kafka.security.ResourceBasedSecurityRule;
+import com.michelin.ns4kafka.services.AccessControlEntryService;
+import com.michelin.ns4kafka.services.ConnectorService;
+import com.michelin.ns4kafka.services.NamespaceService;
+import com.michelin.ns4kafka.services.ResourceQuotaService;
+import com.michelin.ns4kafka.services.TopicService;
+import com.michelin.ns4kafka.utils.enums.ApplyStatus;
+import com.michelin.ns4kafka.utils.exceptions.ResourceValidationException;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.utils.SecurityService;
+import io.micronaut.validation.validator.Validator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkApplyControllerTest {
+    @Mock
+    NamespaceService namespaceService;
+
+    @Mock
+    TopicController topicController;
+
+    @Mock
+    AccessControlListController accessControlListController;
+
+    @Mock
+    ConnectorController connectorController;
+
+    @Mock
+    TopicService topicService;
+
+    @Mock
+    AccessControlEntryService accessControlEntryService;
+
+    @Mock
+    ConnectorService connectorService;
+
+    @Mock
+    ResourceQuotaService resourceQuotaService;
+
+    @Mock
+    ResourceBasedSecurityRule resourceBasedSecurityRule;
+
+    @Mock
+    Validator validator;
+
+    @Mock
+    ApplicationEventPublisher<AuditLog> applicationEventPublisher;
+
+    @Mock
+    SecurityService securityService;
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    BulkApplyController bulkApplyController;
+
+    /**
+     * Validate resources are validated but not written in dry run mode
+     */
+    @Test
+    void applyDryRun() throws ExecutionException, InterruptedException, TimeoutException {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("test")
+                        .cluster("local")
+                        .build())
+                .build();
+        Topic topic = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.topic").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        AccessControlEntry accessControlEntry = AccessControlEntry.builder()
+                .metadata(ObjectMeta.builder().name("test-acl").build())
+                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
+                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
+                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
+                        .permission(AccessControlEntry.Permission.READ)
+                        .resource("test.")
+                        .grantedTo("other")
+                        .build())
+                .build();
+        Authentication auth = Authentication.build("admin", List.of("isAdmin()"), Map.of("roles", List.of("isAdmin()")));
+
+        when(namespaceService.findByName("test"))
+                .thenReturn(Optional.of(ns));
+        when(topicController.apply(eq("test"), any(Topic.class), eq(true)))
+                .thenReturn(HttpResponse.ok(topic).header(ResourceController.STATUS_HEADER, ApplyStatus.created.toString()));
+        when(accessControlListController.apply(eq(auth), eq("test"), any(AccessControlEntry.class), eq(true)))
+                .thenReturn(HttpResponse.ok(accessControlEntry).header(ResourceController.STATUS_HEADER, ApplyStatus.unchanged.toString()));
+
+        List<ApplyResult> actual = bulkApplyController.apply(auth, "test",
+                List.of(toMap(topic), toMap(accessControlEntry)), true);
+
+        Assertions.assertEquals(2, actual.size());
+        Assertions.assertEquals("test.topic", actual.get(0).getName());
+        Assertions.assertEquals(ApplyStatus.created, actual.get(0).getStatus());
+        Assertions.assertEquals("test-acl", actual.get(1).getName());
+        Assertions.assertEquals(ApplyStatus.unchanged, actual.get(1).getStatus());
+        verify(topicService, never()).createAll(any());
+        verify(accessControlEntryService, never()).createAll(any());
+    }
+
+    /**
+     * Validate the changed resources are written in one batch
+     */
+    @Test
+    void applyWritesChangedResources() throws ExecutionException, InterruptedException, TimeoutException {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("test")
+                        .cluster("local")
+                        .build())
+                .build();
+        Topic topic1 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.topic1").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        Topic topic2 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.topic2").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        Authentication auth = Authentication.build("admin", List.of("isAdmin()"), Map.of("roles", List.of("isAdmin()")));
+
+        when(namespaceService.findByName("test"))
+                .thenReturn(Optional.of(ns));
+        when(topicController.apply(eq("test"), any(Topic.class), eq(true)))
+                .thenReturn(HttpResponse.ok(topic1).header(ResourceController.STATUS_HEADER, ApplyStatus.created.toString()))
+                .thenReturn(HttpResponse.ok(topic2).header(ResourceController.STATUS_HEADER, ApplyStatus.unchanged.toString()));
+        when(topicService.findByName(ns, "test.topic1"))
+                .thenReturn(Optional.empty());
+
+        List<ApplyResult> actual = bulkApplyController.apply(auth, "test",
+                List.of(toMap(topic1), toMap(topic2)), false);
+
+        Assertions.assertEquals(2, actual.size());
+        verify(topicService).createAll(List.of(topic1));
+        verify(applicationEventPublisher).publishEvent(any());
+    }
+
+    /**
+     * Validate all the errors are reported and nothing is written when a resource is invalid
+     */
+    @Test
+    void applyValidationErrors() {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("test")
+                        .cluster("local")
+                        .build())
+                .build();
+        Topic topic = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.topic").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        Authentication auth = Authentication.build("user", Map.of("roles", List.of(), "groups", List.of("group1")));
+
+        when(namespaceService.findByName("test"))
+                .thenReturn(Optional.of(ns));
+
+        List<Map<String, Object>> resources = List.of(
+                toMap(topic),
+                Map.of("kind", "Unknown", "metadata", Map.of("name", "unknown")));
+
+        ResourceValidationException actual = Assertions.assertThrows(ResourceValidationException.class,
+                () -> bulkApplyController.apply(auth, "test", resources, false));
+
+        Assertions.assertEquals(2, actual.getValidationErrors().size());
+        Assertions.assertEquals("Topic test.topic: Not allowed to apply resources of kind Topic in namespace test.", actual.getValidationErrors().get(0));
+        Assertions.assertTrue(actual.getValidationErrors().get(1).startsWith("Unknown unknown: Invalid value Unknown for kind"));
+        verify(topicService, never()).createAll(any());
+    }
+
+    /**
+     * Validate nothing is written when the batch as a whole exceeds the namespace quota
+     */
+    @Test
+    void applyBatchExceedsQuota() throws ExecutionException, InterruptedException, TimeoutException {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("test")
+                        .cluster("local")
+                        .build())
+                .build();
+        Topic topic1 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.topic1").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        Topic topic2 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.topic2").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        Authentication auth = Authentication.build("admin", List.of("isAdmin()"), Map.of("roles", List.of("isAdmin()")));
+
+        when(namespaceService.findByName("test"))
+                .thenReturn(Optional.of(ns));
+        when(topicController.apply(eq("test"), any(Topic.class), eq(true)))
+                .thenReturn(HttpResponse.ok(topic1).header(ResourceController.STATUS_HEADER, ApplyStatus.created.toString()))
+                .thenReturn(HttpResponse.ok(topic2).header(ResourceController.STATUS_HEADER, ApplyStatus.created.toString()));
+        when(resourceQuotaService.validateBulkQuota(eq(ns), eq(List.of()), eq(0L), eq(List.of(topic1, topic2)), eq(0L)))
+                .thenReturn(List.of("Exceeding quota for count/topics: 2/3 (used/limit). Cannot add 2 topic(s)."));
+
+        List<Map<String, Object>> resources = List.of(toMap(topic1), toMap(topic2));
+        ResourceValidationException actual = Assertions.assertThrows(ResourceValidationException.class,
+                () -> bulkApplyController.apply(auth, "test", resources, false));
+
+        Assertions.assertEquals(List.of("Exceeding quota for count/topics: 2/3 (used/limit). Cannot add 2 topic(s)."),
+                actual.getValidationErrors());
+        verify(topicService, never()).createAll(any());
+    }
+
+    /**
+     * Validate nothing is written when topics of the batch collide with each other
+     */
+    @Test
+    void applyBatchTopicCollision() throws ExecutionException, InterruptedException, TimeoutException {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("test")
+                        .cluster("local")
+                        .build())
+                .build();
+        Topic topic1 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.a.b").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        Topic topic2 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.a_b").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        Authentication auth = Authentication.build("admin", List.of("isAdmin()"), Map.of("roles", List.of("isAdmin()")));
+
+        when(namespaceService.findByName("test"))
+                .thenReturn(Optional.of(ns));
+        when(topicController.apply(eq("test"), any(Topic.class), eq(true)))
+                .thenReturn(HttpResponse.ok(topic1).header(ResourceController.STATUS_HEADER, ApplyStatus.created.toString()))
+                .thenReturn(HttpResponse.ok(topic2).header(ResourceController.STATUS_HEADER, ApplyStatus.created.toString()));
+
+        List<Map<String, Object>> resources = List.of(toMap(topic1), toMap(topic2));
+        ResourceValidationException actual = Assertions.assertThrows(ResourceValidationException.class,
+                () -> bulkApplyController.apply(auth, "test", resources, true));
+
+        Assertions.assertEquals(List.of(
+                "Topic test.a.b: Topic collides with topics test.a_b.",
+                "Topic test.a_b: Topic collides with topics test.a.b."), actual.getValidationErrors());
+        verify(topicService, never()).createAll(any());
+    }
+
+    /**
+     * Validate nothing is written when the namespace changed while the batch was validated
+     */
+    @Test
+    void applyNamespaceChangedDuringValidation() throws ExecutionException, InterruptedException, TimeoutException {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("test")
+                        .cluster("local")
+                        .build())
+                .build();
+        Topic topic = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.topic").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        Topic concurrentTopic = Topic.builder()
+                .metadata(ObjectMeta.builder().name("test.concurrent").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).replicationFactor(3).build())
+                .build();
+        Authentication auth = Authentication.build("admin", List.of("isAdmin()"), Map.of("roles", List.of("isAdmin()")));
+
+        when(namespaceService.findByName("test"))
+                .thenReturn(Optional.of(ns));
+        when(topicService.findAllForNamespace(ns))
+                .thenReturn(List.of())
+                .thenReturn(List.of(concurrentTopic));
+        when(topicController.apply(eq("test"), any(Topic.class), eq(true)))
+                .thenReturn(HttpResponse.ok(topic).header(ResourceController.STATUS_HEADER, ApplyStatus.created.toString()));
+
+        List<Map<String, Object>> resources = List.of(toMap(topic));
+        ResourceValidationException actual = Assertions.assertThrows(ResourceValidationException.class,
+                () -> bulkApplyController.apply(auth, "test", resources, false));
+
+        Assertions.assertEquals(List.of("Resources of namespace test changed while the batch was validated. Please retry."),
+                actual.getValidationErrors());
+        verify(topicService, never()).createAll(any());
+    }
+
+    /**
+     * Convert a resource to its JSON representation
+     * @param resource The resource
+     * @return The JSON representation of the resource
+     */
+    private Map<String, Object> toMap(Object resource) {
+        return objectMapper.convertValue(resource, new TypeReference<>() {});
+    }
+}
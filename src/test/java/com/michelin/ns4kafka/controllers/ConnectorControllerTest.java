@@ -67,7 +67,7 @@ class ConnectorControllerTest {
         Mockito.when(connectorService.findAllForNamespace(ns))
                 .thenReturn(List.of());
 
-        List<Connector> actual = connectorController.list("test");
+        List<Connector> actual = connectorController.list("test", false);
         Assertions.assertTrue(actual.isEmpty());
     }
 
@@ -90,10 +90,36 @@ class ConnectorControllerTest {
                         Connector.builder().metadata(ObjectMeta.builder().name("connect1").build()).build(),
                         Connector.builder().metadata(ObjectMeta.builder().name("connect2").build()).build()));
 
-        List<Connector> actual = connectorController.list("test");
+        List<Connector> actual = connectorController.list("test", false);
         Assertions.assertEquals(2, actual.size());
     }
 
+    /**
+     * Test connector listing with cached statuses
+     */
+    @Test
+    void listConnectorsWithStatus() {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("test")
+                        .cluster("local")
+                        .build())
+                .build();
+
+        Mockito.when(namespaceService.findByName("test"))
+                .thenReturn(Optional.of(ns));
+        Mockito.when(connectorService.findAllForNamespaceWithStatus(ns))
+                .thenReturn(List.of(
+                        Connector.builder()
+                                .metadata(ObjectMeta.builder().name("connect1").build())
+                                .status(Connector.ConnectorStatus.builder().state(Connector.TaskState.RUNNING).build())
+                                .build()));
+
+        List<Connector> actual = connectorController.list("test", true);
+        Assertions.assertEquals(1, actual.size());
+        Assertions.assertEquals(Connector.TaskState.RUNNING, actual.get(0).getStatus().getState());
+    }
+
     /**
      * Test get connector by name when it does not exist
      */
@@ -3,6 +3,7 @@ package com.michelin.ns4kafka.controllers;
 import com.michelin.ns4kafka.controllers.quota.ResourceQuotaNonNamespacedController;
 import com.michelin.ns4kafka.models.quota.ResourceQuotaResponse;
 import com.michelin.ns4kafka.services.ResourceQuotaService;
+import io.reactivex.rxjava3.core.Flowable;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,4 +42,24 @@ class ResourceQuotaNonNamespacedControllerTest {
         Assertions.assertEquals(1, actual.size());
         Assertions.assertEquals(response, actual.get(0));
     }
+
+    /**
+     * Validate quota streaming
+     */
+    @Test
+    void streamAll() {
+        ResourceQuotaResponse response = ResourceQuotaResponse.builder()
+                .spec(ResourceQuotaResponse.ResourceQuotaResponseSpec.builder()
+                        .countTopic("2/5")
+                        .countPartition("2/10")
+                        .countConnector("5/5")
+                        .build())
+                .build();
+
+        when(resourceQuotaService.streamUsedResourcesByQuotaForAllNamespaces()).thenReturn(Flowable.just(response));
+
+        resourceQuotaController.streamAll()
+                .test()
+                .assertValues(response);
+    }
 }
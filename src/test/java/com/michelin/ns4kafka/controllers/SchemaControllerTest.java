@@ -9,14 +9,17 @@ import com.michelin.ns4kafka.security.ResourceBasedSecurityRule;
 import com.michelin.ns4kafka.services.NamespaceService;
 import com.michelin.ns4kafka.services.SchemaService;
 import com.michelin.ns4kafka.services.schema.client.entities.SchemaCompatibilityResponse;
+import com.michelin.ns4kafka.utils.enums.ApplyStatus;
 import com.michelin.ns4kafka.utils.exceptions.ResourceValidationException;
 import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.http.HttpStatus;
 import io.micronaut.security.utils.SecurityService;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,6 +27,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.mockito.Mockito.*;
 
@@ -117,6 +123,144 @@ class SchemaControllerTest {
                         && response.getBody().get().getMetadata().getName().equals("prefix.subject-value"));
     }
 
+    /**
+     * Test the batch schema creation
+     * Each schema should get its own result, in the order of the batch
+     */
+    @Test
+    void applyBatch() {
+        Namespace namespace = buildNamespace();
+        Schema schema = buildSchema();
+        Schema notCompatibleSchema = buildSchema();
+        notCompatibleSchema.getMetadata().setName("prefix.other-subject-value");
+        Schema notOwnedSchema = buildSchema();
+        notOwnedSchema.getMetadata().setName("other.subject-value");
+        Schema duplicatedSchema = buildSchema();
+
+        when(namespaceService.findByName("myNamespace")).thenReturn(Optional.of(namespace));
+        when(schemaService.isNamespaceOwnerOfSubject(namespace, "prefix.subject-value")).thenReturn(true);
+        when(schemaService.isNamespaceOwnerOfSubject(namespace, "prefix.other-subject-value")).thenReturn(true);
+        when(schemaService.isNamespaceOwnerOfSubject(namespace, "other.subject-value")).thenReturn(false);
+        when(schemaService.validateSchemaCompatibility("local", schema)).thenReturn(Single.just(List.of()));
+        when(schemaService.validateSchemaCompatibility("local", notCompatibleSchema))
+                .thenReturn(Single.just(List.of("Incompatible schema")));
+        when(schemaService.getLatestSubject(namespace, "prefix.subject-value")).thenReturn(Maybe.empty());
+        when(schemaService.register(namespace, schema)).thenReturn(Single.just(1));
+        when(securityService.username()).thenReturn(Optional.of("test-user"));
+        when(securityService.hasRole(ResourceBasedSecurityRule.IS_ADMIN)).thenReturn(false);
+        doNothing().when(applicationEventPublisher).publishEvent(any());
+
+        schemaController.applyBatch("myNamespace", List.of(schema, notCompatibleSchema, notOwnedSchema, duplicatedSchema), false)
+                .test()
+                .assertValue(results -> results.size() == 4)
+                .assertValue(results -> results.get(0).getName().equals("prefix.subject-value")
+                        && results.get(0).getStatus() == ApplyStatus.created
+                        && results.get(0).getErrors() == null)
+                .assertValue(results -> results.get(1).getName().equals("prefix.other-subject-value")
+                        && results.get(1).getStatus() == null
+                        && results.get(1).getErrors().equals(List.of("Incompatible schema")))
+                .assertValue(results -> results.get(2).getName().equals("other.subject-value")
+                        && results.get(2).getErrors().equals(List.of("Namespace not owner of this schema other.subject-value.")))
+                .assertValue(results -> results.get(3).getName().equals("prefix.subject-value")
+                        && results.get(3).getErrors().equals(List.of("Subject is declared more than once.")));
+
+        verify(schemaService, times(1)).register(any(), any());
+    }
+
+    /**
+     * Test the batch schema creation when a schema references another schema of the batch declared after it
+     * The referenced schema should be registered first, and the results kept in the order of the batch
+     */
+    @Test
+    void applyBatchWithReferences() {
+        Namespace namespace = buildNamespace();
+        Schema referencingSchema = buildSchema();
+        referencingSchema.getMetadata().setName("prefix.referencing-subject-value");
+        referencingSchema.getSpec().setReferences(List.of(Schema.SchemaSpec.Reference.builder()
+                .name("com.michelin.kafka.producer.showcase.avro.PersonAvro")
+                .subject("prefix.subject-value")
+                .version(1)
+                .build()));
+        Schema referencedSchema = buildSchema();
+
+        when(namespaceService.findByName("myNamespace")).thenReturn(Optional.of(namespace));
+        when(schemaService.isNamespaceOwnerOfSubject(namespace, "prefix.referencing-subject-value")).thenReturn(true);
+        when(schemaService.isNamespaceOwnerOfSubject(namespace, "prefix.subject-value")).thenReturn(true);
+        when(schemaService.validateSchemaCompatibility("local", referencingSchema)).thenReturn(Single.just(List.of()));
+        when(schemaService.validateSchemaCompatibility("local", referencedSchema)).thenReturn(Single.just(List.of()));
+        when(schemaService.getLatestSubject(namespace, "prefix.referencing-subject-value")).thenReturn(Maybe.empty());
+        when(schemaService.getLatestSubject(namespace, "prefix.subject-value")).thenReturn(Maybe.empty());
+        when(schemaService.register(namespace, referencingSchema)).thenReturn(Single.just(2));
+        when(schemaService.register(namespace, referencedSchema)).thenReturn(Single.just(1));
+        when(securityService.username()).thenReturn(Optional.of("test-user"));
+        when(securityService.hasRole(ResourceBasedSecurityRule.IS_ADMIN)).thenReturn(false);
+        doNothing().when(applicationEventPublisher).publishEvent(any());
+
+        schemaController.applyBatch("myNamespace", List.of(referencingSchema, referencedSchema), false)
+                .test()
+                .assertValue(results -> results.size() == 2)
+                .assertValue(results -> results.get(0).getName().equals("prefix.referencing-subject-value")
+                        && results.get(0).getStatus() == ApplyStatus.created)
+                .assertValue(results -> results.get(1).getName().equals("prefix.subject-value")
+                        && results.get(1).getStatus() == ApplyStatus.created);
+
+        InOrder inOrder = inOrder(schemaService);
+        inOrder.verify(schemaService).register(namespace, referencedSchema);
+        inOrder.verify(schemaService).register(namespace, referencingSchema);
+    }
+
+    /**
+     * Test the batch schema creation with a chain of references and a concurrency of 1
+     * The referenced schemas should be registered first, without more than one apply in flight
+     */
+    @Test
+    void applyBatchWithReferencesWithinConcurrency() {
+        schemaController.batchConcurrency = 1;
+        Namespace namespace = buildNamespace();
+        Schema firstSchema = buildReferencingSchema("prefix.first-value", "prefix.second-value");
+        Schema secondSchema = buildReferencingSchema("prefix.second-value", "prefix.third-value");
+        Schema thirdSchema = buildSchema();
+        thirdSchema.getMetadata().setName("prefix.third-value");
+
+        AtomicInteger inFlightRegistrations = new AtomicInteger();
+        AtomicInteger maxInFlightRegistrations = new AtomicInteger();
+        List<String> registeredSubjects = new CopyOnWriteArrayList<>();
+
+        when(namespaceService.findByName("myNamespace")).thenReturn(Optional.of(namespace));
+        when(schemaService.isNamespaceOwnerOfSubject(eq(namespace), anyString())).thenReturn(true);
+        when(schemaService.validateSchemaCompatibility(eq("local"), any())).thenReturn(Single.just(List.of()));
+        when(schemaService.getLatestSubject(eq(namespace), anyString())).thenReturn(Maybe.empty());
+        when(schemaService.register(eq(namespace), any())).thenAnswer(invocation -> {
+            Schema schema = invocation.getArgument(1);
+            return Single.defer(() -> {
+                maxInFlightRegistrations.accumulateAndGet(inFlightRegistrations.incrementAndGet(), Math::max);
+                return Single.timer(20, TimeUnit.MILLISECONDS)
+                        .map(tick -> {
+                            registeredSubjects.add(schema.getMetadata().getName());
+                            return 1;
+                        })
+                        .doFinally(inFlightRegistrations::decrementAndGet);
+            });
+        });
+        when(securityService.username()).thenReturn(Optional.of("test-user"));
+        when(securityService.hasRole(ResourceBasedSecurityRule.IS_ADMIN)).thenReturn(false);
+        doNothing().when(applicationEventPublisher).publishEvent(any());
+
+        schemaController.applyBatch("myNamespace", List.of(firstSchema, secondSchema, thirdSchema), false)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertValue(results -> results.size() == 3)
+                .assertValue(results -> results.get(0).getName().equals("prefix.first-value")
+                        && results.get(0).getStatus() == ApplyStatus.created)
+                .assertValue(results -> results.get(1).getName().equals("prefix.second-value")
+                        && results.get(1).getStatus() == ApplyStatus.created)
+                .assertValue(results -> results.get(2).getName().equals("prefix.third-value")
+                        && results.get(2).getStatus() == ApplyStatus.created);
+
+        Assertions.assertEquals(List.of("prefix.third-value", "prefix.second-value", "prefix.first-value"), registeredSubjects);
+        Assertions.assertEquals(1, maxInFlightRegistrations.get());
+    }
+
     /**
      * Test the schema creation when the subject has wrong format
      */
@@ -450,6 +594,17 @@ class SchemaControllerTest {
                 .build();
     }
 
+    private Schema buildReferencingSchema(String subject, String referencedSubject) {
+        Schema schema = buildSchema();
+        schema.getMetadata().setName(subject);
+        schema.getSpec().setReferences(List.of(Schema.SchemaSpec.Reference.builder()
+                .name("com.michelin.kafka.producer.showcase.avro.PersonAvro")
+                .subject(referencedSubject)
+                .version(1)
+                .build()));
+        return schema;
+    }
+
     private SchemaList buildSchemaList() {
         return SchemaList.builder()
                 .metadata(ObjectMeta.builder()
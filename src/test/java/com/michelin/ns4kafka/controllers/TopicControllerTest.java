@@ -722,8 +722,7 @@ class TopicControllerTest {
                 .thenReturn(Optional.of(ns));
         when(topicService.listUnsynchronizedTopics(ns))
                 .thenReturn(List.of(topic1, topic2));
-        when(topicService.create(topic1)).thenReturn(topic1);
-        when(topicService.create(topic2)).thenReturn(topic2);
+        when(topicService.createAll(List.of(topic1, topic2))).thenReturn(List.of(topic1, topic2));
 
 
         List<Topic> actual = topicController.importResources("test", false);
@@ -0,0 +1,132 @@
+package com.michelin.ns4kafka.repositories.kafka;
+
+import com.michelin.ns4kafka.models.ObjectMeta;
+import com.michelin.ns4kafka.models.RoleBinding;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.Producer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaRoleBindingRepositoryTest {
+    private static final String TOPIC = "ns4kafka.role-bindings";
+
+    @Mock
+    Producer<String, RoleBinding> kafkaProducer;
+
+    KafkaRoleBindingRepository roleBindingRepository;
+
+    long offset;
+
+    @BeforeEach
+    void setUp() {
+        roleBindingRepository = new KafkaRoleBindingRepository(TOPIC, kafkaProducer);
+        offset = 0L;
+    }
+
+    /**
+     * Validate the role bindings of several groups are found, each group once even when given several times
+     */
+    @Test
+    void findAllForGroups() {
+        RoleBinding group1Binding = buildRoleBinding("ns1", "rb1", RoleBinding.SubjectType.GROUP, "group1");
+        RoleBinding group2Binding = buildRoleBinding("ns2", "rb1", RoleBinding.SubjectType.GROUP, "group2");
+        RoleBinding otherGroupBinding = buildRoleBinding("ns3", "rb1", RoleBinding.SubjectType.GROUP, "group3");
+        receive(group1Binding);
+        receive(group2Binding);
+        receive(otherGroupBinding);
+
+        Assertions.assertEquals(List.of(group1Binding, group2Binding),
+                roleBindingRepository.findAllForGroups(List.of("group1", "group2", "group1")));
+        Assertions.assertTrue(roleBindingRepository.findAllForGroups(List.of("group4")).isEmpty());
+        Assertions.assertTrue(roleBindingRepository.findAllForGroups(List.of()).isEmpty());
+    }
+
+    /**
+     * Validate the role bindings of users are not found by group, even when the user is named after a group
+     */
+    @Test
+    void findAllForGroupsExcludesUsers() {
+        RoleBinding groupBinding = buildRoleBinding("ns1", "rb1", RoleBinding.SubjectType.GROUP, "group1");
+        RoleBinding userBinding = buildRoleBinding("ns1", "rb2", RoleBinding.SubjectType.USER, "group1");
+        receive(groupBinding);
+        receive(userBinding);
+
+        Assertions.assertEquals(List.of(groupBinding), roleBindingRepository.findAllForGroups(List.of("group1")));
+        Assertions.assertEquals(List.of(groupBinding, userBinding), roleBindingRepository.findAllForNamespace("ns1"));
+    }
+
+    /**
+     * Validate a role binding whose group changes is only found by its new group,
+     * and a deleted role binding is not found anymore
+     */
+    @Test
+    void findAllForGroupsAfterGroupChangeAndDeletion() {
+        RoleBinding roleBinding = buildRoleBinding("ns1", "rb1", RoleBinding.SubjectType.GROUP, "group1");
+        RoleBinding movedRoleBinding = buildRoleBinding("ns1", "rb1", RoleBinding.SubjectType.GROUP, "group2");
+        RoleBinding deletedRoleBinding = buildRoleBinding("ns2", "rb1", RoleBinding.SubjectType.GROUP, "group1");
+        receive(roleBinding);
+        receive(deletedRoleBinding);
+
+        receive(movedRoleBinding);
+        delete(deletedRoleBinding);
+
+        Assertions.assertTrue(roleBindingRepository.findAllForGroups(List.of("group1")).isEmpty());
+        Assertions.assertEquals(List.of(movedRoleBinding), roleBindingRepository.findAllForGroups(List.of("group2")));
+        Assertions.assertTrue(roleBindingRepository.findAllForNamespace("ns2").isEmpty());
+    }
+
+    /**
+     * Validate the role bindings are grouped by group in the order the groups are given,
+     * and sorted by key within a group, whatever the order they were received in
+     */
+    @Test
+    void findAllForGroupsOrder() {
+        RoleBinding group1Binding2 = buildRoleBinding("ns2", "rb1", RoleBinding.SubjectType.GROUP, "group1");
+        RoleBinding group2Binding = buildRoleBinding("ns1", "rb2", RoleBinding.SubjectType.GROUP, "group2");
+        RoleBinding group1Binding1 = buildRoleBinding("ns1", "rb1", RoleBinding.SubjectType.GROUP, "group1");
+        receive(group1Binding2);
+        receive(group2Binding);
+        receive(group1Binding1);
+
+        Assertions.assertEquals(List.of(group2Binding, group1Binding1, group1Binding2),
+                roleBindingRepository.findAllForGroups(List.of("group2", "group1")));
+        Assertions.assertEquals(List.of(group1Binding1, group1Binding2, group2Binding),
+                roleBindingRepository.findAllForGroups(List.of("group1", "group2")));
+    }
+
+    private void receive(RoleBinding roleBinding) {
+        roleBindingRepository.receive(new ConsumerRecord<>(TOPIC, 0, offset++,
+                roleBindingRepository.getMessageKey(roleBinding), roleBinding));
+    }
+
+    private void delete(RoleBinding roleBinding) {
+        roleBindingRepository.receive(new ConsumerRecord<>(TOPIC, 0, offset++,
+                roleBindingRepository.getMessageKey(roleBinding), null));
+    }
+
+    private RoleBinding buildRoleBinding(String namespace, String name, RoleBinding.SubjectType subjectType, String subjectName) {
+        return RoleBinding.builder()
+                .metadata(ObjectMeta.builder()
+                        .name(name)
+                        .namespace(namespace)
+                        .build())
+                .spec(RoleBinding.RoleBindingSpec.builder()
+                        .role(RoleBinding.Role.builder()
+                                .resourceTypes(List.of("topics"))
+                                .verbs(List.of(RoleBinding.Verb.GET))
+                                .build())
+                        .subject(RoleBinding.Subject.builder()
+                                .subjectType(subjectType)
+                                .subjectName(subjectName)
+                                .build())
+                        .build())
+                .build();
+    }
+}
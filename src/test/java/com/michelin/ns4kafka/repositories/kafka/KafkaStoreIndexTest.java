@@ -0,0 +1,118 @@
+package com.michelin.ns4kafka.repositories.kafka;
+
+import com.michelin.ns4kafka.models.ObjectMeta;
+import com.michelin.ns4kafka.models.Topic;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class KafkaStoreIndexTest {
+    /**
+     * Validate a put adds the record to its bucket
+     */
+    @Test
+    void put() {
+        KafkaStoreIndex<Topic> index = new KafkaStoreIndex<>(topic -> topic.getMetadata().getCluster());
+        Topic topic = buildTopic("topic1", "cluster1");
+
+        index.onChange("topic1", null, topic);
+
+        Assertions.assertEquals(List.of(topic), index.find("cluster1"));
+        Assertions.assertTrue(index.find("cluster2").isEmpty());
+    }
+
+    /**
+     * Validate a replace within the same bucket keeps a single up-to-date record
+     */
+    @Test
+    void replaceSameBucket() {
+        KafkaStoreIndex<Topic> index = new KafkaStoreIndex<>(topic -> topic.getMetadata().getCluster());
+        Topic topic = buildTopic("topic1", "cluster1");
+        Topic updated = buildTopic("topic1", "cluster1");
+        updated.getMetadata().setNamespace("namespace");
+
+        index.onChange("topic1", null, topic);
+        index.onChange("topic1", topic, updated);
+
+        Assertions.assertEquals(1, index.find("cluster1").size());
+        Assertions.assertEquals("namespace", index.find("cluster1").get(0).getMetadata().getNamespace());
+    }
+
+    /**
+     * Validate a replace changing the index key moves the record from a bucket to the other
+     */
+    @Test
+    void replaceOtherBucket() {
+        KafkaStoreIndex<Topic> index = new KafkaStoreIndex<>(topic -> topic.getMetadata().getCluster());
+        Topic topic = buildTopic("topic1", "cluster1");
+        Topic other = buildTopic("topic2", "cluster1");
+        Topic moved = buildTopic("topic1", "cluster2");
+
+        index.onChange("topic1", null, topic);
+        index.onChange("topic2", null, other);
+        index.onChange("topic1", topic, moved);
+
+        Assertions.assertEquals(List.of(other), index.find("cluster1"));
+        Assertions.assertEquals(List.of(moved), index.find("cluster2"));
+    }
+
+    /**
+     * Validate a tombstone removes the record and drops the emptied bucket
+     */
+    @Test
+    void tombstone() {
+        KafkaStoreIndex<Topic> index = new KafkaStoreIndex<>(topic -> topic.getMetadata().getCluster());
+        Topic topic = buildTopic("topic1", "cluster1");
+
+        index.onChange("topic1", null, topic);
+        index.onChange("topic1", topic, null);
+
+        Assertions.assertTrue(index.find("cluster1").isEmpty());
+    }
+
+    /**
+     * Validate a prefix lookup returns the records of the bucket whose key starts with the prefix, sorted by key
+     */
+    @Test
+    void findByKeyPrefix() {
+        KafkaStoreIndex<Topic> index = new KafkaStoreIndex<>(topic -> topic.getMetadata().getCluster());
+        Topic topic1 = buildTopic("ns-topic1", "cluster1");
+        Topic topic2 = buildTopic("ns-topic2", "cluster1");
+        Topic otherPrefix = buildTopic("ns1-topic1", "cluster1");
+        Topic otherCluster = buildTopic("ns-topic3", "cluster2");
+
+        index.onChange("cluster1/ns-topic2", null, topic2);
+        index.onChange("cluster1/ns1-topic1", null, otherPrefix);
+        index.onChange("cluster1/ns-topic1", null, topic1);
+        index.onChange("cluster2/ns-topic3", null, otherCluster);
+
+        Assertions.assertEquals(List.of(topic1, topic2), index.findByKeyPrefix("cluster1", "cluster1/ns-"));
+        Assertions.assertEquals(List.of(topic1, topic2, otherPrefix), index.findByKeyPrefix("cluster1", "cluster1/"));
+        Assertions.assertTrue(index.findByKeyPrefix("cluster1", "cluster1/ns2-").isEmpty());
+        Assertions.assertTrue(index.findByKeyPrefix("cluster3", "cluster3/ns-").isEmpty());
+    }
+
+    /**
+     * Validate records without index key are not indexed
+     */
+    @Test
+    void nullIndexKey() {
+        KafkaStoreIndex<Topic> index = new KafkaStoreIndex<>(topic -> topic.getMetadata().getCluster());
+        Topic topic = buildTopic("topic1", null);
+
+        index.onChange("topic1", null, topic);
+        index.onChange("topic1", topic, null);
+
+        Assertions.assertTrue(index.find("cluster1").isEmpty());
+    }
+
+    private Topic buildTopic(String name, String cluster) {
+        return Topic.builder()
+                .metadata(ObjectMeta.builder()
+                        .name(name)
+                        .cluster(cluster)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.michelin.ns4kafka.repositories.kafka;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class KafkaStoreSnapshotTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Validate a written snapshot is read back identically
+     */
+    @Test
+    void writeAndRead() throws IOException {
+        Path file = directory.resolve("ns4kafka.topics.snapshot");
+        byte[] records = "{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8);
+
+        new KafkaStoreSnapshot("ns4kafka.topics", 42L, 1000L, records).write(file);
+        KafkaStoreSnapshot actual = KafkaStoreSnapshot.read(file);
+
+        Assertions.assertEquals("ns4kafka.topics", actual.getTopic());
+        Assertions.assertEquals(42L, actual.getOffset());
+        Assertions.assertEquals(1000L, actual.getTimestamp());
+        Assertions.assertArrayEquals(records, actual.getRecords());
+        Assertions.assertFalse(Files.exists(directory.resolve("ns4kafka.topics.snapshot.tmp")));
+    }
+
+    /**
+     * Validate a snapshot replaces the previous one
+     */
+    @Test
+    void writeReplacesPrevious() throws IOException {
+        Path file = directory.resolve("ns4kafka.topics.snapshot");
+
+        new KafkaStoreSnapshot("ns4kafka.topics", 1L, 1000L, "{}".getBytes(StandardCharsets.UTF_8)).write(file);
+        new KafkaStoreSnapshot("ns4kafka.topics", 2L, 2000L, "{}".getBytes(StandardCharsets.UTF_8)).write(file);
+
+        Assertions.assertEquals(2L, KafkaStoreSnapshot.read(file).getOffset());
+    }
+
+    /**
+     * Validate a snapshot with corrupted records fails the checksum
+     */
+    @Test
+    void readChecksumMismatch() throws IOException {
+        Path file = directory.resolve("ns4kafka.topics.snapshot");
+        new KafkaStoreSnapshot("ns4kafka.topics", 42L, 1000L, "{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8)).write(file);
+
+        // Flip a byte of the records, located just before the trailing checksum
+        byte[] content = Files.readAllBytes(file);
+        content[content.length - Long.BYTES - 2] ^= 0x01;
+        Files.write(file, content);
+
+        IOException exception = Assertions.assertThrows(IOException.class, () -> KafkaStoreSnapshot.read(file));
+        Assertions.assertEquals("Snapshot checksum mismatch", exception.getMessage());
+    }
+
+    /**
+     * Validate a file which is not a snapshot is rejected
+     */
+    @Test
+    void readUnknownFormat() throws IOException {
+        Path file = directory.resolve("ns4kafka.topics.snapshot");
+        Files.write(file, new byte[] { 0, 0, 0, 0, 0, 0, 0, 1 });
+
+        IOException exception = Assertions.assertThrows(IOException.class, () -> KafkaStoreSnapshot.read(file));
+        Assertions.assertEquals("Unknown snapshot format", exception.getMessage());
+    }
+}
@@ -0,0 +1,364 @@
+package com.michelin.ns4kafka.repositories.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.michelin.ns4kafka.config.KafkaStoreSnapshotConfig;
+import com.michelin.ns4kafka.models.ObjectMeta;
+import com.michelin.ns4kafka.models.Topic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaStoreTest {
+    private static final String TOPIC = "ns4kafka.topics";
+
+    @Mock
+    Producer<String, Topic> kafkaProducer;
+
+    @Mock
+    Consumer<String, Topic> kafkaConsumer;
+
+    @TempDir
+    Path directory;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    KafkaTopicRepository topicRepository;
+
+    @BeforeEach
+    void setUp() {
+        topicRepository = buildRepository();
+    }
+
+    /**
+     * Validate a written snapshot is loaded back into a new store, with its indexes and offset
+     */
+    @Test
+    void writeAndLoadSnapshot() {
+        topicRepository.receive(new ConsumerRecord<>(TOPIC, 0, 0L, "local/topic1", buildTopic("topic1")));
+        topicRepository.receive(new ConsumerRecord<>(TOPIC, 0, 1L, "local/topic2", buildTopic("topic2")));
+        topicRepository.lastWrittenOffset = 1L;
+        topicRepository.waitUntilKafkaReaderReachesLastOffsetInit();
+
+        topicRepository.writeSnapshot();
+
+        KafkaTopicRepository restored = buildRepository();
+        restored.loadSnapshot();
+
+        Assertions.assertEquals(1L, restored.offsetInSchemasTopic);
+        Assertions.assertEquals(1L, restored.lastSnapshotOffset);
+        Assertions.assertEquals(2, restored.findAllForCluster("local").size());
+    }
+
+    /**
+     * Validate a snapshot failing the checksum is ignored
+     */
+    @Test
+    void loadSnapshotChecksumMismatch() throws Exception {
+        writeSnapshotFile(TOPIC, 1L, System.currentTimeMillis());
+        Path file = directory.resolve(TOPIC + ".snapshot");
+        byte[] content = Files.readAllBytes(file);
+        content[content.length - Long.BYTES - 2] ^= 0x01;
+        Files.write(file, content);
+
+        topicRepository.loadSnapshot();
+
+        Assertions.assertEquals(-1L, topicRepository.offsetInSchemasTopic);
+        Assertions.assertTrue(topicRepository.findAll().isEmpty());
+    }
+
+    /**
+     * Validate a snapshot of another topic is ignored
+     */
+    @Test
+    void loadSnapshotWrongTopic() throws Exception {
+        writeSnapshotFile("other.topics", 1L, System.currentTimeMillis());
+
+        topicRepository.loadSnapshot();
+
+        Assertions.assertEquals(-1L, topicRepository.offsetInSchemasTopic);
+        Assertions.assertTrue(topicRepository.findAll().isEmpty());
+    }
+
+    /**
+     * Validate a snapshot older than the max age is ignored
+     */
+    @Test
+    void loadSnapshotTooOld() throws Exception {
+        writeSnapshotFile(TOPIC, 1L, System.currentTimeMillis() - Duration.ofHours(13).toMillis());
+
+        topicRepository.loadSnapshot();
+
+        Assertions.assertEquals(-1L, topicRepository.offsetInSchemasTopic);
+        Assertions.assertTrue(topicRepository.findAll().isEmpty());
+    }
+
+    /**
+     * Validate the consumption resumes after the snapshot offset when it is in the partition range
+     */
+    @Test
+    void onPartitionsAssignedInRange() throws Exception {
+        writeSnapshotFile(TOPIC, 10L, System.currentTimeMillis());
+        topicRepository.loadSnapshot();
+
+        TopicPartition partition = new TopicPartition(TOPIC, 0);
+        when(kafkaConsumer.beginningOffsets(List.of(partition))).thenReturn(Map.of(partition, 0L));
+        when(kafkaConsumer.endOffsets(List.of(partition))).thenReturn(Map.of(partition, 20L));
+
+        topicRepository.onPartitionsAssigned(List.of(partition));
+
+        verify(kafkaConsumer).seek(partition, 11L);
+        verify(kafkaConsumer, never()).seekToBeginning(any());
+        Assertions.assertEquals(1, topicRepository.findAll().size());
+    }
+
+    /**
+     * Validate the store is cleared and the topic replayed when the snapshot offset is out of the partition range
+     */
+    @Test
+    void onPartitionsAssignedOutOfRange() throws Exception {
+        writeSnapshotFile(TOPIC, 10L, System.currentTimeMillis());
+        topicRepository.loadSnapshot();
+
+        TopicPartition partition = new TopicPartition(TOPIC, 0);
+        when(kafkaConsumer.beginningOffsets(List.of(partition))).thenReturn(Map.of(partition, 0L));
+        when(kafkaConsumer.endOffsets(List.of(partition))).thenReturn(Map.of(partition, 5L));
+
+        topicRepository.onPartitionsAssigned(List.of(partition));
+
+        verify(kafkaConsumer).seekToBeginning(Collections.singleton(partition));
+        verify(kafkaConsumer, never()).seek(any(), anyLong());
+        Assertions.assertEquals(-1L, topicRepository.offsetInSchemasTopic);
+        Assertions.assertTrue(topicRepository.findAll().isEmpty());
+        Assertions.assertTrue(topicRepository.findAllForCluster("local").isEmpty());
+    }
+
+    /**
+     * Validate an async write completes once the local store has consumed it
+     */
+    @Test
+    void produceAsync() throws Exception {
+        stubSend(false);
+        Topic topic = buildTopic("topic1");
+
+        CompletableFuture<Topic> produced = topicRepository.produceAsync("local/topic1", topic);
+        Assertions.assertFalse(produced.isDone());
+
+        topicRepository.receive(new ConsumerRecord<>(TOPIC, 0, 0L, "local/topic1", topic));
+
+        Assertions.assertEquals(topic, produced.get(1, TimeUnit.SECONDS));
+        Assertions.assertFalse(hasOffsetWaiters());
+    }
+
+    /**
+     * Validate an async write fails when Kafka does not acknowledge it
+     */
+    @Test
+    void produceAsyncSendFailure() {
+        when(kafkaProducer.send(any(), any())).thenAnswer(invocation -> {
+            Callback callback = invocation.getArgument(1);
+            callback.onCompletion(null, new KafkaException("Broker unavailable"));
+            return null;
+        });
+
+        CompletableFuture<Topic> produced = topicRepository.produceAsync("local/topic1", buildTopic("topic1"));
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> produced.get(1, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(KafkaStoreException.class, exception.getCause());
+        Assertions.assertFalse(hasOffsetWaiters());
+    }
+
+    /**
+     * Validate an async write with no key is rejected
+     */
+    @Test
+    void produceAsyncNullKey() {
+        CompletableFuture<Topic> produced = topicRepository.produceAsync(null, buildTopic("topic1"));
+
+        Assertions.assertTrue(produced.isCompletedExceptionally());
+        verify(kafkaProducer, never()).send(any(), any());
+    }
+
+    /**
+     * Validate a batch write returns the records in the order of their keys once all are consumed
+     */
+    @Test
+    void produceAll() {
+        stubSend(true);
+        Topic topic1 = buildTopic("topic1");
+        Topic topic2 = buildTopic("topic2");
+        Map<String, Topic> messages = new LinkedHashMap<>();
+        messages.put("local/topic2", topic2);
+        messages.put("local/topic1", topic1);
+
+        List<Topic> produced = topicRepository.produceAll(messages);
+
+        Assertions.assertEquals(List.of(topic2, topic1), produced);
+        Assertions.assertEquals(1L, topicRepository.offsetInSchemasTopic);
+        Assertions.assertFalse(hasOffsetWaiters());
+    }
+
+    /**
+     * Validate a batch write with a null key is rejected before anything is sent
+     */
+    @Test
+    void produceAllNullKey() {
+        Map<String, Topic> messages = new HashMap<>();
+        messages.put(null, buildTopic("topic1"));
+
+        Assertions.assertThrows(KafkaStoreException.class, () -> topicRepository.produceAll(messages));
+        verify(kafkaProducer, never()).send(any(), any());
+    }
+
+    /**
+     * Validate a batch of topics is created in a single batch write
+     */
+    @Test
+    void createAll() {
+        stubSend(true);
+        Topic topic1 = buildTopic("topic1");
+        Topic topic2 = buildTopic("topic2");
+
+        List<Topic> created = topicRepository.createAll(List.of(topic1, topic2));
+
+        Assertions.assertEquals(List.of(topic1, topic2), created);
+        Assertions.assertEquals(2, topicRepository.findAllForCluster("local").size());
+        verify(kafkaProducer, times(2)).send(any(), any());
+    }
+
+    /**
+     * Validate a waiter of an offset never read is unregistered once timed out
+     */
+    @Test
+    void waitUntilOffsetAsyncTimeout() throws Exception {
+        topicRepository.initTimeout = 50;
+
+        CompletableFuture<Void> waiter = topicRepository.waitUntilOffsetAsync(5L);
+        Assertions.assertTrue(hasOffsetWaiters());
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> waiter.get(1, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(TimeoutException.class, exception.getCause());
+
+        // The waiter is unregistered by a stage of the timeout thread
+        long deadline = System.currentTimeMillis() + 1000;
+        while (hasOffsetWaiters() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertFalse(hasOffsetWaiters());
+    }
+
+    /**
+     * Validate a cancelled waiter is unregistered while the other waiters of the same offset are kept
+     */
+    @Test
+    void waitUntilOffsetAsyncCancelled() {
+        CompletableFuture<Void> cancelled = topicRepository.waitUntilOffsetAsync(5L);
+        CompletableFuture<Void> kept = topicRepository.waitUntilOffsetAsync(5L);
+
+        cancelled.cancel(true);
+
+        Assertions.assertTrue(hasOffsetWaiters());
+
+        topicRepository.receive(new ConsumerRecord<>(TOPIC, 0, 5L, "local/topic1", buildTopic("topic1")));
+
+        Assertions.assertTrue(kept.isDone());
+        Assertions.assertFalse(kept.isCompletedExceptionally());
+        Assertions.assertFalse(hasOffsetWaiters());
+    }
+
+    /**
+     * Validate a failing listener neither prevents the next listeners from being notified,
+     * nor the waiters of the record offset from being completed
+     */
+    @Test
+    void receiveWithFailingListener() throws Exception {
+        List<String> notifiedKeys = new ArrayList<>();
+        topicRepository.addListener((key, previous, value) -> {
+            throw new IllegalStateException("Faulty listener");
+        });
+        topicRepository.addListener((key, previous, value) -> notifiedKeys.add(key));
+
+        CompletableFuture<Void> waiter = topicRepository.waitUntilOffsetAsync(0L);
+        topicRepository.receive(new ConsumerRecord<>(TOPIC, 0, 0L, "local/topic1", buildTopic("topic1")));
+
+        Assertions.assertEquals(List.of("local/topic1"), notifiedKeys);
+        Assertions.assertEquals(1, topicRepository.findAllForCluster("local").size());
+        Assertions.assertEquals(0L, topicRepository.offsetInSchemasTopic);
+        Assertions.assertNull(waiter.get(1, TimeUnit.SECONDS));
+    }
+
+    private KafkaTopicRepository buildRepository() {
+        KafkaStoreSnapshotConfig snapshotConfig = new KafkaStoreSnapshotConfig();
+        snapshotConfig.setEnabled(true);
+        snapshotConfig.setDirectory(directory.toString());
+
+        KafkaTopicRepository repository = new KafkaTopicRepository(TOPIC, kafkaProducer);
+        repository.objectMapper = objectMapper;
+        repository.kafkaStoreSnapshotConfig = snapshotConfig;
+        repository.kafkaConsumer = kafkaConsumer;
+        repository.initTimeout = 1000;
+        return repository;
+    }
+
+    /**
+     * Acknowledge the sent records with increasing offsets
+     * @param consume true to also apply the records to the store, as the consumer would
+     */
+    private void stubSend(boolean consume) {
+        AtomicLong nextOffset = new AtomicLong();
+        when(kafkaProducer.send(any(), any())).thenAnswer(invocation -> {
+            ProducerRecord<String, Topic> producerRecord = invocation.getArgument(0);
+            Callback callback = invocation.getArgument(1);
+            long offset = nextOffset.getAndIncrement();
+            callback.onCompletion(new RecordMetadata(new TopicPartition(TOPIC, 0), offset, 0, 0L, 0, 0), null);
+            if (consume) {
+                topicRepository.receive(new ConsumerRecord<>(TOPIC, 0, offset, producerRecord.key(), producerRecord.value()));
+            }
+            return null;
+        });
+    }
+
+    private boolean hasOffsetWaiters() {
+        synchronized (topicRepository.offsetWaiters) {
+            return !topicRepository.offsetWaiters.isEmpty();
+        }
+    }
+
+    private void writeSnapshotFile(String topic, long offset, long timestamp) throws Exception {
+        byte[] records = objectMapper.writeValueAsBytes(Map.of("local/topic1", buildTopic("topic1")));
+        new KafkaStoreSnapshot(topic, offset, timestamp, records).write(directory.resolve(TOPIC + ".snapshot"));
+    }
+
+    private Topic buildTopic(String name) {
+        return Topic.builder()
+                .metadata(ObjectMeta.builder()
+                        .name(name)
+                        .cluster("local")
+                        .build())
+                .build();
+    }
+}
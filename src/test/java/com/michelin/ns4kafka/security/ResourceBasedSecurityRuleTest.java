@@ -6,12 +6,14 @@ import com.michelin.ns4kafka.models.ObjectMeta;
 import com.michelin.ns4kafka.models.RoleBinding;
 import com.michelin.ns4kafka.repositories.NamespaceRepository;
 import com.michelin.ns4kafka.repositories.RoleBindingRepository;
+import com.michelin.ns4kafka.repositories.RepositoryListener;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.security.authentication.Authentication;
 import io.micronaut.security.rules.SecurityRuleResult;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -151,6 +153,48 @@ class ResourceBasedSecurityRuleTest {
         Assertions.assertEquals(SecurityRuleResult.ALLOWED, actual);
     }
 
+    @Test
+    void checkReturnsAllowedCachedUntilRoleBindingChange() {
+        List<String> groups = List.of("group1");
+        Map<String,Object> claims = Map.of("sub","user", "groups", groups, "roles", List.of());
+        Authentication auth = Authentication.build("user", claims);
+
+        RoleBinding roleBinding = RoleBinding.builder()
+                .metadata(ObjectMeta.builder().namespace("test")
+                        .build())
+                .spec(RoleBinding.RoleBindingSpec.builder()
+                        .role(RoleBinding.Role.builder()
+                                .resourceTypes(List.of("connectors"))
+                                .verbs(List.of(RoleBinding.Verb.GET))
+                                .build())
+                        .subject(RoleBinding.Subject.builder().subjectName("group1")
+                                .build())
+                        .build())
+                .build();
+
+        Mockito.when(roleBindingRepository.findAllForGroups(groups))
+                .thenReturn(List.of(roleBinding))
+                .thenReturn(List.of());
+        Mockito.when(namespaceRepository.findByName("test"))
+                .thenReturn(Optional.of(Namespace.builder().build()));
+
+        ArgumentCaptor<RepositoryListener<RoleBinding>> listener = ArgumentCaptor.forClass(RepositoryListener.class);
+        resourceBasedSecurityRule.listenAuthorizationChanges();
+        Mockito.verify(roleBindingRepository).addListener(listener.capture());
+
+        Assertions.assertEquals(SecurityRuleResult.ALLOWED,
+                resourceBasedSecurityRule.checkSecurity(HttpRequest.GET("/api/namespaces/test/connectors"), auth));
+        Assertions.assertEquals(SecurityRuleResult.ALLOWED,
+                resourceBasedSecurityRule.checkSecurity(HttpRequest.GET("/api/namespaces/test/connectors"), auth));
+        Mockito.verify(roleBindingRepository, Mockito.times(1)).findAllForGroups(groups);
+
+        listener.getValue().onChange("test-rb", roleBinding, null);
+
+        Assertions.assertEquals(SecurityRuleResult.UNKNOWN,
+                resourceBasedSecurityRule.checkSecurity(HttpRequest.GET("/api/namespaces/test/connectors"), auth));
+        Mockito.verify(roleBindingRepository, Mockito.times(2)).findAllForGroups(groups);
+    }
+
     @Test
     void CheckReturnsAllowedSubresource() {
         List<String> groups = List.of("group1");
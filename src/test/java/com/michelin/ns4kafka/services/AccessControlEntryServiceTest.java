@@ -4,10 +4,13 @@ import com.michelin.ns4kafka.models.AccessControlEntry;
 import com.michelin.ns4kafka.models.Namespace;
 import com.michelin.ns4kafka.models.ObjectMeta;
 import com.michelin.ns4kafka.repositories.AccessControlEntryRepository;
+import com.michelin.ns4kafka.repositories.RepositoryListener;
+import com.michelin.ns4kafka.utils.PrefixTrie;
 import io.micronaut.context.ApplicationContext;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -52,7 +55,7 @@ public class AccessControlEntryServiceTest {
                 .thenReturn(namespaceService);
         Mockito.when(namespaceService.findByName("target-ns"))
                 .thenReturn(Optional.empty());
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace"))
                 .thenReturn(List.of());
         List<String> actual = accessControlEntryService.validate(badACL, ns);
         Assertions.assertLinesMatch(List.of(
@@ -89,7 +92,7 @@ public class AccessControlEntryServiceTest {
                 .thenReturn(namespaceService);
         Mockito.when(namespaceService.findByName("namespace"))
                 .thenReturn(Optional.of(ns));
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace"))
                 .thenReturn(List.of());
         List<String> actual = accessControlEntryService.validate(badACL, ns);
         Assertions.assertLinesMatch(List.of(
@@ -124,7 +127,7 @@ public class AccessControlEntryServiceTest {
                 .thenReturn(namespaceService);
         Mockito.when(namespaceService.findByName("target-ns"))
                 .thenReturn(Optional.of(Namespace.builder().build()));
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace"))
                 .thenReturn(List.of(AccessControlEntry.builder()
                         .spec(AccessControlEntry.AccessControlEntrySpec.builder()
                                 .resourceType(AccessControlEntry.ResourceType.TOPIC)
@@ -165,7 +168,7 @@ public class AccessControlEntryServiceTest {
                 .thenReturn(namespaceService);
         Mockito.when(namespaceService.findByName("target-ns"))
                 .thenReturn(Optional.of(Namespace.builder().build()));
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace"))
                 .thenReturn(List.of(AccessControlEntry.builder()
                         .spec(AccessControlEntry.AccessControlEntrySpec.builder()
                                 .resourceType(AccessControlEntry.ResourceType.TOPIC)
@@ -206,7 +209,7 @@ public class AccessControlEntryServiceTest {
                 .thenReturn(namespaceService);
         Mockito.when(namespaceService.findByName("target-ns"))
                 .thenReturn(Optional.of(Namespace.builder().build()));
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace"))
                 .thenReturn(List.of(AccessControlEntry.builder()
                         .spec(AccessControlEntry.AccessControlEntrySpec.builder()
                                 .resourceType(AccessControlEntry.ResourceType.TOPIC)
@@ -247,7 +250,7 @@ public class AccessControlEntryServiceTest {
                 .thenReturn(namespaceService);
         Mockito.when(namespaceService.findByName("target-ns"))
                 .thenReturn(Optional.of(Namespace.builder().metadata(ObjectMeta.builder().name("target-ns").build()).build()));
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace"))
                 .thenReturn(List.of(AccessControlEntry.builder()
                         .spec(AccessControlEntry.AccessControlEntrySpec.builder()
                                 .resourceType(AccessControlEntry.ResourceType.TOPIC)
@@ -288,7 +291,7 @@ public class AccessControlEntryServiceTest {
                 .thenReturn(namespaceService);
         Mockito.when(namespaceService.findByName("*"))
                 .thenReturn(Optional.empty());
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace"))
                 .thenReturn(List.of(AccessControlEntry.builder()
                         .spec(AccessControlEntry.AccessControlEntrySpec.builder()
                                 .resourceType(AccessControlEntry.ResourceType.TOPIC)
@@ -327,7 +330,7 @@ public class AccessControlEntryServiceTest {
                         .build())
                 .build();
 
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllForCluster("local"))
                 .thenReturn(List.of(accessControlEntry));
 
         List<String> actual = accessControlEntryService.validateAsAdmin(accessControlEntry, namespace);
@@ -414,7 +417,7 @@ public class AccessControlEntryServiceTest {
                         .grantedTo("target-ns")
                         .build())
                 .build();
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllForCluster("local"))
                 .thenReturn(List.of(existing1, existing2));
 
         // Test 1
@@ -505,7 +508,7 @@ public class AccessControlEntryServiceTest {
                         .grantedTo("target-ns")
                         .build())
                 .build();
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllForCluster("local"))
                 .thenReturn(List.of(existing1, existing2));
 
         // Test 1
@@ -596,7 +599,7 @@ public class AccessControlEntryServiceTest {
                         .grantedTo("target-ns")
                         .build())
                 .build();
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllForCluster("local"))
                 .thenReturn(List.of(existing1, existing2));
 
         // Test 1
@@ -732,7 +735,7 @@ public class AccessControlEntryServiceTest {
                         .grantedTo("target-ns")
                         .build())
                 .build();
-        Mockito.when(accessControlEntryRepository.findAll())
+        Mockito.when(accessControlEntryRepository.findAllForCluster("local"))
                 .thenReturn(List.of(existing1, existing2, existing3));
 
         // Test 1
@@ -761,8 +764,10 @@ public class AccessControlEntryServiceTest {
         AccessControlEntry ace4 = AccessControlEntry.builder()
                 .spec(AccessControlEntry.AccessControlEntrySpec.builder().grantedTo("*").build()).build();
 
-        Mockito.when(accessControlEntryRepository.findAll())
-                .thenReturn(List.of(ace1, ace2, ace3, ace4));
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace1"))
+                .thenReturn(List.of(ace1, ace2));
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("*"))
+                .thenReturn(List.of(ace4));
         List<AccessControlEntry> actual = accessControlEntryService.findAllGrantedToNamespace(ns);
         Assertions.assertEquals(3, actual.size());
     }
@@ -780,8 +785,8 @@ public class AccessControlEntryServiceTest {
         AccessControlEntry ace4 = AccessControlEntry.builder()
                 .spec(AccessControlEntry.AccessControlEntrySpec.builder().grantedTo("*").build()).build();
 
-        Mockito.when(accessControlEntryRepository.findAll())
-                .thenReturn(List.of(ace1, ace2, ace3, ace4));
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("*"))
+                .thenReturn(List.of(ace4));
         List<AccessControlEntry> actual = accessControlEntryService.findAllPublicGrantedTo();
         Assertions.assertEquals(1, actual.size());
     }
@@ -800,8 +805,8 @@ public class AccessControlEntryServiceTest {
                 .metadata(ObjectMeta.builder().namespace("namespace2").build())
                 .spec(AccessControlEntry.AccessControlEntrySpec.builder().grantedTo("namespace2").build()).build();
 
-        Mockito.when(accessControlEntryRepository.findAll())
-                .thenReturn(List.of(ace1, ace2, ace3));
+        Mockito.when(accessControlEntryRepository.findAllForNamespace("namespace1"))
+                .thenReturn(List.of(ace1, ace2));
         List<AccessControlEntry> actual = accessControlEntryService.findAllForNamespace(ns);
         Assertions.assertEquals(2, actual.size());
     }
@@ -856,8 +861,12 @@ public class AccessControlEntryServiceTest {
                         .build()
                 )
                 .build();
-        Mockito.when(accessControlEntryRepository.findAll())
-                .thenReturn(List.of(ace1, ace2, ace3));
+        Mockito.when(accessControlEntryRepository.findAllOwnersOfResource(AccessControlEntry.ResourceType.CONNECT, "connect"))
+                .thenReturn(List.of(ace2));
+        Mockito.when(accessControlEntryRepository.findAllOwnersOfResource(AccessControlEntry.ResourceType.TOPIC, "main"))
+                .thenReturn(List.of(ace1));
+        Mockito.when(accessControlEntryRepository.findAllOwnersOfResource(AccessControlEntry.ResourceType.TOPIC, "main.sub"))
+                .thenReturn(List.of(ace1));
         Assertions.assertTrue(
                 accessControlEntryService.isNamespaceOwnerOfResource("namespace",
                         AccessControlEntry.ResourceType.CONNECT,
@@ -879,4 +888,72 @@ public class AccessControlEntryServiceTest {
                         AccessControlEntry.ResourceType.CONNECT,
                         "connect"));
     }
+
+    /**
+     * Validate the owned topics matcher of a namespace is built from its OWNER TOPIC ACLs only,
+     * and cached until one of them changes
+     */
+    @Test
+    void getOwnedTopicsMatcher() {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace")
+                        .cluster("local")
+                        .build())
+                .build();
+        AccessControlEntry ownerPrefixed = buildTopicAccessControlEntry(AccessControlEntry.Permission.OWNER,
+                AccessControlEntry.ResourcePatternType.PREFIXED, "ns-");
+        AccessControlEntry ownerLiteral = buildTopicAccessControlEntry(AccessControlEntry.Permission.OWNER,
+                AccessControlEntry.ResourcePatternType.LITERAL, "shared.topic");
+        AccessControlEntry read = buildTopicAccessControlEntry(AccessControlEntry.Permission.READ,
+                AccessControlEntry.ResourcePatternType.PREFIXED, "other-");
+
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace"))
+                .thenReturn(List.of(ownerPrefixed, read));
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo(AccessControlEntryService.PUBLIC_GRANTED_TO))
+                .thenReturn(List.of());
+
+        ArgumentCaptor<RepositoryListener<AccessControlEntry>> listener = ArgumentCaptor.forClass(RepositoryListener.class);
+        accessControlEntryService.listenAccessControlEntryChanges();
+        Mockito.verify(accessControlEntryRepository).addListener(listener.capture());
+
+        PrefixTrie<AccessControlEntry> ownedTopics = accessControlEntryService.getOwnedTopicsMatcher(ns);
+        Assertions.assertEquals(List.of(ownerPrefixed), ownedTopics.findMatches("ns-topic"));
+        Assertions.assertTrue(ownedTopics.findMatches("other-topic").isEmpty());
+        Assertions.assertTrue(ownedTopics.findMatches("shared.topic").isEmpty());
+
+        // The matcher is cached, and kept on a change of another permission
+        listener.getValue().onChange("local/read", null, read);
+        Assertions.assertSame(ownedTopics, accessControlEntryService.getOwnedTopicsMatcher(ns));
+        Mockito.verify(accessControlEntryRepository, Mockito.times(1)).findAllGrantedTo("namespace");
+
+        // The matcher is rebuilt on a change of an OWNER TOPIC ACL
+        Mockito.when(accessControlEntryRepository.findAllGrantedTo("namespace"))
+                .thenReturn(List.of(ownerPrefixed, ownerLiteral, read));
+        listener.getValue().onChange("local/literal", null, ownerLiteral);
+
+        PrefixTrie<AccessControlEntry> updatedOwnedTopics = accessControlEntryService.getOwnedTopicsMatcher(ns);
+        Assertions.assertNotSame(ownedTopics, updatedOwnedTopics);
+        Assertions.assertEquals(List.of(ownerLiteral), updatedOwnedTopics.findMatches("shared.topic"));
+        Assertions.assertTrue(updatedOwnedTopics.findMatches("shared.topic2").isEmpty());
+    }
+
+    private AccessControlEntry buildTopicAccessControlEntry(AccessControlEntry.Permission permission,
+                                                            AccessControlEntry.ResourcePatternType resourcePatternType,
+                                                            String resource) {
+        return AccessControlEntry.builder()
+                .metadata(ObjectMeta.builder()
+                        .name(resource)
+                        .namespace("admin")
+                        .cluster("local")
+                        .build())
+                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
+                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
+                        .resourcePatternType(resourcePatternType)
+                        .permission(permission)
+                        .resource(resource)
+                        .grantedTo("namespace")
+                        .build())
+                .build();
+    }
 }
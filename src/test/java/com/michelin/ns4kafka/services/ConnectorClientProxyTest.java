@@ -2,20 +2,23 @@ package com.michelin.ns4kafka.services;
 
 import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
 import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig.ConnectConfig;
+import com.michelin.ns4kafka.config.ProxyHttpClientConfig;
 import com.michelin.ns4kafka.config.SecurityConfig;
 import com.michelin.ns4kafka.models.ObjectMeta;
 import com.michelin.ns4kafka.models.connect.cluster.ConnectCluster;
+import com.michelin.ns4kafka.repositories.ConnectClusterRepository;
+import com.michelin.ns4kafka.repositories.RepositoryListener;
 import com.michelin.ns4kafka.services.connect.ConnectorClientProxy;
 import com.michelin.ns4kafka.utils.EncryptionUtils;
 import com.michelin.ns4kafka.utils.exceptions.ResourceValidationException;
 import io.micronaut.core.async.publisher.Publishers;
 import io.micronaut.http.*;
-import io.micronaut.http.client.ProxyHttpClient;
 import io.micronaut.http.simple.SimpleHttpRequest;
 import io.reactivex.rxjava3.subscribers.TestSubscriber;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -31,13 +34,13 @@ import java.util.stream.Stream;
 @ExtendWith(MockitoExtension.class)
 class ConnectorClientProxyTest {
     @Mock
-    ProxyHttpClient client;
+    ProxyHttpClientService proxyHttpClientService;
 
     @Mock
     List<KafkaAsyncExecutorConfig> kafkaAsyncExecutorConfigs;
 
     @Mock
-    ConnectClusterService connectClusterService;
+    ConnectClusterRepository connectClusterRepository;
 
     @Mock
     SecurityConfig securityConfig;
@@ -133,6 +136,7 @@ class ConnectorClientProxyTest {
                 .header(ConnectorClientProxy.PROXY_HEADER_KAFKA_CLUSTER, "local")
                 .header(ConnectorClientProxy.PROXY_HEADER_CONNECT_CLUSTER, "local-name");
         Mockito.when(kafkaAsyncExecutorConfigs.stream()).thenReturn(Stream.empty());
+        proxy.buildRoutingTable();
 
         TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
         Publisher<MutableHttpResponse<?>> mutableHttpResponsePublisher = proxy.doFilter(request, null);
@@ -159,6 +163,7 @@ class ConnectorClientProxyTest {
 
         Mockito.when(kafkaAsyncExecutorConfigs.stream())
                 .thenReturn(Stream.of(config));
+        proxy.buildRoutingTable();
 
         TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
         Publisher<MutableHttpResponse<?>> mutableHttpResponsePublisher = proxy.doFilter(request, null);
@@ -183,14 +188,17 @@ class ConnectorClientProxyTest {
         KafkaAsyncExecutorConfig config1 = new KafkaAsyncExecutorConfig("local");
         ConnectConfig connectConfig = new KafkaAsyncExecutorConfig.ConnectConfig();
         connectConfig.setUrl("https://target/");
+        connectConfig.setMaxConnections(5);
         config1.setConnects(Map.of("local-name",connectConfig));
         // Should not interfere
         KafkaAsyncExecutorConfig config2 = new KafkaAsyncExecutorConfig("not-match");
 
         Mockito.when(kafkaAsyncExecutorConfigs.stream())
                 .thenReturn(Stream.of(config1, config2));
-        Mockito.when(client.proxy(ArgumentMatchers.any(MutableHttpRequest.class)))
+        Mockito.when(proxyHttpClientService.proxy(ArgumentMatchers.eq("https://target/"),
+                        ArgumentMatchers.eq(new ProxyHttpClientConfig.PoolOverrides(5, null, null)), ArgumentMatchers.any(MutableHttpRequest.class)))
                 .thenReturn(Publishers.just(HttpResponse.ok()));
+        proxy.buildRoutingTable();
 
         TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
         Publisher<MutableHttpResponse<?>> mutableHttpResponsePublisher = proxy.doFilter(request, null);
@@ -217,6 +225,7 @@ class ConnectorClientProxyTest {
 
         ConnectCluster connectCluster = ConnectCluster.builder()
                 .metadata(ObjectMeta.builder().name("connect-cluster")
+                        .cluster("local")
                         .build())
                 .spec(ConnectCluster.ConnectClusterSpec.builder()
                         .url("https://my-custom-connect-cluster")
@@ -227,12 +236,13 @@ class ConnectorClientProxyTest {
 
         Mockito.when(kafkaAsyncExecutorConfigs.stream())
                 .thenReturn(Stream.of(config1, config2));
-        Mockito.when(connectClusterService.findAll())
+        Mockito.when(connectClusterRepository.findAll())
                 .thenReturn(List.of(connectCluster));
-        Mockito.when(client.proxy(ArgumentMatchers.any(MutableHttpRequest.class)))
+        Mockito.when(proxyHttpClientService.proxy(ArgumentMatchers.eq("https://my-custom-connect-cluster"), ArgumentMatchers.any(), ArgumentMatchers.any(MutableHttpRequest.class)))
                 .thenReturn(Publishers.just(HttpResponse.ok()));
         Mockito.when(securityConfig.getAes256EncryptionKey())
                 .thenReturn("changeitchangeitchangeitchangeit");
+        proxy.buildRoutingTable();
 
         TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
         Publisher<MutableHttpResponse<?>> mutableHttpResponsePublisher = proxy.doFilter(request, null);
@@ -244,6 +254,137 @@ class ConnectorClientProxyTest {
         subscriber.assertValue(mutableHttpResponse -> mutableHttpResponse.status() == HttpStatus.OK);
     }
 
+    @Test
+    void doFilterSuccessSelfDeployedConnectClusterFromStoreChange() {
+        KafkaAsyncExecutorConfig config = new KafkaAsyncExecutorConfig("local");
+        config.setConnects(Map.of());
+
+        ConnectCluster connectCluster = ConnectCluster.builder()
+                .metadata(ObjectMeta.builder().name("connect-cluster")
+                        .cluster("local")
+                        .build())
+                .spec(ConnectCluster.ConnectClusterSpec.builder()
+                        .url("https://my-custom-connect-cluster")
+                        .username("myUsername")
+                        .password(EncryptionUtils.encryptAES256GCM("myPassword", "changeitchangeitchangeitchangeit"))
+                        .build())
+                .build();
+
+        Mockito.when(kafkaAsyncExecutorConfigs.stream())
+                .thenReturn(Stream.of(config));
+        Mockito.when(proxyHttpClientService.proxy(ArgumentMatchers.eq("https://my-custom-connect-cluster"), ArgumentMatchers.any(), ArgumentMatchers.any(MutableHttpRequest.class)))
+                .thenReturn(Publishers.just(HttpResponse.ok()));
+        Mockito.when(securityConfig.getAes256EncryptionKey())
+                .thenReturn("changeitchangeitchangeitchangeit");
+
+        ArgumentCaptor<RepositoryListener<ConnectCluster>> listener = ArgumentCaptor.forClass(RepositoryListener.class);
+        proxy.buildRoutingTable();
+        Mockito.verify(connectClusterRepository).addListener(listener.capture());
+        listener.getValue().onChange("test/connect-cluster", null, connectCluster);
+
+        for (int i = 0; i < 2; i++) {
+            MutableHttpRequest<?> request = new MutableSimpleHttpRequest<>("http://localhost/connect-proxy/connectors")
+                    .header("X-Proxy-Secret", ConnectorClientProxy.PROXY_SECRET)
+                    .header(ConnectorClientProxy.PROXY_HEADER_KAFKA_CLUSTER, "local")
+                    .header(ConnectorClientProxy.PROXY_HEADER_CONNECT_CLUSTER, "connect-cluster");
+
+            TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
+            proxy.doFilter(request, null).subscribe(subscriber);
+            subscriber.awaitDone(1L, TimeUnit.SECONDS);
+
+            subscriber.assertValueCount(1);
+            subscriber.assertValue(mutableHttpResponse -> mutableHttpResponse.status() == HttpStatus.OK);
+        }
+
+        // The password is decrypted once, when the store change is received
+        Mockito.verify(securityConfig, Mockito.times(1)).getAes256EncryptionKey();
+
+        listener.getValue().onChange("test/connect-cluster", connectCluster, null);
+        Mockito.verify(proxyHttpClientService).close("https://my-custom-connect-cluster");
+
+        MutableHttpRequest<?> request = new MutableSimpleHttpRequest<>("http://localhost/connect-proxy/connectors")
+                .header("X-Proxy-Secret", ConnectorClientProxy.PROXY_SECRET)
+                .header(ConnectorClientProxy.PROXY_HEADER_KAFKA_CLUSTER, "local")
+                .header(ConnectorClientProxy.PROXY_HEADER_CONNECT_CLUSTER, "connect-cluster");
+
+        TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
+        proxy.doFilter(request, null).subscribe(subscriber);
+        subscriber.awaitDone(1L, TimeUnit.SECONDS);
+
+        subscriber.assertError(throwable ->
+                ((ResourceValidationException)throwable)
+                        .getValidationErrors()
+                        .contains("Connect cluster [connect-cluster] not found")
+        );
+    }
+
+    @Test
+    void doFilterSelfDeployedConnectClusterUndecryptablePassword() {
+        KafkaAsyncExecutorConfig config = new KafkaAsyncExecutorConfig("local");
+        config.setConnects(Map.of());
+
+        ConnectCluster brokenConnectCluster = ConnectCluster.builder()
+                .metadata(ObjectMeta.builder().name("broken-connect-cluster")
+                        .cluster("local")
+                        .build())
+                .spec(ConnectCluster.ConnectClusterSpec.builder()
+                        .url("https://my-broken-connect-cluster")
+                        .username("myUsername")
+                        .password("plain")
+                        .build())
+                .build();
+
+        ConnectCluster connectCluster = ConnectCluster.builder()
+                .metadata(ObjectMeta.builder().name("connect-cluster")
+                        .cluster("local")
+                        .build())
+                .spec(ConnectCluster.ConnectClusterSpec.builder()
+                        .url("https://my-custom-connect-cluster")
+                        .username("myUsername")
+                        .password(EncryptionUtils.encryptAES256GCM("myPassword", "changeitchangeitchangeitchangeit"))
+                        .build())
+                .build();
+
+        Mockito.when(kafkaAsyncExecutorConfigs.stream())
+                .thenReturn(Stream.of(config));
+        Mockito.when(connectClusterRepository.findAll())
+                .thenReturn(List.of(brokenConnectCluster, connectCluster));
+        Mockito.when(proxyHttpClientService.proxy(ArgumentMatchers.eq("https://my-custom-connect-cluster"), ArgumentMatchers.any(), ArgumentMatchers.any(MutableHttpRequest.class)))
+                .thenReturn(Publishers.just(HttpResponse.ok()));
+        Mockito.when(securityConfig.getAes256EncryptionKey())
+                .thenReturn("changeitchangeitchangeitchangeit");
+
+        // The Connect cluster whose password cannot be decrypted does not prevent the others from being routed
+        proxy.buildRoutingTable();
+
+        MutableHttpRequest<?> brokenRequest = new MutableSimpleHttpRequest<>("http://localhost/connect-proxy/connectors")
+                .header("X-Proxy-Secret", ConnectorClientProxy.PROXY_SECRET)
+                .header(ConnectorClientProxy.PROXY_HEADER_KAFKA_CLUSTER, "local")
+                .header(ConnectorClientProxy.PROXY_HEADER_CONNECT_CLUSTER, "broken-connect-cluster");
+
+        TestSubscriber<MutableHttpResponse<?>> brokenSubscriber = new TestSubscriber<>();
+        proxy.doFilter(brokenRequest, null).subscribe(brokenSubscriber);
+        brokenSubscriber.awaitDone(1L, TimeUnit.SECONDS);
+
+        brokenSubscriber.assertError(throwable ->
+                ((ResourceValidationException)throwable)
+                        .getValidationErrors()
+                        .contains("Connect cluster [broken-connect-cluster] not found")
+        );
+
+        MutableHttpRequest<?> request = new MutableSimpleHttpRequest<>("http://localhost/connect-proxy/connectors")
+                .header("X-Proxy-Secret", ConnectorClientProxy.PROXY_SECRET)
+                .header(ConnectorClientProxy.PROXY_HEADER_KAFKA_CLUSTER, "local")
+                .header(ConnectorClientProxy.PROXY_HEADER_CONNECT_CLUSTER, "connect-cluster");
+
+        TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
+        proxy.doFilter(request, null).subscribe(subscriber);
+        subscriber.awaitDone(1L, TimeUnit.SECONDS);
+
+        subscriber.assertValueCount(1);
+        subscriber.assertValue(mutableHttpResponse -> mutableHttpResponse.status() == HttpStatus.OK);
+    }
+
     @Test
     void testMutateKafkaConnectRequest() {
         MutableHttpRequest<?> request = new MutableSimpleHttpRequest<>("http://localhost/connect-proxy/connectors");
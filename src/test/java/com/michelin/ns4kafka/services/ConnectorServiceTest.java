@@ -559,6 +559,44 @@ class ConnectorServiceTest {
                 .assertValue(List::isEmpty);
     }
 
+    @Test
+    void validateLocallyCachesConnectorPlugins() {
+        Connector connector = Connector.builder()
+                .metadata(ObjectMeta.builder().name("connect1").build())
+                .spec(Connector.ConnectorSpec.builder()
+                        .connectCluster("local-name")
+                        .config(Map.of("connector.class", "org.apache.kafka.connect.file.FileStreamSinkConnector"))
+                        .build())
+                .build();
+
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace")
+                        .cluster("local")
+                        .build())
+                .spec(Namespace.NamespaceSpec.builder()
+                        .connectValidator(ConnectValidator.builder()
+                                .classValidationConstraints(Map.of())
+                                .sinkValidationConstraints(Map.of())
+                                .sourceValidationConstraints(Map.of())
+                                .build())
+                        .connectClusters(List.of("local-name"))
+                        .build())
+                .build();
+
+        when(connectorClient.connectPlugins(ConnectorClientProxy.PROXY_SECRET, "local", "local-name"))
+                .thenReturn(Single.just(List.of(new ConnectorPluginInfo("org.apache.kafka.connect.file.FileStreamSinkConnector", ConnectorType.SINK, "v1"))));
+
+        connectorService.validateLocally(ns, connector)
+                .test()
+                .assertValue(List::isEmpty);
+        connectorService.validateLocally(ns, connector)
+                .test()
+                .assertValue(List::isEmpty);
+
+        verify(connectorClient, times(1)).connectPlugins(ConnectorClientProxy.PROXY_SECRET, "local", "local-name");
+    }
+
     @Test
     void validateLocallySuccessNoSinkValidationConstraint() {
         Connector connector = Connector.builder()
@@ -902,6 +940,119 @@ class ConnectorServiceTest {
                 .assertValue(response -> response.size() == 0);
     }
 
+    /**
+     * Test to find all connectors by namespace with their cached statuses
+     */
+    @Test
+    void findByNamespaceWithStatus() {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace")
+                        .cluster("local")
+                        .build())
+                .spec(NamespaceSpec.builder()
+                        .connectClusters(List.of("local-name"))
+                        .build())
+                .build();
+
+        ConnectorAsyncExecutor connectorAsyncExecutor = mock(ConnectorAsyncExecutor.class);
+        when(applicationContext.getBean(ConnectorAsyncExecutor.class,
+                Qualifiers.byName(ns.getMetadata().getCluster()))).thenReturn(connectorAsyncExecutor);
+
+        Connector c1 = Connector.builder()
+                .metadata(ObjectMeta.builder().name("ns-connect1").build())
+                .spec(Connector.ConnectorSpec.builder().connectCluster("local-name").build())
+                .status(Connector.ConnectorStatus.builder().state(Connector.TaskState.UNASSIGNED).build())
+                .build();
+        Connector c2 = Connector.builder()
+                .metadata(ObjectMeta.builder().name("ns-connect2").build())
+                .spec(Connector.ConnectorSpec.builder().connectCluster("local-name").build())
+                .status(Connector.ConnectorStatus.builder().state(Connector.TaskState.UNASSIGNED).build())
+                .build();
+
+        when(connectorRepository.findAllForCluster("local"))
+                .thenReturn(List.of(c1, c2));
+        when(accessControlEntryService.findAllGrantedToNamespace(ns))
+                .thenReturn(List.of(
+                        AccessControlEntry.builder()
+                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
+                                        .permission(AccessControlEntry.Permission.OWNER)
+                                        .grantedTo("namespace")
+                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
+                                        .resourceType(AccessControlEntry.ResourceType.CONNECT)
+                                        .resource("ns-")
+                                        .build())
+                                .build()
+                ));
+        when(connectorAsyncExecutor.getCachedStatus("local-name", "ns-connect1"))
+                .thenReturn(Optional.of(Connector.ConnectorStatus.builder().state(Connector.TaskState.RUNNING).build()));
+        when(connectorAsyncExecutor.getCachedStatus("local-name", "ns-connect2"))
+                .thenReturn(Optional.empty());
+
+        List<Connector> actual = connectorService.findAllForNamespaceWithStatus(ns);
+
+        Assertions.assertEquals(2, actual.size());
+        Assertions.assertEquals(Connector.TaskState.RUNNING, actual.get(0).getStatus().getState());
+        Assertions.assertEquals(Connector.TaskState.UNASSIGNED, actual.get(1).getStatus().getState());
+        // The stored connectors are left untouched
+        Assertions.assertEquals(Connector.TaskState.UNASSIGNED, c1.getStatus().getState());
+    }
+
+    /**
+     * Test the listing of drifted connectors, served from the last synchronization and restricted to the ones owned by the namespace
+     */
+    @Test
+    void listDriftedConnectors() {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace")
+                        .cluster("local")
+                        .build())
+                .spec(NamespaceSpec.builder()
+                        .connectClusters(List.of("local-name"))
+                        .build())
+                .build();
+
+        ConnectorAsyncExecutor connectorAsyncExecutor = mock(ConnectorAsyncExecutor.class);
+        when(applicationContext.getBean(ConnectorAsyncExecutor.class,
+                Qualifiers.byName(ns.getMetadata().getCluster()))).thenReturn(connectorAsyncExecutor);
+
+        Connector c1 = Connector.builder()
+                .metadata(ObjectMeta.builder().name("ns-connect1").build())
+                .spec(Connector.ConnectorSpec.builder().connectCluster("local-name").build())
+                .build();
+        Connector c2 = Connector.builder()
+                .metadata(ObjectMeta.builder().name("ns-connect2").build())
+                .spec(Connector.ConnectorSpec.builder().connectCluster("local-name").build())
+                .build();
+        Connector c3 = Connector.builder()
+                .metadata(ObjectMeta.builder().name("other-connect1").build())
+                .spec(Connector.ConnectorSpec.builder().connectCluster("local-name").build())
+                .build();
+
+        when(connectorRepository.findAllForCluster("local"))
+                .thenReturn(List.of(c1, c2, c3));
+        when(accessControlEntryService.findAllGrantedToNamespace(ns))
+                .thenReturn(List.of(
+                        AccessControlEntry.builder()
+                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
+                                        .permission(AccessControlEntry.Permission.OWNER)
+                                        .grantedTo("namespace")
+                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
+                                        .resourceType(AccessControlEntry.ResourceType.CONNECT)
+                                        .resource("ns-")
+                                        .build())
+                                .build()
+                ));
+        when(connectorAsyncExecutor.isCachedOutOfSync("local-name", "ns-connect1")).thenReturn(false);
+        when(connectorAsyncExecutor.isCachedOutOfSync("local-name", "ns-connect2")).thenReturn(true);
+
+        List<Connector> actual = connectorService.listDriftedConnectors(ns);
+
+        Assertions.assertEquals(List.of(c2), actual);
+        verify(connectorAsyncExecutor, never()).collectBrokerConnectors(any());
+    }
+
     /**
      * Test the listing of unsynchronized connectors when some are synchronized and some not
      */
@@ -4,7 +4,6 @@ import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
 import com.michelin.ns4kafka.services.schema.KafkaSchemaRegistryClientProxy;
 import com.michelin.ns4kafka.utils.exceptions.ResourceValidationException;
 import io.micronaut.http.*;
-import io.micronaut.http.client.ProxyHttpClient;
 import io.micronaut.http.simple.SimpleHttpRequest;
 import io.reactivex.rxjava3.subscribers.TestSubscriber;
 import org.junit.jupiter.api.Assertions;
@@ -21,12 +20,13 @@ import java.util.stream.Stream;
 
 import static io.micronaut.core.async.publisher.Publishers.just;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class KafkaSchemaRegistryClientProxyTest {
     @Mock
-    ProxyHttpClient client;
+    ProxyHttpClientService proxyHttpClientService;
 
     @Mock
     List<KafkaAsyncExecutorConfig> kafkaAsyncExecutorConfigs;
@@ -101,6 +101,7 @@ class KafkaSchemaRegistryClientProxyTest {
                 .header(KafkaSchemaRegistryClientProxy.PROXY_HEADER_KAFKA_CLUSTER, "local");
 
         when(kafkaAsyncExecutorConfigs.stream()).thenReturn(Stream.empty());
+        proxy.buildRoutingTable();
 
         TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
         Publisher<MutableHttpResponse<?>> mutableHttpResponsePublisher = proxy.doFilter(request, null);
@@ -122,6 +123,7 @@ class KafkaSchemaRegistryClientProxyTest {
                 .header(KafkaSchemaRegistryClientProxy.PROXY_HEADER_KAFKA_CLUSTER, "local");
 
         when(kafkaAsyncExecutorConfigs.stream()).thenReturn(Stream.of(new KafkaAsyncExecutorConfig("local")));
+        proxy.buildRoutingTable();
 
         TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
         Publisher<MutableHttpResponse<?>> mutableHttpResponsePublisher = proxy.doFilter(request, null);
@@ -148,8 +150,9 @@ class KafkaSchemaRegistryClientProxyTest {
 
         when(kafkaAsyncExecutorConfigs.stream())
                 .thenReturn(Stream.of(kafkaAsyncExecutorConfig));
+        proxy.buildRoutingTable();
 
-        when(client.proxy(any(MutableHttpRequest.class)))
+        when(proxyHttpClientService.proxy(eq("http://schema-registry"), any(), any(MutableHttpRequest.class)))
                 .thenReturn(just(HttpResponse.ok()));
 
         TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
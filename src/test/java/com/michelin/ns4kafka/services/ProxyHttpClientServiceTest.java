@@ -0,0 +1,169 @@
+package com.michelin.ns4kafka.services;
+
+import com.michelin.ns4kafka.config.ProxyHttpClientConfig;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.client.HttpClientConfiguration;
+import io.micronaut.http.client.ProxyHttpClient;
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProxyHttpClientServiceTest {
+    private static final String URL = "https://my-custom-connect-cluster";
+
+    ProxyHttpClientService proxyHttpClientService;
+
+    final List<ProxyHttpClient> createdClients = new ArrayList<>();
+
+    final List<ProxyHttpClient> closedClients = new ArrayList<>();
+
+    final List<PublishProcessor<MutableHttpResponse<?>>> responses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        proxyHttpClientService = new ProxyHttpClientService() {
+            @Override
+            ProxyHttpClient createProxyHttpClient(String url, HttpClientConfiguration configuration) {
+                ProxyHttpClient client = mock(ProxyHttpClient.class);
+                when(client.proxy(any(MutableHttpRequest.class))).thenAnswer(invocation -> {
+                    PublishProcessor<MutableHttpResponse<?>> response = PublishProcessor.create();
+                    responses.add(response);
+                    return response;
+                });
+                createdClients.add(client);
+                return client;
+            }
+
+            @Override
+            void closeProxyHttpClient(String url, ProxyHttpClient client) {
+                closedClients.add(client);
+            }
+        };
+        proxyHttpClientService.proxyHttpClientConfig = new ProxyHttpClientConfig();
+    }
+
+    /**
+     * Validate the client of a backend is created on the first request and reused by the next ones
+     */
+    @Test
+    void proxyReusesClient() {
+        TestSubscriber<MutableHttpResponse<?>> first = proxy();
+        TestSubscriber<MutableHttpResponse<?>> second = proxy();
+
+        Assertions.assertEquals(1, createdClients.size());
+        Assertions.assertEquals(2, proxyHttpClientService.getInFlightRequests(URL));
+
+        complete(0);
+        complete(1);
+
+        first.assertComplete();
+        second.assertComplete();
+        Assertions.assertEquals(0, proxyHttpClientService.getInFlightRequests(URL));
+        Assertions.assertTrue(closedClients.isEmpty());
+    }
+
+    /**
+     * Validate the client of a backend without requests in flight is closed right away
+     */
+    @Test
+    void closeIdleClient() {
+        proxy();
+        complete(0);
+
+        proxyHttpClientService.close(URL);
+
+        Assertions.assertEquals(createdClients, closedClients);
+    }
+
+    /**
+     * Validate the client of a backend is closed once its requests in flight complete,
+     * while the requests received in the meantime use a new client
+     */
+    @Test
+    void closeClientWithRequestsInFlight() {
+        TestSubscriber<MutableHttpResponse<?>> inFlight = proxy();
+
+        proxyHttpClientService.close(URL);
+
+        // The request in flight is not cut off
+        Assertions.assertTrue(closedClients.isEmpty());
+
+        TestSubscriber<MutableHttpResponse<?>> next = proxy();
+        Assertions.assertEquals(2, createdClients.size());
+
+        complete(0);
+        inFlight.assertComplete();
+        Assertions.assertEquals(List.of(createdClients.get(0)), closedClients);
+
+        complete(1);
+        next.assertComplete();
+        Assertions.assertEquals(List.of(createdClients.get(0)), closedClients);
+    }
+
+    /**
+     * Validate the client of a backend is closed once, even when its last request fails after the close
+     */
+    @Test
+    void closeClientOnce() {
+        TestSubscriber<MutableHttpResponse<?>> inFlight = proxy();
+
+        proxyHttpClientService.close(URL);
+        proxyHttpClientService.close(URL);
+        responses.get(0).onError(new IllegalStateException("Connection reset"));
+
+        inFlight.assertError(IllegalStateException.class);
+        Assertions.assertEquals(createdClients, closedClients);
+
+        proxyHttpClientService.closeAll();
+        Assertions.assertEquals(1, closedClients.size());
+    }
+
+    /**
+     * Validate the pool settings of a backend override the default ones, the unset ones falling back to their default
+     */
+    @Test
+    void buildHttpClientConfigurationWithPoolOverrides() {
+        HttpClientConfiguration.ConnectionPoolConfiguration defaultPool = proxyHttpClientService
+                .buildHttpClientConfiguration(ProxyHttpClientConfig.PoolOverrides.NONE)
+                .getConnectionPoolConfiguration();
+
+        Assertions.assertTrue(defaultPool.isEnabled());
+        Assertions.assertEquals(20, defaultPool.getMaxConnections());
+        Assertions.assertEquals(100, defaultPool.getMaxPendingAcquires());
+        Assertions.assertEquals(Optional.of(Duration.ofSeconds(10)), defaultPool.getAcquireTimeout());
+
+        HttpClientConfiguration.ConnectionPoolConfiguration overriddenPool = proxyHttpClientService
+                .buildHttpClientConfiguration(new ProxyHttpClientConfig.PoolOverrides(5, null, Duration.ofSeconds(2)))
+                .getConnectionPoolConfiguration();
+
+        Assertions.assertEquals(5, overriddenPool.getMaxConnections());
+        Assertions.assertEquals(100, overriddenPool.getMaxPendingAcquires());
+        Assertions.assertEquals(Optional.of(Duration.ofSeconds(2)), overriddenPool.getAcquireTimeout());
+    }
+
+    private TestSubscriber<MutableHttpResponse<?>> proxy() {
+        MutableHttpRequest<?> request = HttpRequest.GET(URL + "/connectors");
+        TestSubscriber<MutableHttpResponse<?>> subscriber = new TestSubscriber<>();
+        proxyHttpClientService.proxy(URL, ProxyHttpClientConfig.PoolOverrides.NONE, request).subscribe(subscriber);
+        return subscriber;
+    }
+
+    private void complete(int index) {
+        responses.get(index).onNext(HttpResponse.ok());
+        responses.get(index).onComplete();
+    }
+}
@@ -1,15 +1,22 @@
 package com.michelin.ns4kafka.services;
 
+import com.michelin.ns4kafka.models.AccessControlEntry;
 import com.michelin.ns4kafka.models.Namespace;
 import com.michelin.ns4kafka.models.ObjectMeta;
 import com.michelin.ns4kafka.models.Topic;
 import com.michelin.ns4kafka.models.connector.Connector;
 import com.michelin.ns4kafka.models.quota.ResourceQuota;
 import com.michelin.ns4kafka.models.quota.ResourceQuotaResponse;
+import com.michelin.ns4kafka.repositories.AccessControlEntryRepository;
+import com.michelin.ns4kafka.repositories.ConnectorRepository;
+import com.michelin.ns4kafka.repositories.NamespaceRepository;
 import com.michelin.ns4kafka.repositories.ResourceQuotaRepository;
+import com.michelin.ns4kafka.repositories.TopicRepository;
+import com.michelin.ns4kafka.repositories.RepositoryListener;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -39,6 +46,18 @@ class ResourceQuotaServiceTest {
     @Mock
     NamespaceService namespaceService;
 
+    @Mock
+    TopicRepository topicRepository;
+
+    @Mock
+    ConnectorRepository connectorRepository;
+
+    @Mock
+    AccessControlEntryRepository accessControlEntryRepository;
+
+    @Mock
+    NamespaceRepository namespaceRepository;
+
     /**
      * Test get quota by namespace when it is defined
      */
@@ -243,6 +262,9 @@ class ResourceQuotaServiceTest {
                         .name("topic")
                         .namespace("namespace")
                         .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
                 .build();
 
         Topic topic2 = Topic.builder()
@@ -250,6 +272,9 @@ class ResourceQuotaServiceTest {
                         .name("topic")
                         .namespace("namespace")
                         .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
                 .build();
 
         Topic topic3 = Topic.builder()
@@ -257,6 +282,9 @@ class ResourceQuotaServiceTest {
                         .name("topic")
                         .namespace("namespace")
                         .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
                 .build();
 
         when(topicService.findAllForNamespace(ns))
@@ -294,6 +322,9 @@ class ResourceQuotaServiceTest {
                         .name("topic")
                         .namespace("namespace")
                         .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
                 .build();
 
         Topic topic2 = Topic.builder()
@@ -301,6 +332,9 @@ class ResourceQuotaServiceTest {
                         .name("topic")
                         .namespace("namespace")
                         .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
                 .build();
 
         Topic topic3 = Topic.builder()
@@ -308,6 +342,9 @@ class ResourceQuotaServiceTest {
                         .name("topic")
                         .namespace("namespace")
                         .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
                 .build();
 
         when(topicService.findAllForNamespace(ns))
@@ -565,6 +602,9 @@ class ResourceQuotaServiceTest {
                         .name("topic")
                         .namespace("namespace")
                         .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
                 .build();
 
         Topic topic2 = Topic.builder()
@@ -572,6 +612,9 @@ class ResourceQuotaServiceTest {
                         .name("topic")
                         .namespace("namespace")
                         .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
                 .build();
 
         Topic topic3 = Topic.builder()
@@ -579,6 +622,9 @@ class ResourceQuotaServiceTest {
                         .name("topic")
                         .namespace("namespace")
                         .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
                 .build();
 
         when(topicService.findAllForNamespace(ns))
@@ -588,6 +634,126 @@ class ResourceQuotaServiceTest {
         Assertions.assertEquals(3L, currentlyUsed);
     }
 
+    /**
+     * Test the used resources are cached until a topic of the namespace changes
+     */
+    @Test
+    void getCurrentUsedResourceForCountTopicsByNamespaceCachedUntilTopicChange() {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace")
+                        .cluster("local")
+                        .build())
+                .spec(Namespace.NamespaceSpec.builder()
+                        .connectClusters(List.of("local-name"))
+                        .build())
+                .build();
+
+        Topic topic1 = Topic.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("prefix.topic1")
+                        .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
+                .build();
+
+        Topic topic2 = Topic.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("prefix.topic2")
+                        .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .build())
+                .build();
+
+        AccessControlEntry ownerAcl = AccessControlEntry.builder()
+                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
+                        .permission(AccessControlEntry.Permission.OWNER)
+                        .grantedTo("namespace")
+                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
+                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
+                        .resource("prefix.")
+                        .build())
+                .build();
+
+        when(topicService.findAllForNamespace(ns))
+                .thenReturn(List.of(topic1))
+                .thenReturn(List.of(topic1, topic2));
+        when(accessControlEntryRepository.findAllOwnersOfResource(AccessControlEntry.ResourceType.TOPIC, "prefix.topic2"))
+                .thenReturn(List.of(ownerAcl));
+
+        ArgumentCaptor<RepositoryListener<Topic>> topicListener = ArgumentCaptor.forClass(RepositoryListener.class);
+        resourceQuotaService.listenUsageChanges();
+        verify(topicRepository).addListener(topicListener.capture());
+
+        Assertions.assertEquals(1L, resourceQuotaService.getCurrentCountTopicsByNamespace(ns));
+        Assertions.assertEquals(1L, resourceQuotaService.getCurrentCountTopicsByNamespace(ns));
+
+        topicListener.getValue().onChange("local/prefix.topic2", null, topic2);
+
+        Assertions.assertEquals(2L, resourceQuotaService.getCurrentCountTopicsByNamespace(ns));
+        verify(topicService, times(2)).findAllForNamespace(ns);
+    }
+
+    /**
+     * Test the number of topics, the number of partitions and the disk are computed in a single pass over the topics,
+     * and cached until the namespace is deleted
+     */
+    @Test
+    void getCurrentUsedTopicResourcesByNamespaceComputedTogetherUntilNamespaceDeletion() {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace")
+                        .cluster("local")
+                        .build())
+                .spec(Namespace.NamespaceSpec.builder()
+                        .connectClusters(List.of("local-name"))
+                        .build())
+                .build();
+
+        Topic topic1 = Topic.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("prefix.topic1")
+                        .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .configs(Map.of(RETENTION_BYTES_CONFIG, "1000"))
+                        .build())
+                .build();
+
+        Topic topic2 = Topic.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("prefix.topic2")
+                        .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(6)
+                        .configs(Map.of(RETENTION_BYTES_CONFIG, "50000"))
+                        .build())
+                .build();
+
+        when(topicService.findAllForNamespace(ns))
+                .thenReturn(List.of(topic1, topic2));
+
+        ArgumentCaptor<RepositoryListener<Namespace>> namespaceListener = ArgumentCaptor.forClass(RepositoryListener.class);
+        resourceQuotaService.listenUsageChanges();
+        verify(namespaceRepository).addListener(namespaceListener.capture());
+
+        Assertions.assertEquals(2L, resourceQuotaService.getCurrentCountTopicsByNamespace(ns));
+        Assertions.assertEquals(9L, resourceQuotaService.getCurrentCountPartitionsByNamespace(ns));
+        Assertions.assertEquals(303000L, resourceQuotaService.getCurrentDiskTopicsByNamespace(ns));
+        verify(topicService, times(1)).findAllForNamespace(ns);
+
+        // A namespace update keeps the cached usage
+        namespaceListener.getValue().onChange("namespace", ns, ns);
+        Assertions.assertEquals(9L, resourceQuotaService.getCurrentCountPartitionsByNamespace(ns));
+        verify(topicService, times(1)).findAllForNamespace(ns);
+
+        namespaceListener.getValue().onChange("namespace", ns, null);
+        Assertions.assertEquals(303000L, resourceQuotaService.getCurrentDiskTopicsByNamespace(ns));
+        verify(topicService, times(2)).findAllForNamespace(ns);
+    }
+
     /**
 
      * Test get current used resource for count partitions by namespace
@@ -1078,6 +1244,113 @@ class ResourceQuotaServiceTest {
         Assertions.assertEquals("Exceeding quota for count/connectors: 2/2 (used/limit). Cannot add 1 connector.", validationErrors.get(0));
     }
 
+    /**
+     * Test quota validation of a batch exceeding the quota only as a whole
+     */
+    @Test
+    void validateBulkQuotaExceed() {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace")
+                        .cluster("local")
+                        .build())
+                .build();
+
+        ResourceQuota resourceQuota = ResourceQuota.builder()
+                .metadata(ObjectMeta.builder()
+                        .cluster("local")
+                        .name("test")
+                        .build())
+                .spec(Map.of(COUNT_TOPICS.toString(), "3",
+                        COUNT_PARTITIONS.toString(), "6",
+                        DISK_TOPICS.toString(), "10KiB",
+                        COUNT_CONNECTORS.toString(), "2"))
+                .build();
+
+        Topic existingTopic = Topic.builder()
+                .metadata(ObjectMeta.builder().name("topicA").build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(2)
+                        .configs(Map.of(RETENTION_BYTES_CONFIG, "1024"))
+                        .build())
+                .build();
+
+        Topic updatedTopic = Topic.builder()
+                .metadata(ObjectMeta.builder().name("topicA").build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(2)
+                        .configs(Map.of(RETENTION_BYTES_CONFIG, "2048"))
+                        .build())
+                .build();
+
+        Topic newTopic1 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("topicB").build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(4)
+                        .configs(Map.of(RETENTION_BYTES_CONFIG, "1024"))
+                        .build())
+                .build();
+
+        Topic newTopic2 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("topicC").build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(4)
+                        .configs(Map.of(RETENTION_BYTES_CONFIG, "1024"))
+                        .build())
+                .build();
+
+        when(resourceQuotaRepository.findForNamespace("namespace"))
+                .thenReturn(Optional.of(resourceQuota));
+
+        List<String> validationErrors = resourceQuotaService.validateBulkQuota(ns, List.of(existingTopic), 1,
+                List.of(updatedTopic, newTopic1, newTopic2), 2);
+
+        Assertions.assertEquals(List.of(
+                "Exceeding quota for count/partitions: 2/6 (used/limit). Cannot add 8 partition(s).",
+                "Exceeding quota for disk/topics: 2.0KiB/10.0KiB (used/limit). Cannot add 10.0KiB of data.",
+                "Exceeding quota for count/connectors: 1/2 (used/limit). Cannot add 2 connector(s)."), validationErrors);
+    }
+
+    /**
+     * Test quota validation of a batch within the quota
+     */
+    @Test
+    void validateBulkQuotaWithinQuota() {
+        Namespace ns = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace")
+                        .cluster("local")
+                        .build())
+                .build();
+
+        ResourceQuota resourceQuota = ResourceQuota.builder()
+                .metadata(ObjectMeta.builder()
+                        .cluster("local")
+                        .name("test")
+                        .build())
+                .spec(Map.of(COUNT_TOPICS.toString(), "2",
+                        COUNT_PARTITIONS.toString(), "6"))
+                .build();
+
+        Topic newTopic1 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("topicB").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).build())
+                .build();
+
+        Topic newTopic2 = Topic.builder()
+                .metadata(ObjectMeta.builder().name("topicC").build())
+                .spec(Topic.TopicSpec.builder().partitions(3).build())
+                .build();
+
+        when(resourceQuotaRepository.findForNamespace("namespace"))
+                .thenReturn(Optional.of(resourceQuota));
+
+        List<String> validationErrors = resourceQuotaService.validateBulkQuota(ns, List.of(), 0,
+                List.of(newTopic1, newTopic2), 0);
+
+        Assertions.assertTrue(validationErrors.isEmpty());
+    }
+
     /**
      * Validate get current used resources by quota for a namespace
      */
@@ -1325,4 +1598,68 @@ class ResourceQuotaServiceTest {
         List<ResourceQuotaResponse> response = resourceQuotaService.getUsedResourcesByQuotaForAllNamespaces();
         Assertions.assertEquals(4, response.size());
     }
+
+    /**
+     * Test streaming the current used resources of all the namespaces
+     */
+    @Test
+    void streamCurrentResourcesQuotasAllNamespaces() {
+        Namespace ns1 = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace")
+                        .cluster("local")
+                        .build())
+                .spec(Namespace.NamespaceSpec.builder()
+                        .connectClusters(List.of("local-name"))
+                        .build())
+                .build();
+
+        Namespace ns2 = Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("namespace2")
+                        .cluster("local")
+                        .build())
+                .spec(Namespace.NamespaceSpec.builder()
+                        .connectClusters(List.of("local-name"))
+                        .build())
+                .build();
+
+        ResourceQuota resourceQuota = ResourceQuota.builder()
+                .metadata(ObjectMeta.builder()
+                        .cluster("local")
+                        .name("test")
+                        .build())
+                .spec(Map.of(COUNT_TOPICS.toString(), "3"))
+                .build();
+
+        Topic topic1 = Topic.builder()
+                .metadata(ObjectMeta.builder()
+                        .name("topic")
+                        .namespace("namespace")
+                        .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(6)
+                        .configs(Map.of("retention.bytes", "1000"))
+                        .build())
+                .build();
+
+        when(namespaceService.listAll())
+                .thenReturn(List.of(ns1, ns2));
+        when(topicService.findAllForNamespace(ns1))
+                .thenReturn(List.of(topic1));
+        when(topicService.findAllForNamespace(ns2))
+                .thenReturn(List.of());
+        when(connectorService.findAllForNamespace(any()))
+                .thenReturn(List.of());
+        when(resourceQuotaRepository.findForNamespace(any()))
+                .thenReturn(Optional.of(resourceQuota));
+
+        List<ResourceQuotaResponse> response = resourceQuotaService.streamUsedResourcesByQuotaForAllNamespaces()
+                .toList()
+                .blockingGet();
+
+        Assertions.assertEquals(2, response.size());
+        Assertions.assertTrue(response.stream().anyMatch(quota -> "1/3".equals(quota.getSpec().getCountTopic())));
+        Assertions.assertTrue(response.stream().anyMatch(quota -> "0/3".equals(quota.getSpec().getCountTopic())));
+    }
 }
@@ -9,6 +9,7 @@ import com.michelin.ns4kafka.services.schema.client.KafkaSchemaRegistryClient;
 import com.michelin.ns4kafka.services.schema.client.entities.SchemaCompatibilityCheckResponse;
 import com.michelin.ns4kafka.services.schema.client.entities.SchemaCompatibilityResponse;
 import com.michelin.ns4kafka.services.schema.client.entities.SchemaResponse;
+import com.michelin.ns4kafka.utils.PrefixTrie;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
 import org.junit.jupiter.api.Assertions;
@@ -45,45 +46,10 @@ class SchemaServiceTest {
         List<String> subjectsResponse = Arrays.asList("prefix.schema-one", "prefix2.schema-two", "prefix2.schema-three");
 
         when(kafkaSchemaRegistryClient.getSubjects(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster())).thenReturn(Single.just(subjectsResponse));
-        Mockito.when(accessControlEntryService.findAllGrantedToNamespace(namespace))
-                .thenReturn(List.of(
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("prefix.")
-                                        .build())
-                                .build(),
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.LITERAL)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("prefix2.schema-two")
-                                        .build())
-                                .build(),
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.READ)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("prefix3.")
-                                        .build())
-                                .build(),
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
-                                        .resourceType(AccessControlEntry.ResourceType.CONNECT)
-                                        .resource("ns-")
-                                        .build())
-                                .build()
-                ));
+        PrefixTrie<AccessControlEntry> ownedTopics = new PrefixTrie<>();
+        ownedTopics.add("prefix.", true, AccessControlEntry.builder().build());
+        ownedTopics.add("prefix2.schema-two", false, AccessControlEntry.builder().build());
+        when(accessControlEntryService.getOwnedTopicsMatcher(namespace)).thenReturn(ownedTopics);
 
         schemaService.findAllForNamespace(namespace)
             .test()
@@ -107,6 +73,39 @@ class SchemaServiceTest {
                 .assertValue(List::isEmpty);
     }
 
+    /**
+     * Test the subjects are served from the cache, and kept up to date on deletion
+     */
+    @Test
+    void getAllByNamespaceCachedSubjects() {
+        Namespace namespace = buildNamespace();
+
+        when(kafkaSchemaRegistryClient.getSubjects(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster()))
+                .thenReturn(Single.just(List.of("prefix.schema-one-value", "prefix.schema-two-value")));
+        when(kafkaSchemaRegistryClient.deleteSubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(),
+                "prefix.schema-one-value", false)).thenReturn(Single.just(new Integer[]{1}));
+        when(kafkaSchemaRegistryClient.deleteSubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(),
+                "prefix.schema-one-value", true)).thenReturn(Single.just(new Integer[]{1}));
+        PrefixTrie<AccessControlEntry> ownedTopics = new PrefixTrie<>();
+        ownedTopics.add("prefix.", true, AccessControlEntry.builder().build());
+        when(accessControlEntryService.getOwnedTopicsMatcher(namespace)).thenReturn(ownedTopics);
+
+        schemaService.findAllForNamespace(namespace)
+                .test()
+                .assertValue(schemas -> schemas.size() == 2);
+
+        schemaService.deleteSubject(namespace, "prefix.schema-one-value")
+                .test()
+                .assertValue(ids -> ids.length == 1);
+
+        schemaService.findAllForNamespace(namespace)
+                .test()
+                .assertValue(schemas -> schemas.size() == 1)
+                .assertValue(schemas -> schemas.get(0).getMetadata().getName().equals("prefix.schema-two-value"));
+
+        verify(kafkaSchemaRegistryClient, times(1)).getSubjects(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster());
+    }
+
     /**
      * Test to find all schemas by namespace
      */
@@ -133,6 +132,7 @@ class SchemaServiceTest {
         Namespace namespace = buildNamespace();
 
         when(kafkaSchemaRegistryClient.getLatestSubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(), "prefix.schema-one")).thenReturn(Maybe.empty());
+        when(kafkaSchemaRegistryClient.getCurrentCompatibilityBySubject(any(), any(), any())).thenReturn(Maybe.empty());
 
         schemaService.getLatestSubject(namespace, "prefix.schema-one")
                 .test()
@@ -140,6 +140,45 @@ class SchemaServiceTest {
     }
 
 
+    /**
+     * Test the latest schema is served from the cache, until the subject compatibility is updated
+     */
+    @Test
+    void getBySubjectAndVersionCached() {
+        Namespace namespace = buildNamespace();
+        Schema schema = buildSchema();
+
+        when(kafkaSchemaRegistryClient.getLatestSubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET, namespace.getMetadata().getCluster(), "prefix.schema-one")).thenReturn(Maybe.just(buildSchemaResponse("prefix.schema-one")));
+        when(kafkaSchemaRegistryClient.getCurrentCompatibilityBySubject(any(), any(), any()))
+                .thenReturn(Maybe.empty())
+                .thenReturn(Maybe.just(SchemaCompatibilityResponse.builder()
+                        .compatibilityLevel(Schema.Compatibility.FORWARD)
+                        .build()));
+        when(kafkaSchemaRegistryClient.updateSubjectCompatibility(any(), any(), any(), any()))
+                .thenReturn(Single.just(SchemaCompatibilityResponse.builder()
+                        .compatibilityLevel(Schema.Compatibility.FORWARD)
+                        .build()));
+
+        schemaService.getLatestSubject(namespace, "prefix.schema-one")
+                .test()
+                .assertValue(latestSubject -> latestSubject.getSpec().getCompatibility().equals(Schema.Compatibility.GLOBAL));
+
+        schemaService.getLatestSubject(namespace, "prefix.schema-one")
+                .test()
+                .assertValue(latestSubject -> latestSubject.getSpec().getCompatibility().equals(Schema.Compatibility.GLOBAL));
+
+        schemaService.updateSubjectCompatibility(namespace, schema, Schema.Compatibility.FORWARD)
+                .test()
+                .assertValue(schemaCompatibilityResponse -> schemaCompatibilityResponse.compatibilityLevel().equals(Schema.Compatibility.FORWARD));
+
+        schemaService.getLatestSubject(namespace, "prefix.schema-one")
+                .test()
+                .assertValue(latestSubject -> latestSubject.getSpec().getCompatibility().equals(Schema.Compatibility.FORWARD));
+
+        verify(kafkaSchemaRegistryClient, times(2)).getLatestSubject(KafkaSchemaRegistryClientProxy.PROXY_SECRET,
+                namespace.getMetadata().getCluster(), "prefix.schema-one");
+    }
+
     /**
      * Test to register a new schema to the schema registry
      */
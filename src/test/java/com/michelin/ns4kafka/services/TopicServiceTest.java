@@ -8,11 +8,13 @@ import com.michelin.ns4kafka.models.Topic;
 import com.michelin.ns4kafka.repositories.TopicRepository;
 import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
 import com.michelin.ns4kafka.services.executors.TopicAsyncExecutor;
+import com.michelin.ns4kafka.utils.PrefixTrie;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.inject.qualifiers.Qualifiers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -71,30 +73,14 @@ class TopicServiceTest {
                 .metadata(ObjectMeta.builder().name("ns2-topic1").build())
                 .build();
 
-        Mockito.when(topicRepository.findAllForCluster("local"))
-                .thenReturn(List.of(t1, t2, t3, t4));
+        stubTopics(List.of(t1, t2, t3, t4));
 
-        Mockito.when(accessControlEntryService.findAllGrantedToNamespace(ns))
-                .thenReturn(List.of(
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("ns-")
-                                        .build())
-                                .build(),
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.LITERAL)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("ns1-topic1")
-                                        .build())
-                                .build()
-                ));
+        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns-topic1"))
+                .thenReturn(true);
+        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns1-topic1"))
+                .thenReturn(true);
+        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns2-topic1"))
+                .thenReturn(false);
 
         // search topic by name
         Optional<Topic> actualTopicPrefixed = topicService.findByName(ns, "ns-topic1");
@@ -127,8 +113,7 @@ class TopicServiceTest {
                 .thenReturn(List.of());
 
         // no ns4kfk topics 
-        Mockito.when(topicRepository.findAllForCluster("local"))
-                .thenReturn(List.of());
+        stubTopics(List.of());
 
         // get list of topics
         List<Topic> list = topicService.findAllForNamespace(ns);
@@ -165,8 +150,7 @@ class TopicServiceTest {
         Topic t4 = Topic.builder()
                 .metadata(ObjectMeta.builder().name("ns2-topic1").build())
                 .build();
-        Mockito.when(topicRepository.findAllForCluster("local"))
-                .thenReturn(List.of(t1, t2, t3, t4));
+        stubTopics(List.of(t1, t2, t3, t4));
 
         // no ns4kfk access control entries
         Mockito.when(accessControlEntryService.findAllGrantedToNamespace(ns))
@@ -208,8 +192,7 @@ class TopicServiceTest {
         Topic t4 = Topic.builder()
                 .metadata(ObjectMeta.builder().name("ns2-topic1").build())
                 .build();
-        Mockito.when(topicRepository.findAllForCluster("local"))
-                .thenReturn(List.of(t0,t1, t2, t3, t4));
+        stubTopics(List.of(t0,t1, t2, t3, t4));
 
         // ns4kfk access control entries
         Mockito.when(accessControlEntryService.findAllGrantedToNamespace(ns))
@@ -294,40 +277,14 @@ class TopicServiceTest {
                 "ns1-topic1", "ns2-topic1"));
 
         // list of existing ns4kfk access control entries
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns-topic1"))
-                .thenReturn(true);
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns-topic2"))
-                .thenReturn(true);
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns1-topic1"))
-                .thenReturn(true);
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns2-topic1"))
-                .thenReturn(false);
-
-        Mockito.when(accessControlEntryService.findAllGrantedToNamespace(ns))
-                .thenReturn(List.of(
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("ns-")
-                                        .build())
-                                .build(),
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.LITERAL)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("ns1-topic1")
-                                        .build())
-                                .build()
-                ));
+        PrefixTrie<AccessControlEntry> ownedTopics = new PrefixTrie<>();
+        ownedTopics.add("ns-topic1", false, AccessControlEntry.builder().build());
+        ownedTopics.add("ns-topic2", false, AccessControlEntry.builder().build());
+        ownedTopics.add("ns1-topic1", false, AccessControlEntry.builder().build());
+        Mockito.when(accessControlEntryService.getOwnedTopicsMatcher(ns)).thenReturn(ownedTopics);
 
         // no topic exists into ns4kfk
-        Mockito.when(topicRepository.findAllForCluster("local"))
-                .thenReturn(List.of());
+        stubTopics(List.of());
         List<String> actual = topicService.listUnsynchronizedTopicNames(ns);
 
         Assertions.assertEquals(3, actual.size());
@@ -383,40 +340,14 @@ class TopicServiceTest {
                 t3.getMetadata().getName(), t4.getMetadata().getName()));
 
         // list of existing ns4kfk access control entries
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, t1.getMetadata().getName()))
-                .thenReturn(true);
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, t2.getMetadata().getName()))
-                .thenReturn(true);
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, t3.getMetadata().getName()))
-                .thenReturn(true);
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, t4.getMetadata().getName()))
-                .thenReturn(false);
-
-        Mockito.when(accessControlEntryService.findAllGrantedToNamespace(ns))
-                .thenReturn(List.of(
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("ns-")
-                                        .build())
-                                .build(),
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.LITERAL)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("ns1-topic1")
-                                        .build())
-                                .build()
-                ));
+        PrefixTrie<AccessControlEntry> ownedTopics = new PrefixTrie<>();
+        ownedTopics.add(t1.getMetadata().getName(), false, AccessControlEntry.builder().build());
+        ownedTopics.add(t2.getMetadata().getName(), false, AccessControlEntry.builder().build());
+        ownedTopics.add(t3.getMetadata().getName(), false, AccessControlEntry.builder().build());
+        Mockito.when(accessControlEntryService.getOwnedTopicsMatcher(ns)).thenReturn(ownedTopics);
 
         // all topic exists into ns4kfk
-        Mockito.when(topicRepository.findAllForCluster("local"))
-                .thenReturn(List.of(t1, t2, t3, t4));
+        stubTopics(List.of(t1, t2, t3, t4));
 
         List<String> actual = topicService.listUnsynchronizedTopicNames(ns);
 
@@ -458,40 +389,14 @@ class TopicServiceTest {
                 "ns1-topic1", "ns2-topic1"));
 
         // list of existing ns4kfk access control entries
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns-topic1"))
-                .thenReturn(true);
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns-topic2"))
-                .thenReturn(true);
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns1-topic1"))
-                .thenReturn(true);
-        Mockito.when(accessControlEntryService.isNamespaceOwnerOfResource("namespace", AccessControlEntry.ResourceType.TOPIC, "ns2-topic1"))
-                .thenReturn(false);
-
-        Mockito.when(accessControlEntryService.findAllGrantedToNamespace(ns))
-                .thenReturn(List.of(
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("ns-")
-                                        .build())
-                                .build(),
-                        AccessControlEntry.builder()
-                                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
-                                        .permission(AccessControlEntry.Permission.OWNER)
-                                        .grantedTo("namespace")
-                                        .resourcePatternType(AccessControlEntry.ResourcePatternType.LITERAL)
-                                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
-                                        .resource("ns1-topic1")
-                                        .build())
-                                .build()
-                ));
+        PrefixTrie<AccessControlEntry> ownedTopics = new PrefixTrie<>();
+        ownedTopics.add("ns-topic1", false, AccessControlEntry.builder().build());
+        ownedTopics.add("ns-topic2", false, AccessControlEntry.builder().build());
+        ownedTopics.add("ns1-topic1", false, AccessControlEntry.builder().build());
+        Mockito.when(accessControlEntryService.getOwnedTopicsMatcher(ns)).thenReturn(ownedTopics);
 
         // partial number of topics exists into ns4kfk
-        Mockito.when(topicRepository.findAllForCluster("local"))
-                .thenReturn(List.of(t1));
+        stubTopics(List.of(t1));
 
         List<String> actual = topicService.listUnsynchronizedTopicNames(ns);
 
@@ -935,4 +840,20 @@ class TopicServiceTest {
         List<Topic> topics = topicService.findAll();
         Assertions.assertEquals(4, topics.size());
     }
+
+    /**
+     * Stub the topics of the cluster "local" in the repository, looked up by name or by prefix
+     * @param topics The topics
+     */
+    private void stubTopics(List<Topic> topics) {
+        Mockito.lenient().when(topicRepository.findByName(ArgumentMatchers.eq("local"), ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> topics.stream()
+                        .filter(topic -> topic.getMetadata().getName().equals(invocation.getArgument(1)))
+                        .findFirst());
+        Mockito.lenient().when(topicRepository.findAllForClusterByPrefix(ArgumentMatchers.eq("local"), ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> topics.stream()
+                        .filter(topic -> topic.getMetadata().getName().startsWith(invocation.getArgument(1)))
+                        .sorted(Comparator.comparing(topic -> topic.getMetadata().getName()))
+                        .toList());
+    }
 }
@@ -0,0 +1,169 @@
+package com.michelin.ns4kafka.services.executors;
+
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
+import com.michelin.ns4kafka.models.AccessControlEntry;
+import com.michelin.ns4kafka.models.KafkaStream;
+import com.michelin.ns4kafka.models.Namespace;
+import com.michelin.ns4kafka.models.ObjectMeta;
+import com.michelin.ns4kafka.repositories.AccessControlEntryRepository;
+import com.michelin.ns4kafka.repositories.NamespaceRepository;
+import com.michelin.ns4kafka.repositories.RepositoryListener;
+import com.michelin.ns4kafka.repositories.StreamRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccessControlEntryAsyncExecutorTest {
+    @Mock
+    AccessControlEntryRepository accessControlEntryRepository;
+
+    @Mock
+    StreamRepository streamRepository;
+
+    @Mock
+    NamespaceRepository namespaceRepository;
+
+    @Captor
+    ArgumentCaptor<RepositoryListener<AccessControlEntry>> accessControlEntryListenerCaptor;
+
+    @Captor
+    ArgumentCaptor<RepositoryListener<KafkaStream>> streamListenerCaptor;
+
+    @Captor
+    ArgumentCaptor<RepositoryListener<Namespace>> namespaceListenerCaptor;
+
+    AccessControlEntryAsyncExecutor accessControlEntryAsyncExecutor;
+
+    @BeforeEach
+    void setUp() {
+        accessControlEntryAsyncExecutor = new AccessControlEntryAsyncExecutor(new KafkaAsyncExecutorConfig("local"));
+        accessControlEntryAsyncExecutor.accessControlEntryRepository = accessControlEntryRepository;
+        accessControlEntryAsyncExecutor.streamRepository = streamRepository;
+        accessControlEntryAsyncExecutor.namespaceRepository = namespaceRepository;
+        accessControlEntryAsyncExecutor.listenChanges();
+
+        // Consider the last full synchronization as recent
+        accessControlEntryAsyncExecutor.nextDriftDetection = Instant.MAX;
+
+        verify(accessControlEntryRepository).addListener(accessControlEntryListenerCaptor.capture());
+        verify(streamRepository).addListener(streamListenerCaptor.capture());
+        verify(namespaceRepository).addListener(namespaceListenerCaptor.capture());
+    }
+
+    /**
+     * Validate the namespaces granted the created, updated and deleted ACLs are synchronized on the next run
+     */
+    @Test
+    void listenAccessControlEntryChanges() {
+        RepositoryListener<AccessControlEntry> listener = accessControlEntryListenerCaptor.getValue();
+        listener.onChange("local/acl1", null, buildAccessControlEntry("acl1", "local", "ns1", "ns1-"));
+        listener.onChange("local/acl2",
+                buildAccessControlEntry("acl2", "local", "ns2", "ns2-"),
+                buildAccessControlEntry("acl2", "local", "ns3", "ns2-"));
+        listener.onChange("local/acl3", buildAccessControlEntry("acl3", "local", "ns4", "ns4-"), null);
+
+        Assertions.assertEquals(Set.of("ns1", "ns2", "ns3", "ns4"), accessControlEntryAsyncExecutor.changedNamespaces);
+        Assertions.assertEquals(Instant.MAX, accessControlEntryAsyncExecutor.nextDriftDetection);
+    }
+
+    /**
+     * Validate the ACLs written again with the same spec are ignored
+     */
+    @Test
+    void listenAccessControlEntrySameSpec() {
+        AccessControlEntry previous = buildAccessControlEntry("acl1", "local", "ns1", "ns1-");
+        AccessControlEntry value = buildAccessControlEntry("acl1", "local", "ns1", "ns1-");
+        value.getMetadata().setLabels(Map.of("label", "value"));
+
+        accessControlEntryListenerCaptor.getValue().onChange("local/acl1", previous, value);
+
+        Assertions.assertTrue(accessControlEntryAsyncExecutor.changedNamespaces.isEmpty());
+    }
+
+    /**
+     * Validate the changes of ACLs, Kafka Streams and namespaces of other clusters are ignored
+     */
+    @Test
+    void listenOtherClusterChanges() {
+        accessControlEntryListenerCaptor.getValue()
+                .onChange("other/acl1", null, buildAccessControlEntry("acl1", "other", "ns1", "ns1-"));
+        accessControlEntryListenerCaptor.getValue()
+                .onChange("other/acl2", null, buildAccessControlEntry("acl2", "other", "*", "public-"));
+        streamListenerCaptor.getValue()
+                .onChange("other/ns1-stream", null, buildKafkaStream("ns1-stream", "other", "ns1"));
+        namespaceListenerCaptor.getValue()
+                .onChange("ns1", null, buildNamespace("ns1", "other"));
+
+        Assertions.assertTrue(accessControlEntryAsyncExecutor.changedNamespaces.isEmpty());
+        Assertions.assertEquals(Instant.MAX, accessControlEntryAsyncExecutor.nextDriftDetection);
+    }
+
+    /**
+     * Validate the changes of Kafka Streams are synchronized on the next run,
+     * and the changes of public ACLs and namespaces bring the next full synchronization forward
+     */
+    @Test
+    void listenStreamPublicAccessControlEntryAndNamespaceChanges() {
+        streamListenerCaptor.getValue().onChange("local/ns1-stream", null, buildKafkaStream("ns1-stream", "local", "ns1"));
+        Assertions.assertEquals(Set.of("ns1"), accessControlEntryAsyncExecutor.changedNamespaces);
+
+        accessControlEntryListenerCaptor.getValue()
+                .onChange("local/acl1", null, buildAccessControlEntry("acl1", "local", "*", "public-"));
+        Assertions.assertEquals(Instant.MIN, accessControlEntryAsyncExecutor.nextDriftDetection);
+
+        accessControlEntryAsyncExecutor.nextDriftDetection = Instant.MAX;
+        namespaceListenerCaptor.getValue().onChange("ns2", null, buildNamespace("ns2", "local"));
+        Assertions.assertEquals(Instant.MIN, accessControlEntryAsyncExecutor.nextDriftDetection);
+    }
+
+    private AccessControlEntry buildAccessControlEntry(String name, String cluster, String grantedTo, String resource) {
+        return AccessControlEntry.builder()
+                .metadata(ObjectMeta.builder()
+                        .name(name)
+                        .namespace("admin")
+                        .cluster(cluster)
+                        .build())
+                .spec(AccessControlEntry.AccessControlEntrySpec.builder()
+                        .resourceType(AccessControlEntry.ResourceType.TOPIC)
+                        .resource(resource)
+                        .resourcePatternType(AccessControlEntry.ResourcePatternType.PREFIXED)
+                        .permission(AccessControlEntry.Permission.READ)
+                        .grantedTo(grantedTo)
+                        .build())
+                .build();
+    }
+
+    private KafkaStream buildKafkaStream(String name, String cluster, String namespace) {
+        return KafkaStream.builder()
+                .metadata(ObjectMeta.builder()
+                        .name(name)
+                        .namespace(namespace)
+                        .cluster(cluster)
+                        .build())
+                .build();
+    }
+
+    private Namespace buildNamespace(String name, String cluster) {
+        return Namespace.builder()
+                .metadata(ObjectMeta.builder()
+                        .name(name)
+                        .cluster(cluster)
+                        .build())
+                .spec(Namespace.NamespaceSpec.builder()
+                        .kafkaUser("user-" + name)
+                        .build())
+                .build();
+    }
+}
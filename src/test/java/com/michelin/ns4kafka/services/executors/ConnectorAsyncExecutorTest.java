@@ -0,0 +1,198 @@
+package com.michelin.ns4kafka.services.executors;
+
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorSchedulerConfig;
+import com.michelin.ns4kafka.models.ObjectMeta;
+import com.michelin.ns4kafka.models.connector.Connector;
+import com.michelin.ns4kafka.repositories.ConnectorRepository;
+import com.michelin.ns4kafka.services.ConnectClusterService;
+import com.michelin.ns4kafka.services.ConnectorService;
+import com.michelin.ns4kafka.services.connect.ConnectorClientProxy;
+import com.michelin.ns4kafka.services.connect.client.ConnectorClient;
+import com.michelin.ns4kafka.services.connect.client.entities.ConnectorInfo;
+import com.michelin.ns4kafka.services.connect.client.entities.ConnectorSpecs;
+import com.michelin.ns4kafka.services.connect.client.entities.ConnectorStatus;
+import com.michelin.ns4kafka.services.connect.client.entities.ConnectorType;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.reactivex.rxjava3.core.Single;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectorAsyncExecutorTest {
+    private static final String CONNECT_CLUSTER = "local-connect";
+
+    @Mock
+    ConnectorRepository connectorRepository;
+
+    @Mock
+    ConnectorClient connectorClient;
+
+    @Mock
+    ConnectClusterService connectClusterService;
+
+    @Mock
+    ConnectorService connectorService;
+
+    KafkaAsyncExecutorConfig kafkaAsyncExecutorConfig;
+
+    KafkaAsyncExecutorSchedulerConfig kafkaAsyncExecutorSchedulerConfig;
+
+    ConnectorAsyncExecutor connectorAsyncExecutor;
+
+    @BeforeEach
+    void setUp() {
+        kafkaAsyncExecutorConfig = new KafkaAsyncExecutorConfig("local");
+        kafkaAsyncExecutorConfig.setManageConnectors(true);
+        kafkaAsyncExecutorConfig.setConnects(Map.of(CONNECT_CLUSTER, new KafkaAsyncExecutorConfig.ConnectConfig()));
+        kafkaAsyncExecutorConfig.setConnectorDeployMaxRetries(3);
+        kafkaAsyncExecutorConfig.setConnectorDeployRetryBackoff(Duration.ofMillis(50));
+
+        kafkaAsyncExecutorSchedulerConfig = new KafkaAsyncExecutorSchedulerConfig();
+        kafkaAsyncExecutorSchedulerConfig.setExecutorTimeout(Duration.ofSeconds(10));
+
+        connectorAsyncExecutor = new ConnectorAsyncExecutor(kafkaAsyncExecutorConfig);
+        connectorAsyncExecutor.connectorRepository = connectorRepository;
+        connectorAsyncExecutor.connectorClient = connectorClient;
+        connectorAsyncExecutor.connectClusterService = connectClusterService;
+        connectorAsyncExecutor.connectorService = connectorService;
+        connectorAsyncExecutor.kafkaAsyncExecutorSchedulerConfig = kafkaAsyncExecutorSchedulerConfig;
+
+        when(connectClusterService.findAll()).thenReturn(List.of());
+        when(connectorService.refreshConnectorPlugins("local", CONNECT_CLUSTER)).thenReturn(Single.just(Map.of()));
+        when(connectorClient.listAll(ConnectorClientProxy.PROXY_SECRET, "local", CONNECT_CLUSTER)).thenReturn(Single.just(Map.of()));
+    }
+
+    /**
+     * Validate the deployments answered 409 or 5xx are retried with an exponential backoff, up to the max retries,
+     * while the other errors are not retried
+     */
+    @Test
+    void runRetriesConflictsAndServerErrors() {
+        when(connectorRepository.findAllForCluster("local")).thenReturn(List.of(
+                buildConnector("ns-rebalancing"), buildConnector("ns-invalid"), buildConnector("ns-unavailable")));
+
+        AtomicInteger rebalancingAttempts = stubDeployment("ns-rebalancing",
+                HttpStatus.CONFLICT, HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.CREATED);
+        AtomicInteger invalidAttempts = stubDeployment("ns-invalid",
+                HttpStatus.BAD_REQUEST, HttpStatus.CREATED);
+        AtomicInteger unavailableAttempts = stubDeployment("ns-unavailable",
+                HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE,
+                HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.CREATED);
+
+        long startTime = System.currentTimeMillis();
+        connectorAsyncExecutor.run();
+        long duration = System.currentTimeMillis() - startTime;
+
+        Assertions.assertEquals(3, rebalancingAttempts.get());
+        Assertions.assertEquals(1, invalidAttempts.get());
+        Assertions.assertEquals(4, unavailableAttempts.get());
+
+        // The unavailable connector waits 50ms, 100ms then 200ms between its attempts
+        Assertions.assertTrue(duration >= 350, "Backoff not applied, run completed in " + duration + "ms");
+    }
+
+    /**
+     * Validate the deployments still running after the executor timeout are cancelled
+     */
+    @Test
+    void runTimeout() {
+        kafkaAsyncExecutorSchedulerConfig.setExecutorTimeout(Duration.ofMillis(200));
+        when(connectorRepository.findAllForCluster("local")).thenReturn(List.of(buildConnector("ns-hanging")));
+
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        when(connectorClient.createOrUpdate(eq(ConnectorClientProxy.PROXY_SECRET), eq("local"), eq(CONNECT_CLUSTER),
+                eq("ns-hanging"), any(ConnectorSpecs.class)))
+                .thenReturn(Single.<ConnectorInfo>never().doOnDispose(() -> cancelled.set(true)));
+
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), connectorAsyncExecutor::run);
+        Assertions.assertTrue(cancelled.get());
+    }
+
+    /**
+     * Validate the connectors whose deployed configuration equals the applied one are left untouched,
+     * and the out of sync ones are deployed and kept for the drift listing
+     */
+    @Test
+    void runCachesOutOfSyncConnectors() {
+        when(connectorRepository.findAllForCluster("local")).thenReturn(List.of(
+                buildConnector("ns-synced"), buildConnector("ns-drifted"), buildConnector("ns-missing")));
+        when(connectorClient.listAll(ConnectorClientProxy.PROXY_SECRET, "local", CONNECT_CLUSTER)).thenReturn(Single.just(Map.of(
+                "ns-synced", buildConnectorStatus("ns-synced", new HashMap<>(Map.of("connector.class", "org.apache.kafka.connect.file.FileStreamSinkConnector"))),
+                "ns-drifted", buildConnectorStatus("ns-drifted", Map.of("connector.class", "org.apache.kafka.connect.file.FileStreamSourceConnector")))));
+
+        AtomicInteger driftedAttempts = stubDeployment("ns-drifted", HttpStatus.CREATED);
+        AtomicInteger missingAttempts = stubDeployment("ns-missing", HttpStatus.CREATED);
+
+        connectorAsyncExecutor.run();
+
+        Assertions.assertEquals(1, driftedAttempts.get());
+        Assertions.assertEquals(1, missingAttempts.get());
+        verify(connectorClient, never()).createOrUpdate(eq(ConnectorClientProxy.PROXY_SECRET), eq("local"), eq(CONNECT_CLUSTER),
+                eq("ns-synced"), any(ConnectorSpecs.class));
+
+        Assertions.assertFalse(connectorAsyncExecutor.isCachedOutOfSync(CONNECT_CLUSTER, "ns-synced"));
+        Assertions.assertTrue(connectorAsyncExecutor.isCachedOutOfSync(CONNECT_CLUSTER, "ns-drifted"));
+        Assertions.assertTrue(connectorAsyncExecutor.isCachedOutOfSync(CONNECT_CLUSTER, "ns-missing"));
+        Assertions.assertFalse(connectorAsyncExecutor.isCachedOutOfSync("other-connect", "ns-drifted"));
+    }
+
+    /**
+     * Stub the deployment of a connector, answering the given statuses one per attempt
+     * @param connector The connector name
+     * @param statuses The statuses, the successful one last
+     * @return The number of attempts
+     */
+    private AtomicInteger stubDeployment(String connector, HttpStatus... statuses) {
+        AtomicInteger attempts = new AtomicInteger();
+        when(connectorClient.createOrUpdate(eq(ConnectorClientProxy.PROXY_SECRET), eq("local"), eq(CONNECT_CLUSTER),
+                eq(connector), any(ConnectorSpecs.class)))
+                .thenReturn(Single.defer(() -> {
+                    HttpStatus status = statuses[Math.min(attempts.getAndIncrement(), statuses.length - 1)];
+                    if (status.getCode() >= 400) {
+                        return Single.error(new HttpClientResponseException(status.getReason(), HttpResponse.status(status)));
+                    }
+                    return Single.just(new ConnectorInfo(connector, Map.of(), List.of(), ConnectorType.SOURCE));
+                }));
+        return attempts;
+    }
+
+    private ConnectorStatus buildConnectorStatus(String name, Map<String, String> config) {
+        ConnectorStatus connectorStatus = new ConnectorStatus();
+        connectorStatus.setInfo(new ConnectorInfo(name, config, List.of(), ConnectorType.SINK));
+        return connectorStatus;
+    }
+
+    private Connector buildConnector(String name) {
+        return Connector.builder()
+                .metadata(ObjectMeta.builder()
+                        .name(name)
+                        .namespace("ns")
+                        .cluster("local")
+                        .build())
+                .spec(Connector.ConnectorSpec.builder()
+                        .connectCluster(CONNECT_CLUSTER)
+                        .config(Map.of("connector.class", "org.apache.kafka.connect.file.FileStreamSinkConnector"))
+                        .build())
+                .build();
+    }
+}
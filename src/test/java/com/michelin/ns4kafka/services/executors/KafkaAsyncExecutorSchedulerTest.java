@@ -0,0 +1,135 @@
+package com.michelin.ns4kafka.services.executors;
+
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorSchedulerConfig;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaAsyncExecutorSchedulerTest {
+    @Mock
+    ApplicationContext applicationContext;
+
+    @Mock
+    TopicAsyncExecutor hungTopicAsyncExecutor;
+
+    @Mock
+    AccessControlEntryAsyncExecutor hungAccessControlEntryAsyncExecutor;
+
+    @Mock
+    ConnectorAsyncExecutor hungConnectorAsyncExecutor;
+
+    @Mock
+    UserAsyncExecutor hungUserAsyncExecutor;
+
+    @Mock
+    TopicAsyncExecutor healthyTopicAsyncExecutor;
+
+    @Mock
+    AccessControlEntryAsyncExecutor healthyAccessControlEntryAsyncExecutor;
+
+    @Mock
+    ConnectorAsyncExecutor healthyConnectorAsyncExecutor;
+
+    @Mock
+    UserAsyncExecutor healthyUserAsyncExecutor;
+
+    KafkaAsyncExecutorScheduler kafkaAsyncExecutorScheduler;
+
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    @BeforeEach
+    void setUp() {
+        KafkaAsyncExecutorSchedulerConfig schedulerConfig = new KafkaAsyncExecutorSchedulerConfig();
+        schedulerConfig.setParallelism(1);
+        schedulerConfig.setExecutorTimeout(Duration.ofMillis(200));
+
+        kafkaAsyncExecutorScheduler = new KafkaAsyncExecutorScheduler();
+        kafkaAsyncExecutorScheduler.applicationContext = applicationContext;
+        kafkaAsyncExecutorScheduler.kafkaAsyncExecutorSchedulerConfig = schedulerConfig;
+        kafkaAsyncExecutorScheduler.kafkaAsyncExecutorConfigs = List.of(
+                new KafkaAsyncExecutorConfig("hung"),
+                new KafkaAsyncExecutorConfig("healthy"));
+        kafkaAsyncExecutorScheduler.init();
+        kafkaAsyncExecutorScheduler.onStartupEvent(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        released.set(true);
+        kafkaAsyncExecutorScheduler.close();
+    }
+
+    /**
+     * Validate a cluster hung in a non-interruptible call does not block the other clusters,
+     * and is not synchronized again until its abandoned worker has terminated
+     */
+    @Test
+    void scheduleWithHungExecutor() throws InterruptedException {
+        stubExecutors("hung", hungTopicAsyncExecutor, hungAccessControlEntryAsyncExecutor, hungConnectorAsyncExecutor, hungUserAsyncExecutor);
+        stubExecutors("healthy", healthyTopicAsyncExecutor, healthyAccessControlEntryAsyncExecutor, healthyConnectorAsyncExecutor, healthyUserAsyncExecutor);
+
+        // Ignore the interruptions until released
+        doAnswer(invocation -> {
+            while (!released.get()) {
+                Thread.interrupted();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            return null;
+        }).when(hungTopicAsyncExecutor).run();
+
+        kafkaAsyncExecutorScheduler.schedule();
+
+        // With a single cluster slot, the healthy cluster still gets synchronized after the hung one
+        verify(healthyUserAsyncExecutor, timeout(2000)).run();
+        verify(healthyTopicAsyncExecutor).run();
+
+        // The hung cluster stops its sequence once the timeout is reached
+        verify(hungAccessControlEntryAsyncExecutor, never()).run();
+        verify(hungConnectorAsyncExecutor, never()).run();
+        verify(hungUserAsyncExecutor, never()).run();
+
+        // The hung cluster is skipped while its worker is still stuck
+        kafkaAsyncExecutorScheduler.schedule();
+        verify(healthyUserAsyncExecutor, timeout(2000).times(2)).run();
+        verify(hungTopicAsyncExecutor, times(1)).run();
+
+        // The hung cluster is synchronized again once its worker has terminated
+        released.set(true);
+        Assertions.assertTrue(kafkaAsyncExecutorScheduler.taskExecutorServices.get("hung").awaitTermination(2, TimeUnit.SECONDS));
+
+        kafkaAsyncExecutorScheduler.schedule();
+        verify(hungUserAsyncExecutor, timeout(2000)).run();
+        verify(hungTopicAsyncExecutor, times(2)).run();
+        verify(hungAccessControlEntryAsyncExecutor).run();
+        verify(hungConnectorAsyncExecutor).run();
+    }
+
+    private void stubExecutors(String cluster, TopicAsyncExecutor topicAsyncExecutor,
+                               AccessControlEntryAsyncExecutor accessControlEntryAsyncExecutor,
+                               ConnectorAsyncExecutor connectorAsyncExecutor, UserAsyncExecutor userAsyncExecutor) {
+        when(applicationContext.getBean(TopicAsyncExecutor.class, Qualifiers.byName(cluster)))
+                .thenReturn(topicAsyncExecutor);
+        when(applicationContext.getBean(AccessControlEntryAsyncExecutor.class, Qualifiers.byName(cluster)))
+                .thenReturn(accessControlEntryAsyncExecutor);
+        when(applicationContext.getBean(ConnectorAsyncExecutor.class, Qualifiers.byName(cluster)))
+                .thenReturn(connectorAsyncExecutor);
+        when(applicationContext.getBean(UserAsyncExecutor.class, Qualifiers.byName(cluster)))
+                .thenReturn(userAsyncExecutor);
+    }
+}
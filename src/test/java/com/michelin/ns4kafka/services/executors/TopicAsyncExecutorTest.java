@@ -0,0 +1,185 @@
+package com.michelin.ns4kafka.services.executors;
+
+import com.michelin.ns4kafka.config.KafkaAsyncExecutorConfig;
+import com.michelin.ns4kafka.models.ObjectMeta;
+import com.michelin.ns4kafka.models.Topic;
+import com.michelin.ns4kafka.repositories.RepositoryListener;
+import com.michelin.ns4kafka.repositories.TopicRepository;
+import org.apache.kafka.clients.admin.*;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.MalformedURLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopicAsyncExecutorTest {
+    @Mock
+    TopicRepository topicRepository;
+
+    @Mock
+    Admin admin;
+
+    @Captor
+    ArgumentCaptor<RepositoryListener<Topic>> listenerCaptor;
+
+    TopicAsyncExecutor topicAsyncExecutor;
+
+    RepositoryListener<Topic> listener;
+
+    @BeforeEach
+    void setUp() throws MalformedURLException {
+        KafkaAsyncExecutorConfig kafkaAsyncExecutorConfig = new KafkaAsyncExecutorConfig("local");
+        kafkaAsyncExecutorConfig.setManageTopics(true);
+        kafkaAsyncExecutorConfig.setAdminClient(admin);
+
+        topicAsyncExecutor = new TopicAsyncExecutor(kafkaAsyncExecutorConfig);
+        topicAsyncExecutor.topicRepository = topicRepository;
+        topicAsyncExecutor.listenTopicChanges();
+
+        verify(topicRepository).addListener(listenerCaptor.capture());
+        listener = listenerCaptor.getValue();
+    }
+
+    /**
+     * Validate created topics and topics whose spec changed are synchronized on the next run
+     */
+    @Test
+    void listenSpecChanges() {
+        listener.onChange("local/ns-topic1", null, buildTopic("ns-topic1", "local", "1000", Topic.TopicStatus.ofPending()));
+        listener.onChange("local/ns-topic2",
+                buildTopic("ns-topic2", "local", "1000", Topic.TopicStatus.ofSuccess("Topic created")),
+                buildTopic("ns-topic2", "local", "2000", Topic.TopicStatus.ofPending()));
+
+        Assertions.assertEquals(Set.of("ns-topic1", "ns-topic2"), topicAsyncExecutor.changedTopics);
+    }
+
+    /**
+     * Validate the status-only changes, such as the ones written by the executor itself, are ignored
+     */
+    @Test
+    void listenStatusOnlyChanges() {
+        topicAsyncExecutor.nextDriftDetection = Instant.MAX;
+
+        listener.onChange("local/ns-topic1",
+                buildTopic("ns-topic1", "local", "1000", Topic.TopicStatus.ofPending()),
+                buildTopic("ns-topic1", "local", "1000", Topic.TopicStatus.ofSuccess("Topic created")));
+
+        Assertions.assertTrue(topicAsyncExecutor.changedTopics.isEmpty());
+
+        // Nothing is synchronized before the next drift detection
+        topicAsyncExecutor.run();
+        verifyNoMoreInteractions(topicRepository);
+    }
+
+    /**
+     * Validate the changes of topics of other clusters and the deletions are ignored
+     */
+    @Test
+    void listenOtherClusterChangesAndDeletions() {
+        listener.onChange("other/ns-topic1", null, buildTopic("ns-topic1", "other", "1000", Topic.TopicStatus.ofPending()));
+        listener.onChange("other/ns-topic2",
+                buildTopic("ns-topic2", "other", "1000", Topic.TopicStatus.ofSuccess("Topic created")),
+                buildTopic("ns-topic2", "other", "2000", Topic.TopicStatus.ofPending()));
+        listener.onChange("local/ns-topic3", buildTopic("ns-topic3", "local", "1000", Topic.TopicStatus.ofSuccess("Topic created")), null);
+
+        Assertions.assertTrue(topicAsyncExecutor.changedTopics.isEmpty());
+    }
+
+    /**
+     * Validate the changed topics are fetched by key and described by name without listing the broker topics,
+     * the ones missing from the broker being created
+     */
+    @Test
+    void synchronizeChangedTopics() {
+        topicAsyncExecutor.nextDriftDetection = Instant.MAX;
+
+        Topic existingTopic = buildTopic("ns-existing", "local", "2000", Topic.TopicStatus.ofPending());
+        Topic missingTopic = buildTopic("ns-missing", "local", "1000", Topic.TopicStatus.ofPending());
+        listener.onChange("local/ns-existing", null, existingTopic);
+        listener.onChange("local/ns-missing", null, missingTopic);
+
+        when(topicRepository.findByName("local", "ns-existing")).thenReturn(Optional.of(existingTopic));
+        when(topicRepository.findByName("local", "ns-missing")).thenReturn(Optional.of(missingTopic));
+
+        KafkaFutureImpl<TopicDescription> missingDescription = new KafkaFutureImpl<>();
+        missingDescription.completeExceptionally(new UnknownTopicOrPartitionException("Unknown topic"));
+        KafkaFutureImpl<Config> missingConfig = new KafkaFutureImpl<>();
+        missingConfig.completeExceptionally(new UnknownTopicOrPartitionException("Unknown topic"));
+
+        ConfigResource existingResource = new ConfigResource(ConfigResource.Type.TOPIC, "ns-existing");
+        DescribeTopicsResult describeTopicsResult = mock(DescribeTopicsResult.class);
+        when(admin.describeTopics(anyCollection())).thenReturn(describeTopicsResult);
+        when(describeTopicsResult.topicNameValues()).thenReturn(Map.of(
+                "ns-existing", KafkaFuture.completedFuture(buildTopicDescription("ns-existing")),
+                "ns-missing", missingDescription));
+
+        DescribeConfigsResult describeConfigsResult = mock(DescribeConfigsResult.class);
+        when(admin.describeConfigs(anyCollection())).thenReturn(describeConfigsResult);
+        when(describeConfigsResult.values()).thenReturn(Map.of(
+                existingResource, KafkaFuture.completedFuture(new Config(List.of())),
+                new ConfigResource(ConfigResource.Type.TOPIC, "ns-missing"), missingConfig));
+
+        CreateTopicsResult createTopicsResult = mock(CreateTopicsResult.class);
+        when(admin.createTopics(anyCollection())).thenReturn(createTopicsResult);
+        when(createTopicsResult.values()).thenReturn(Map.of("ns-missing", KafkaFuture.completedFuture(null)));
+
+        AlterConfigsResult alterConfigsResult = mock(AlterConfigsResult.class);
+        when(admin.incrementalAlterConfigs(anyMap())).thenReturn(alterConfigsResult);
+        when(alterConfigsResult.values()).thenReturn(Map.of(existingResource, KafkaFuture.completedFuture(null)));
+
+        topicAsyncExecutor.run();
+
+        verify(admin, never()).listTopics();
+        verify(topicRepository, never()).findAllForCluster("local");
+        verify(topicRepository).create(missingTopic);
+        verify(topicRepository).create(existingTopic);
+        Assertions.assertEquals("Topic created", missingTopic.getStatus().getMessage());
+        Assertions.assertEquals("Topic configs updated", existingTopic.getStatus().getMessage());
+        Assertions.assertTrue(topicAsyncExecutor.changedTopics.isEmpty());
+    }
+
+    private TopicDescription buildTopicDescription(String name) {
+        Node node = new Node(1, "localhost", 9092);
+        return new TopicDescription(name, false, IntStream.range(0, 3)
+                .mapToObj(partition -> new TopicPartitionInfo(partition, node, List.of(node), List.of(node)))
+                .toList());
+    }
+
+    private Topic buildTopic(String name, String cluster, String retention, Topic.TopicStatus status) {
+        return Topic.builder()
+                .metadata(ObjectMeta.builder()
+                        .name(name)
+                        .namespace("ns")
+                        .cluster(cluster)
+                        .build())
+                .spec(Topic.TopicSpec.builder()
+                        .partitions(3)
+                        .replicationFactor(3)
+                        .configs(Map.of("retention.ms", retention))
+                        .build())
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.michelin.ns4kafka.services.executors;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AlterClientQuotasResult;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.InvalidRequestException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.apache.kafka.common.quota.ClientQuotaAlteration;
+import org.apache.kafka.common.quota.ClientQuotaEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAsyncExecutorTest {
+    private static final String FAILING_USER = "user-42";
+
+    @Mock
+    Admin admin;
+
+    /**
+     * Validate the quotas of more users than a single request holds are sent in several requests,
+     * and a user failing does not prevent the results of the others from being collected
+     */
+    @Test
+    void applyQuotasInBatchesWithFailingUser() {
+        Map<String, Map<String, Double>> quotasByUser = IntStream.range(0, 1201)
+                .mapToObj(i -> "user-" + i)
+                .collect(Collectors.toMap(Function.identity(), user -> Map.of("producer_byte_rate", 1024.0)));
+
+        List<Integer> batchSizes = new ArrayList<>();
+        Set<String> alteredUsers = new HashSet<>();
+        Set<String> awaitedUsers = ConcurrentHashMap.newKeySet();
+        when(admin.alterClientQuotas(anyCollection())).thenAnswer(invocation -> {
+            Collection<ClientQuotaAlteration> alterations = invocation.getArgument(0);
+            batchSizes.add(alterations.size());
+
+            Map<ClientQuotaEntity, KafkaFuture<Void>> futures = new HashMap<>();
+            for (ClientQuotaAlteration alteration : alterations) {
+                String user = alteration.entity().entries().get(ClientQuotaEntity.USER);
+                Assertions.assertTrue(alteredUsers.add(user), "Quotas of user " + user + " sent more than once");
+
+                KafkaFutureImpl<Void> future = new KafkaFutureImpl<>() {
+                    @Override
+                    public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+                        awaitedUsers.add(user);
+                        return super.get(timeout, unit);
+                    }
+                };
+                if (FAILING_USER.equals(user)) {
+                    future.completeExceptionally(new InvalidRequestException("Invalid quota"));
+                } else {
+                    future.complete(null);
+                }
+                futures.put(alteration.entity(), future);
+            }
+            return new AlterClientQuotasResult(futures);
+        });
+
+        new UserAsyncExecutor.Scram512UserSynchronizer(admin).applyQuotas(quotasByUser);
+
+        verify(admin, times(3)).alterClientQuotas(anyCollection());
+        Assertions.assertEquals(List.of(500, 500, 201), batchSizes);
+        Assertions.assertEquals(quotasByUser.keySet(), alteredUsers);
+        Assertions.assertEquals(quotasByUser.keySet(), awaitedUsers);
+    }
+}
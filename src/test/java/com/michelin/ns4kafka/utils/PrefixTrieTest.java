@@ -0,0 +1,49 @@
+package com.michelin.ns4kafka.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class PrefixTrieTest {
+
+    /**
+     * Validate prefixed keys match the names starting with them, literal keys the exact name only
+     */
+    @Test
+    void findMatches() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("abc", true, "prefixed-abc");
+        trie.add("abc.topic", false, "literal-abc.topic");
+        trie.add("ab", false, "literal-ab");
+        trie.add("xyz", true, "prefixed-xyz");
+
+        Assertions.assertEquals(List.of("prefixed-abc", "literal-abc.topic"), trie.findMatches("abc.topic"));
+        Assertions.assertEquals(List.of("prefixed-abc"), trie.findMatches("abc.topic2"));
+        Assertions.assertEquals(List.of("prefixed-abc"), trie.findMatches("abc"));
+        Assertions.assertEquals(List.of("literal-ab"), trie.findMatches("ab"));
+        Assertions.assertTrue(trie.findMatches("a").isEmpty());
+        Assertions.assertTrue(trie.findMatches("xy").isEmpty());
+        Assertions.assertTrue(trie.findMatches("other").isEmpty());
+    }
+
+    /**
+     * Validate removed keys no longer match and empty nodes are pruned
+     */
+    @Test
+    void remove() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("abc", true, "prefixed-abc");
+        trie.add("abc.topic", false, "literal-abc.topic");
+
+        Assertions.assertFalse(trie.remove("abc", false, "prefixed-abc"));
+        Assertions.assertFalse(trie.remove("unknown", true, "prefixed-abc"));
+
+        Assertions.assertTrue(trie.remove("abc.topic", false, "literal-abc.topic"));
+        Assertions.assertEquals(List.of("prefixed-abc"), trie.findMatches("abc.topic"));
+
+        Assertions.assertTrue(trie.remove("abc", true, "prefixed-abc"));
+        Assertions.assertTrue(trie.findMatches("abc.topic").isEmpty());
+        Assertions.assertTrue(trie.isEmpty());
+    }
+}